@@ -53,6 +53,61 @@ async function safeParseResponse(res) {
   }
 }
 
+// Access tokens are short-lived: on 401/403 try the stored refresh token once, then replay the request.
+let refreshInFlight = null;
+
+async function refreshAccessToken() {
+  const refreshToken = localStorage.getItem("refreshToken");
+  if (!refreshToken) return null;
+  if (!refreshInFlight) {
+    refreshInFlight = (async () => {
+      try {
+        const res = await nativeFetch(`${API_BASE}/auth/refresh`, {
+          method: "POST",
+          headers: { "Content-Type": "application/json" },
+          body: JSON.stringify({ refreshToken }),
+        });
+        const data = await safeParseResponse(res);
+        const token = data.data?.accessToken || null;
+        if (!res.ok || !token) {
+          localStorage.removeItem("refreshToken");
+          return null;
+        }
+        localStorage.setItem("token", JSON.stringify(token));
+        if (data.data?.refreshToken) {
+          localStorage.setItem("refreshToken", data.data.refreshToken);
+        }
+        return token;
+      } catch {
+        return null;
+      } finally {
+        refreshInFlight = null;
+      }
+    })();
+  }
+  return refreshInFlight;
+}
+
+const nativeFetch = window.fetch.bind(window);
+
+window.fetch = async (input, init = {}) => {
+  const res = await nativeFetch(input, init);
+  const url = typeof input === "string" ? input : input?.url || "";
+  if (
+    (res.status !== 401 && res.status !== 403) ||
+    !url.startsWith(API_BASE) ||
+    url.startsWith(`${API_BASE}/auth/`) ||
+    !localStorage.getItem("refreshToken")
+  ) {
+    return res;
+  }
+  const token = await refreshAccessToken();
+  if (!token) return res;
+  const headers = new Headers(init.headers || {});
+  headers.set("Authorization", `Bearer ${token}`);
+  return nativeFetch(input, { ...init, headers });
+};
+
 const api = {
   getAuthHeaders: () => {
     let raw = localStorage.getItem("token");
@@ -97,7 +152,19 @@ const api = {
       data.access_token ||
       data.data?.accessToken ||
       null;
-    return { user: data.user || data.data || null, token };
+    const refreshToken = data.refreshToken || data.data?.refreshToken || null;
+    return { user: data.user || data.data || null, token, refreshToken };
+  },
+  logout: async (refreshToken) => {
+    try {
+      await fetch(`${API_BASE}/auth/logout`, {
+        method: "POST",
+        headers: { "Content-Type": "application/json", ...api.getAuthHeaders() },
+        body: JSON.stringify({ refreshToken }),
+      });
+    } catch {
+      // best effort: local state is cleared regardless
+    }
   },
   register: async (userData) => {
     const res = await fetch(`${API_BASE}/auth/register`, {
@@ -122,6 +189,14 @@ const api = {
       null;
     return { user: data.user || data.data || null, token };
   },
+  checkAvailability: async ({ username, email }) => {
+    const params = new URLSearchParams();
+    if (username) params.set("username", username);
+    if (email) params.set("email", email);
+    const res = await fetch(`${API_BASE}/auth/availability?${params}`);
+    const data = await safeParseResponse(res);
+    return res.ok ? data.data || {} : {};
+  },
   getCalendarData: async (year, month) => {
     // year: number, month: 1-12
     let raw = localStorage.getItem("token");
@@ -416,6 +491,24 @@ const api = {
       return { tasks: [] };
     }
   },
+  getTaskDetail: async (taskId) => {
+    const headers = api.getAuthHeaders();
+    try {
+      const res = await fetch(`${API_BASE}/tasks/${taskId}`, { headers });
+      const data = await safeParseResponse(res);
+      if (!res.ok)
+        throw new Error(
+          data?.message ||
+            data?.error ||
+            res.statusText ||
+            "Failed to get task detail"
+        );
+      return data?.data ?? data;
+    } catch (err) {
+      console.error("api.getTaskDetail error", err);
+      return null;
+    }
+  },
   checkClassPermission: async (classId) => {
     try {
       const headers = {
@@ -1327,6 +1420,9 @@ const AuthProvider = ({ children }) => {
       setUser(response.user);
       setToken(response.token);
       localStorage.setItem("token", JSON.stringify(response.token));
+      if (response.refreshToken) {
+        localStorage.setItem("refreshToken", response.refreshToken);
+      }
       return response;
     } finally {
       setLoading(false);
@@ -1347,9 +1443,11 @@ const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    api.logout(localStorage.getItem("refreshToken"));
     setUser(null);
     setToken(null);
     localStorage.removeItem("token");
+    localStorage.removeItem("refreshToken");
   };
 
   const isAuthenticated = !!token;
@@ -1736,6 +1834,24 @@ const RegisterForm = ({ onSwitchToLogin }) => {
   });
   const [error, setError] = useState("");
   const [registeredEmail, setRegisteredEmail] = useState(null);
+  const [availability, setAvailability] = useState({});
+
+  // live availability hint while typing (debounced)
+  useEffect(() => {
+    const username = formData.username.trim();
+    const email = formData.email.includes("@") ? formData.email.trim() : "";
+    if (!username && !email) {
+      setAvailability({});
+      return;
+    }
+    const timer = setTimeout(() => {
+      api
+        .checkAvailability({ username, email })
+        .then(setAvailability)
+        .catch(() => setAvailability({}));
+    }, 400);
+    return () => clearTimeout(timer);
+  }, [formData.username, formData.email]);
 
   const handleSubmit = async (e) => {
     e.preventDefault();
@@ -1768,7 +1884,7 @@ const RegisterForm = ({ onSwitchToLogin }) => {
       setRegisteredEmail(formData.email || res?.user?.email || "");
     } catch (e) {
       console.error(e);
-      setError("注册失败，请重试");
+      setError(e?.data?.message || "注册失败，请重试");
     }
   };
 
@@ -1833,6 +1949,9 @@ const RegisterForm = ({ onSwitchToLogin }) => {
               placeholder="请输入用户名"
               required
             />
+            {availability.usernameAvailable === false && (
+              <p className="mt-1 text-xs text-red-600">用户名已存在</p>
+            )}
           </div>
           <div>
             <label className="block text-sm font-medium text-gray-700 mb-2">
@@ -1848,6 +1967,9 @@ const RegisterForm = ({ onSwitchToLogin }) => {
               placeholder="请输入邮箱地址"
               required
             />
+            {availability.emailAvailable === false && (
+              <p className="mt-1 text-xs text-red-600">邮箱已被注册</p>
+            )}
           </div>
 
           <div>
@@ -2089,6 +2211,24 @@ const TaskEditModal = ({ isOpen, onClose, task, currentUser, onSaved }) => {
       setLocal(initial);
       setEditingField(null);
       setError("");
+
+      // list/calendar data omits description and personal notes; load them from the detail endpoint
+      let cancelled = false;
+      api.getTaskDetail(task.id).then((detail) => {
+        if (cancelled || !detail) return;
+        setLocal((prev) =>
+          prev
+            ? {
+                ...prev,
+                description: detail.description ?? prev.description ?? "",
+                personalNotes: detail.personalNotes ?? prev.personalNotes ?? "",
+              }
+            : prev
+        );
+      });
+      return () => {
+        cancelled = true;
+      };
     }
   }, [isOpen, task]);
 
@@ -1,6 +1,8 @@
 // JwtAuthenticationFilter.java (V2.0 - 重构版)
 package com.example.taskplanning;
 
+import com.example.taskplanning.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,11 +27,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService; // <-- 2. 注入官方的UserDetailsService接口
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService,
+                                   TokenRevocationService tokenRevocationService) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -40,23 +45,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt); // 假设tokenProvider有这个方法
-
-                // 3. 使用UserDetailsService加载完整的、Spring Security认可的UserDetails
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // 验签与解析一次完成，已验证过的Token直接命中缓存
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.resolveClaims(jwt) : null;
+            // 已吊销的令牌（如已退出登录）在内存吊销表中即可判定，不访问数据库
+            if (claims != null && tokenRevocationService.isRevoked(claims.getId())) {
+                logger.warn("Rejected revoked JWT: jti={}", claims.getId());
+                claims = null;
+            }
+            if (claims != null) {
+                // 3. 新版Token直接由Claims构建CustomUserDetails，不访问数据库
+                UserDetails userDetails;
+                if (tokenProvider.hasUserIdClaim(claims)) {
+                    userDetails = tokenProvider.getUserDetailsFromClaims(claims);
+                } else {
+                    // 兼容升级前签发的旧版Token（只含用户名）
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                }
 
-                // 4. 用这个完整的UserDetails来创建认证对象
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (userDetails != null) {
+                    // 4. 用这个完整的UserDetails来创建认证对象
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails,
+                                    null,
+                                    userDetails.getAuthorities()
+                            );
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                // 5. 设置到上下文中
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    // 5. 设置到上下文中
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -4,55 +4,157 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SecurityException; // 明确导入正确的SecurityException
+import com.example.taskplanning.config.CustomUserDetails;
+import com.example.taskplanning.service.MetricsService;
+import com.example.taskplanning.service.TokenVersionService;
+import com.example.taskplanning.util.BoundedCache;
+import com.example.taskplanning.util.TokenDigests;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    // 自定义Claim名称
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_AUTHORITIES = "auth";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration-in-ms}")
     private long jwtExpirationInMs; // 使用基本类型 long 更好
 
-    private SecretKey getSigningKey() {
+    @Value("${app.jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    private final MetricsService metricsService;
+    private final TokenVersionService tokenVersionService;
+
+    // 签名密钥与解析器只在启动时构建一次，JwtParser是线程安全的
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // 已验签Token的缓存：Token摘要 -> 解析后的Claims，条目随Token过期而失效
+    private BoundedCache<String, Claims> verifiedTokenCache;
+
+    public JwtTokenProvider(MetricsService metricsService, TokenVersionService tokenVersionService) {
+        this.metricsService = metricsService;
+        this.tokenVersionService = tokenVersionService;
+    }
+
+    @PostConstruct
+    public void init() {
         byte[] keyBytes = Decoders.BASE64.decode(this.jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokenCache = new BoundedCache<>(verifiedCacheMaxSize);
+        metricsService.register("jwt.verifiedTokenCache", () -> {
+            Map<String, Object> map = new LinkedHashMap<>(verifiedTokenCache.getStats().snapshot());
+            map.put("size", verifiedTokenCache.size());
+            return map;
+        });
+    }
+
+    private SecretKey getSigningKey() {
+        return signingKey;
     }
 
     /**
      * 【核心改动】
      * 根据Spring Security的Authentication对象生成JWT Token.
      * 这是最标准的做法，因为它能从认证成功的结果中直接获取用户信息。
+     * Token中同时携带用户ID、权限列表和Token版本号，过滤器可直接据此构建CustomUserDetails，无需查库。
      *
      * @param authentication Spring Security认证成功的对象
      * @return 生成的JWT Token字符串
      */
     public String generateToken(Authentication authentication) {
         // 从Authentication对象中获取UserDetails，它包含了用户名等核心信息
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        return generateToken((UserDetails) authentication.getPrincipal());
+    }
+
+    /**
+     * 根据UserDetails生成JWT Token（刷新令牌换取新访问令牌时使用）
+     * 每个Token带有唯一ID(jti)，用于吊销
+     */
+    public String generateToken(UserDetails userPrincipal) {
         String username = userPrincipal.getUsername();
 
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        // 注意：如果你还想在Token中加入userId，需要让你的UserDetails实现类包含userId
-        // 这是一个更高级的实践，我们暂时只用username作为主体(Subject)
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(expiryDate);
+
+        if (userPrincipal instanceof CustomUserDetails customUser) {
+            List<String> authorities = customUser.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList();
+            builder.claim(CLAIM_USER_ID, customUser.getId())
+                    .claim(CLAIM_AUTHORITIES, authorities)
+                    .claim(CLAIM_TOKEN_VERSION, tokenVersionService.currentVersion(customUser.getId()));
+        }
+
+        return builder.signWith(getSigningKey(), SignatureAlgorithm.HS256).compact();
+    }
+
+    /**
+     * 从已验证的Claims直接构建CustomUserDetails
+     *
+     * @param claims 已验签的Claims
+     * @return 用户详情；旧版Token（未携带用户ID）或Token版本已失效时返回null
+     */
+    public CustomUserDetails getUserDetailsFromClaims(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            return null;
+        }
+
+        Integer version = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        if (version == null || !tokenVersionService.isCurrent(userId, version)) {
+            logger.warn("Rejected JWT with stale token version: userId={}", userId);
+            return null;
+        }
+
+        Collection<? extends GrantedAuthority> authorities = toAuthorities(claims.get(CLAIM_AUTHORITIES, List.class));
+        return new CustomUserDetails(userId, claims.getSubject(), null, authorities);
+    }
+
+    /**
+     * 判断Token是否为携带用户ID的新版Token
+     */
+    public boolean hasUserIdClaim(Claims claims) {
+        return claims.get(CLAIM_USER_ID) != null;
+    }
+
+    private Collection<? extends GrantedAuthority> toAuthorities(List<?> rawAuthorities) {
+        if (rawAuthorities == null) {
+            return List.of();
+        }
+        return rawAuthorities.stream()
+                .map(authority -> new SimpleGrantedAuthority(String.valueOf(authority)))
+                .toList();
     }
 
     /**
@@ -62,13 +164,7 @@ public class JwtTokenProvider {
      * @return 用户名
      */
     public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+        return parseClaims(token).getSubject();
     }
 
     /**
@@ -78,9 +174,19 @@ public class JwtTokenProvider {
      * @return true如果Token有效
      */
     public boolean validateToken(String token) {
+        return resolveClaims(token) != null;
+    }
+
+    /**
+     * 一次性完成验签与解析，供过滤器在每个请求上调用
+     * 已验证过的Token直接从缓存返回Claims，不再重复HMAC校验
+     *
+     * @param token JWT Token
+     * @return 解析后的Claims；Token无效或已过期时返回null
+     */
+    public Claims resolveClaims(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parse(token);
-            return true;
+            return parseClaims(token);
         } catch (SecurityException | MalformedJwtException ex) {
             logger.error("Invalid JWT token: {}", ex.getMessage());
         } catch (ExpiredJwtException ex) {
@@ -90,7 +196,25 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty: {}", ex.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * 解析并验签Token，优先命中已验证缓存，解析失败时抛出JJWT异常
+     */
+    private Claims parseClaims(String token) {
+        String digest = TokenDigests.sha256Hex(token);
+        Claims cached = verifiedTokenCache.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokenCache.put(digest, claims, expiration.getTime());
+        }
+        return claims;
     }
 
     /**
@@ -100,25 +224,14 @@ public class JwtTokenProvider {
         return jwtExpirationInMs;
     }
 
-    // --- (以下方法在当前重构后的流程中不是必需的，但可以保留) ---
-
+    /**
+     * 从JWT Token中提取用户ID
+     */
     public Long getUserIdFromToken(String token) {
-        // ... (原代码保持不变，但请注意，如果generateToken不存userId，这里会报错)
-        // 为了安全起见，我们暂时注释掉它，因为新版generateToken没存userId
-        /*
-        Claims claims = Jwts.parserBuilder()...
-        return claims.get("userId", Long.class);
-        */
-        throw new UnsupportedOperationException("UserId is not included in the JWT token in this version.");
+        return parseClaims(token).get(CLAIM_USER_ID, Long.class);
     }
 
     public Date getExpirationDateFromToken(String token) {
-        // ... (原代码保持不变) ...
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getExpiration();
+        return parseClaims(token).getExpiration();
     }
 }
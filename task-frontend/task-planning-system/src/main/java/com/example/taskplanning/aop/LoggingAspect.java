@@ -3,8 +3,8 @@ package com.example.taskplanning.aop;
 import com.example.taskplanning.annotation.LogAction;
 import com.example.taskplanning.entity.ActionLog;
 import com.example.taskplanning.entity.User;
+import com.example.taskplanning.service.CurrentUserResolver;
 import com.example.taskplanning.service.LogService;
-import com.example.taskplanning.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
@@ -29,12 +29,12 @@ public class LoggingAspect {
     private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
 
     private final LogService logService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
 
     @Autowired
-    public LoggingAspect(LogService logService, UserService userService) {
+    public LoggingAspect(LogService logService, CurrentUserResolver currentUserResolver) {
         this.logService = logService;
-        this.userService = userService;
+        this.currentUserResolver = currentUserResolver;
     }
 
     @AfterReturning(pointcut = "@annotation(com.example.taskplanning.annotation.LogAction)", returning = "result")
@@ -63,7 +63,8 @@ public class LoggingAspect {
 
             User currentUser = null;
             try {
-                currentUser = userService.getCurrentUserEntity();
+                // 日志只需要外键，使用引用代理，不额外查询用户
+                currentUser = currentUserResolver.getCurrentUserReference();
             } catch (Exception ignored) {}
 
             Map<String, Object> detailsMap = new HashMap<>();
@@ -1,5 +1,6 @@
 package com.example.taskplanning.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -22,4 +23,22 @@ public class AsyncConfig {
         return executor;
     }
 
+    /**
+     * 密码校验专用线程池：BCrypt计算受CPU限制，线程数默认等于CPU核数，
+     * 队列有界，排满后直接拒绝，避免登录高峰占满Tomcat请求线程拖垮其他接口
+     */
+    @Bean("passwordHashingExecutor")
+    public ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${app.auth.password-hashing.pool-size:0}") int poolSize,
+            @Value("${app.auth.password-hashing.queue-capacity:100}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("PasswordHash-");
+        executor.initialize();
+        return executor;
+    }
+
 }
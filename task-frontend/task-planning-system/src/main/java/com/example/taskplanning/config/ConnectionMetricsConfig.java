@@ -0,0 +1,28 @@
+package com.example.taskplanning.config;
+
+import com.example.taskplanning.service.ConnectionUsageMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 在连接池启动前为 HikariDataSource 挂上连接占用指标（连接池第一次借出连接后不能再设置）
+ */
+@Configuration
+public class ConnectionMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor hikariMetricsPostProcessor(ObjectProvider<ConnectionUsageMetrics> connectionUsageMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMetricsTrackerFactory(connectionUsageMetrics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.taskplanning.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 开启定时任务（令牌清理等后台作业）
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
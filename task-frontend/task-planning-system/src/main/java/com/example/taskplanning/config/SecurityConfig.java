@@ -5,6 +5,7 @@ import com.example.taskplanning.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -38,6 +39,8 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
+                        // 日历订阅地址由订阅令牌鉴权，日历应用无法携带JWT
+                        .requestMatchers(HttpMethod.GET, "/api/calendar/feed/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
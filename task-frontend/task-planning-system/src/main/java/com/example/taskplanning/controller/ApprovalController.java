@@ -2,7 +2,9 @@ package com.example.taskplanning.controller;
 
 import com.example.taskplanning.ApiResponse;
 import com.example.taskplanning.dto.GlobalApprovalResponseDto;
+import com.example.taskplanning.dto.SliceResponseDto;
 import com.example.taskplanning.service.ApprovalService;
+import com.example.taskplanning.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -27,11 +30,26 @@ public class ApprovalController {
     /**
      * 获取当前用户所有管理班级中的待审批申请
      * GET /api/approvals/pending
+     * paging=keyset 时按 cursor 做键集分页（申请时间倒序），不返回总数；
+     * paging=slice 时按页码分页但不执行COUNT，withTotal=true 时附带缓存的总数
      */
     @GetMapping("/pending")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ApiResponse<Page<GlobalApprovalResponseDto>>> getGlobalPendingApprovals(
-            @PageableDefault(size = 20, sort = "createdAt") Pageable pageable) {
+    public ResponseEntity<ApiResponse<?>> getGlobalPendingApprovals(
+            @PageableDefault(size = 20, sort = "createdAt") Pageable pageable,
+            @RequestParam(defaultValue = "page") String paging,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        if (KeysetCursor.PAGING_MODE.equals(paging)) {
+            SliceResponseDto<GlobalApprovalResponseDto> slice =
+                    approvalService.getGlobalPendingApprovalSlice(cursor, pageable.getPageSize());
+            return ResponseEntity.ok(ApiResponse.success(slice, "成功获取待审批列表"));
+        }
+        if (SliceResponseDto.PAGING_MODE.equals(paging)) {
+            return ResponseEntity.ok(ApiResponse.success(
+                    approvalService.getGlobalPendingApprovalSlice(pageable, withTotal), "成功获取待审批列表"));
+        }
 
         Page<GlobalApprovalResponseDto> approvals = approvalService.getGlobalPendingApprovals(pageable);
 
@@ -1,19 +1,24 @@
 // 7. 认证控制器 (AuthController.java)
 package com.example.taskplanning.controller;
 
+import com.example.taskplanning.dto.AvailabilityResponseDto;
 import com.example.taskplanning.dto.LoginRequestDto;
 import com.example.taskplanning.dto.LoginResponseDto;
+import com.example.taskplanning.dto.RefreshTokenRequestDto;
 import lombok.extern.slf4j.Slf4j;
 
 import com.example.taskplanning.ApiResponse;
 import com.example.taskplanning.dto.UserRegistrationDto;
+import com.example.taskplanning.service.AuthRateLimitService;
 import com.example.taskplanning.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.example.taskplanning.dto.ResendVerificationRequestDto;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @RestController
@@ -24,6 +29,9 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthRateLimitService authRateLimitService;
+
     /**
      * 用户注册
      */
@@ -35,6 +43,17 @@ public class AuthController {
         ApiResponse<Void> response = ApiResponse.success("注册成功");
         return ResponseEntity.ok(response);
     }
+    /**
+     * 用户名/邮箱可用性检查（注册表单实时校验）
+     * GET /api/auth/availability?username=...&email=...
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<ApiResponse<AvailabilityResponseDto>> checkAvailability(
+            @RequestParam(value = "username", required = false) String username,
+            @RequestParam(value = "email", required = false) String email) {
+        return ResponseEntity.ok(ApiResponse.success(userService.checkAvailability(username, email), "查询成功"));
+    }
+
     /**
      * 用户登录
      *
@@ -43,10 +62,13 @@ public class AuthController {
      */
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<LoginResponseDto>> loginUser(
-            @Valid @RequestBody LoginRequestDto loginRequest) {
+            @Valid @RequestBody LoginRequestDto loginRequest, HttpServletRequest request) {
 
         log.info("收到用户登录请求: username={}", loginRequest.getUsername());
 
+        // 超出限额时直接返回429，不进入密码校验
+        authRateLimitService.checkLogin(request.getRemoteAddr(), loginRequest.getUsername());
+
         LoginResponseDto loginResponse = userService.loginUser(loginRequest);
 
         log.info("用户登录成功: username={}", loginRequest.getUsername());
@@ -71,9 +93,36 @@ public class AuthController {
      * POST /api/auth/resend-verification
      */
     @PostMapping("/resend-verification")
-    public ResponseEntity<ApiResponse<Void>> resendVerificationEmail(@jakarta.validation.Valid @org.springframework.web.bind.annotation.RequestBody ResendVerificationRequestDto requestDto) {
+    public ResponseEntity<ApiResponse<Void>> resendVerificationEmail(@jakarta.validation.Valid @org.springframework.web.bind.annotation.RequestBody ResendVerificationRequestDto requestDto, HttpServletRequest request) {
+        authRateLimitService.checkResendVerification(request.getRemoteAddr(), requestDto.getEmail());
         userService.resendVerificationEmail(requestDto);
         return ResponseEntity.ok(ApiResponse.success("新的验证邮件已发送，请检查您的收件箱。"));
     }
-}
 
+    /**
+     * 使用刷新令牌换取新的访问令牌
+     * POST /api/auth/refresh
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<LoginResponseDto>> refreshToken(@Valid @RequestBody RefreshTokenRequestDto requestDto) {
+        LoginResponseDto loginResponse = userService.refreshAccessToken(requestDto);
+        return ResponseEntity.ok(ApiResponse.success(loginResponse, "令牌刷新成功"));
+    }
+
+    /**
+     * 退出登录：吊销当前访问令牌和刷新令牌
+     * POST /api/auth/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequestDto requestDto) {
+
+        String accessToken = null;
+        if (StringUtils.hasText(authorization) && authorization.startsWith("Bearer ")) {
+            accessToken = authorization.substring(7);
+        }
+        userService.logout(accessToken, requestDto != null ? requestDto.getRefreshToken() : null);
+        return ResponseEntity.ok(ApiResponse.success("已退出登录"));
+    }
+}
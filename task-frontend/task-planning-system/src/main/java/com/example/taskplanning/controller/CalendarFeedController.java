@@ -0,0 +1,95 @@
+package com.example.taskplanning.controller;
+
+import com.example.taskplanning.ApiResponse;
+import com.example.taskplanning.dto.FeedTokenResponseDto;
+import com.example.taskplanning.service.CalendarFeedService;
+import com.example.taskplanning.service.FeedTokenService;
+import com.example.taskplanning.service.ViewVersionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * 日历订阅控制器
+ * 订阅地址 /api/calendar/feed/{token}.ics 不需要登录，由订阅令牌识别用户（见 SecurityConfig）
+ */
+@RestController
+@RequestMapping("/api/calendar")
+public class CalendarFeedController {
+
+    private static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
+    private final FeedTokenService feedTokenService;
+    private final CalendarFeedService calendarFeedService;
+    private final ViewVersionService viewVersionService;
+
+    @Autowired
+    public CalendarFeedController(FeedTokenService feedTokenService,
+                                  CalendarFeedService calendarFeedService,
+                                  ViewVersionService viewVersionService) {
+        this.feedTokenService = feedTokenService;
+        this.calendarFeedService = calendarFeedService;
+        this.viewVersionService = viewVersionService;
+    }
+
+    /**
+     * 生成（或重新生成）当前用户的订阅地址，旧地址随即失效
+     */
+    @PostMapping("/feed-token")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<FeedTokenResponseDto>> issueFeedToken() {
+        String token = feedTokenService.issueForCurrentUser();
+        String feedUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/calendar/feed/{token}.ics")
+                .buildAndExpand(token)
+                .toUriString();
+        return ResponseEntity.ok(ApiResponse.success(new FeedTokenResponseDto(token, feedUrl), "订阅地址生成成功"));
+    }
+
+    /**
+     * 吊销当前用户的订阅地址
+     */
+    @DeleteMapping("/feed-token")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<Void>> revokeFeedToken() {
+        feedTokenService.revokeForCurrentUser();
+        return ResponseEntity.ok(ApiResponse.success("订阅地址已吊销"));
+    }
+
+    /**
+     * 日历订阅（iCalendar）
+     * 日历应用定期轮询：视图版本号未变时按 If-None-Match / If-Modified-Since 直接返回304，
+     * 令牌解析命中缓存时，304 只查询视图版本号（view_versions 主键点查）。
+     * 订阅窗口每天移动：ETag 带上窗口起始日期，Last-Modified 不早于当天零点，跨天后第一次轮询返回新内容
+     */
+    @GetMapping("/feed/{token}.ics")
+    public ResponseEntity<StreamingResponseBody> getFeed(@PathVariable String token, WebRequest webRequest) {
+        Long userId = feedTokenService.resolveUserId(token);
+
+        LocalDate today = LocalDate.now();
+        LocalDate windowStart = calendarFeedService.windowStart(today);
+        String etag = viewVersionService.userEtag("ics-" + windowStart, userId);
+        long startOfToday = today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long lastModified = Math.max(viewVersionService.userLastModified(userId), startOfToday);
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            viewVersionService.recordConditionalGet(true);
+            return null;
+        }
+        viewVersionService.recordConditionalGet(false);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(TEXT_CALENDAR)
+                .body(out -> calendarFeedService.writeFeed(userId, windowStart, out));
+    }
+}
@@ -6,6 +6,7 @@ import com.example.taskplanning.ApiResponse;
 import com.example.taskplanning.entity.UserClassRelation;
 import com.example.taskplanning.exception.BusinessException;
 import com.example.taskplanning.service.ClassService;
+import com.example.taskplanning.util.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -80,13 +81,27 @@ public class ClassController {
     /**
      * 获取班级的待审批申请列表
      * GET /api/classes/{classId}/approvals
-     * 需要ADMIN或OWNER权限
+     * 需要ADMIN或OWNER权限；paging=keyset 时按 cursor 做键集分页，不返回总数；
+     * paging=slice 时按页码分页但不执行COUNT，withTotal=true 时附带缓存的总数
      */
     @GetMapping("/{classId}/approvals")
     @PreAuthorize("@classService.hasClassAdminPermission(authentication.principal.id, #classId)")
-    public ResponseEntity<ApiResponse<Page<ApprovalResponseDto>>> getApprovalList(
+    public ResponseEntity<ApiResponse<?>> getApprovalList(
             @PathVariable Long classId,
-            @PageableDefault(size = 20, sort = "createdAt") Pageable pageable) {
+            @PageableDefault(size = 20, sort = {"createdAt", "id"}) Pageable pageable,
+            @RequestParam(defaultValue = "page") String paging,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        if (KeysetCursor.PAGING_MODE.equals(paging)) {
+            SliceResponseDto<ApprovalResponseDto> slice =
+                    classService.getApprovalSlice(classId, cursor, pageable.getPageSize());
+            return ResponseEntity.ok(ApiResponse.success(slice, "待审批列表查询成功"));
+        }
+        if (SliceResponseDto.PAGING_MODE.equals(paging)) {
+            return ResponseEntity.ok(ApiResponse.success(
+                    classService.getApprovalSlice(classId, pageable, withTotal), "待审批列表查询成功"));
+        }
 
         Page<ApprovalResponseDto> approvalList = classService.getApprovalList(classId, pageable);
 
@@ -117,10 +132,18 @@ public class ClassController {
     /**
      * 获取我加入的班级列表
      * GET /api/classes/my
+     * paging=slice 时不执行COUNT，withTotal=true 时附带缓存的总数
      */
     @GetMapping("/my")
-    public ResponseEntity<ApiResponse<Page<ClassResponseDto>>> getMyClasses(
-            @PageableDefault(size = 20, sort = "joinedAt") Pageable pageable) {
+    public ResponseEntity<ApiResponse<?>> getMyClasses(
+            @PageableDefault(size = 20, sort = "joinedAt") Pageable pageable,
+            @RequestParam(defaultValue = "page") String paging,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        if (SliceResponseDto.PAGING_MODE.equals(paging)) {
+            return ResponseEntity.ok(ApiResponse.success(
+                    classService.getMyClassSlice(pageable, withTotal), "我的班级列表查询成功"));
+        }
 
         Page<ClassResponseDto> myClasses = classService.getMyClasses(pageable);
 
@@ -176,6 +199,7 @@ public class ClassController {
     /**
      * 获取指定班级的成员列表 (分页)
      * 只有班级成员才能查看
+     * paging=slice 时按页码分页但不执行COUNT，withTotal=true 时附带缓存的总数
      *
      * @param classId 班级ID
      * @param pageable 分页参数
@@ -183,9 +207,22 @@ public class ClassController {
      */
     @GetMapping("/{classId}/members") // <-- 1. 核心: 匹配 GET /api/classes/{classId}/members
     @PreAuthorize("@securityService.isClassMember(#classId)") // <-- 2. 权限: 只有班级成员才能看
-    public ResponseEntity<ApiResponse<Page<MemberResponseDto>>> getMemberList(
+    public ResponseEntity<ApiResponse<?>> getMemberList(
             @PathVariable Long classId,
-            @PageableDefault(size = 20, sort = "joinedAt") Pageable pageable) {
+            @PageableDefault(size = 20, sort = {"joinedAt", "id"}) Pageable pageable,
+            @RequestParam(defaultValue = "page") String paging,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        if (KeysetCursor.PAGING_MODE.equals(paging)) {
+            SliceResponseDto<MemberResponseDto> slice =
+                    classService.getMemberSlice(classId, cursor, pageable.getPageSize());
+            return ResponseEntity.ok(ApiResponse.success(slice, "成功获取班级成员列表"));
+        }
+        if (SliceResponseDto.PAGING_MODE.equals(paging)) {
+            return ResponseEntity.ok(ApiResponse.success(
+                    classService.getMemberSlice(classId, pageable, withTotal), "成功获取班级成员列表"));
+        }
 
         // 3. 调用Service层完成业务逻辑
         Page<MemberResponseDto> memberPage = classService.getMemberList(classId, pageable);
@@ -0,0 +1,35 @@
+package com.example.taskplanning.controller;
+
+import com.example.taskplanning.ApiResponse;
+import com.example.taskplanning.service.MetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final MetricsService metricsService;
+
+    @Autowired
+    public MetricsController(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * 获取运行时指标（缓存命中率等）
+     * GET /api/metrics
+     * 指标涉及缓存容量、队列长度等内部状态，仅限 ADMIN（见 app.security.admin-usernames）
+     */
+    @GetMapping
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getMetrics() {
+        return ResponseEntity.ok(ApiResponse.success(metricsService.snapshot(), "指标获取成功"));
+    }
+}
@@ -2,29 +2,41 @@
 package com.example.taskplanning.controller;
 
 import com.example.taskplanning.ApiResponse;
-import com.example.taskplanning.dto.CalendarTaskDto;
+import com.example.taskplanning.dto.SliceResponseDto;
 import com.example.taskplanning.dto.TaskCreateDto;
+import com.example.taskplanning.dto.TaskPermissionDto;
+import com.example.taskplanning.dto.TaskPermissionRequestDto;
 import com.example.taskplanning.dto.TaskResponseDto;
 import com.example.taskplanning.dto.TaskStatusUpdateDto;
 import com.example.taskplanning.entity.Task;
 import com.example.taskplanning.entity.UserTaskRelation;
 import com.example.taskplanning.exception.BusinessException;
+import com.example.taskplanning.service.CalendarStreamService;
+import com.example.taskplanning.service.CurrentUserResolver;
 import com.example.taskplanning.service.TaskService;
+import com.example.taskplanning.service.ViewVersionService;
+import com.example.taskplanning.util.KeysetCursor;
 import com.example.taskplanning.entity.User;
 import com.example.taskplanning.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api")
@@ -33,10 +45,19 @@ public class TaskController {
     private static final Logger logger = LoggerFactory.getLogger(TaskController.class);
 
     private final TaskService taskService;
+    private final ViewVersionService viewVersionService;
+    private final CurrentUserResolver currentUserResolver;
+    private final CalendarStreamService calendarStreamService;
 
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService,
+                          ViewVersionService viewVersionService,
+                          CurrentUserResolver currentUserResolver,
+                          CalendarStreamService calendarStreamService) {
         this.taskService = taskService;
+        this.viewVersionService = viewVersionService;
+        this.currentUserResolver = currentUserResolver;
+        this.calendarStreamService = calendarStreamService;
     }
 
     /**
@@ -71,27 +92,73 @@ public class TaskController {
      */
     @GetMapping("/calendar")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ApiResponse<List<CalendarTaskDto>>> getCalendarTasks(
+    public ResponseEntity<ApiResponse<?>> getCalendarTasks(
             @RequestParam int year,
-            @RequestParam int month) {
+            @RequestParam int month,
+            WebRequest webRequest) {
 
-        List<CalendarTaskDto> tasks = taskService.getCalendarTasks(year, month);
-        return ResponseEntity.ok(ApiResponse.success(tasks, "日历数据获取成功"));
+        String etag = viewVersionService.userEtag("calendar", currentUserResolver.getCurrentUserId());
+        return conditional(webRequest, etag,
+                () -> ApiResponse.success(taskService.getCalendarTasks(year, month), "日历数据获取成功"));
+    }
+
+    /**
+     * 按日期区间获取日历数据（流式输出，区间跨度上限见 app.calendar.range.max-days）
+     * GET /api/calendar/range?from=2025-01-01&to=2025-12-31&groupBy=none|day|week
+     */
+    @GetMapping("/calendar/range")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> getCalendarRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "none") String groupBy,
+            WebRequest webRequest) {
+
+        CalendarStreamService.Grouping grouping = CalendarStreamService.Grouping.parse(groupBy);
+        calendarStreamService.validateRange(from, to);
+        Long userId = currentUserResolver.getCurrentUserId();
+
+        String etag = viewVersionService.userEtag("calendar", userId);
+        if (webRequest.checkNotModified(etag)) {
+            viewVersionService.recordConditionalGet(true);
+            return null;
+        }
+        viewVersionService.recordConditionalGet(false);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> calendarStreamService.writeRange(userId, from, to, grouping, out));
     }
 
     /**
      * 获取班级任务列表
+     * paging=keyset 时按 cursor 做键集分页，返回 nextCursor/hasNext，不返回总数；
+     * paging=slice 时按页码分页但不执行COUNT，withTotal=true 时附带缓存的总数
      */
     @GetMapping("/classes/{classId}/tasks")
     @PreAuthorize("@securityService.isClassMember(#classId)")
-    public ResponseEntity<ApiResponse<Page<TaskResponseDto>>> getClassTasks(
+    public ResponseEntity<ApiResponse<?>> getClassTasks(
             @PathVariable Long classId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "page") String paging,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            WebRequest webRequest) {
 
+        String etag = viewVersionService.classEtag("class-tasks", classId, currentUserResolver.getCurrentUserId());
+        if (KeysetCursor.PAGING_MODE.equals(paging)) {
+            return conditional(webRequest, etag,
+                    () -> ApiResponse.success(taskService.getClassTaskSlice(classId, cursor, size), "班级任务列表获取成功"));
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<TaskResponseDto> tasks = taskService.getClassTasks(classId, pageable);
-        return ResponseEntity.ok(ApiResponse.success(tasks, "班级任务列表获取成功"));
+        if (SliceResponseDto.PAGING_MODE.equals(paging)) {
+            return conditional(webRequest, etag,
+                    () -> ApiResponse.success(taskService.getClassTaskSlice(classId, pageable, withTotal), "班级任务列表获取成功"));
+        }
+        return conditional(webRequest, etag,
+                () -> ApiResponse.success(taskService.getClassTasks(classId, pageable), "班级任务列表获取成功"));
     }
 
     /**
@@ -115,6 +182,17 @@ public class TaskController {
         return ResponseEntity.ok(ApiResponse.success(task, "任务状态更新成功"));
     }
 
+    /**
+     * 批量查询当前用户对多个任务的访问/编辑权限（一次往返）
+     */
+    @PostMapping("/tasks/permissions")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<List<TaskPermissionDto>>> getTaskPermissions(
+            @Valid @RequestBody TaskPermissionRequestDto requestDto) {
+        List<TaskPermissionDto> permissions = taskService.getTaskPermissions(requestDto.getTaskIds());
+        return ResponseEntity.ok(ApiResponse.success(permissions, "任务权限查询成功"));
+    }
+
     /**
      * 获取任务详情
      */
@@ -126,16 +204,31 @@ public class TaskController {
     }
     /**
      * 获取个人任务列表
+     * paging=keyset 时按 cursor 做键集分页，返回 nextCursor/hasNext，不返回总数；
+     * paging=slice 时按页码分页但不执行COUNT，withTotal=true 时附带缓存的总数
      */
     @GetMapping("/tasks/personal")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ApiResponse<Page<TaskResponseDto>>> getPersonalTasks(
+    public ResponseEntity<ApiResponse<?>> getPersonalTasks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "page") String paging,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            WebRequest webRequest) {
 
+        String etag = viewVersionService.userEtag("personal-tasks", currentUserResolver.getCurrentUserId());
+        if (KeysetCursor.PAGING_MODE.equals(paging)) {
+            return conditional(webRequest, etag,
+                    () -> ApiResponse.success(taskService.getPersonalTaskSlice(cursor, size), "个人任务列表获取成功"));
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<TaskResponseDto> tasks = taskService.getPersonalTasks(pageable);
-        return ResponseEntity.ok(ApiResponse.success(tasks, "个人任务列表获取成功"));
+        if (SliceResponseDto.PAGING_MODE.equals(paging)) {
+            return conditional(webRequest, etag,
+                    () -> ApiResponse.success(taskService.getPersonalTaskSlice(pageable, withTotal), "个人任务列表获取成功"));
+        }
+        return conditional(webRequest, etag,
+                () -> ApiResponse.success(taskService.getPersonalTasks(pageable), "个人任务列表获取成功"));
     }
 
     /**
@@ -160,4 +253,21 @@ public class TaskController {
         taskService.deleteTask(taskId);
         return ResponseEntity.ok(ApiResponse.success("任务删除成功"));
     }
+
+    /**
+     * 条件GET：If-None-Match 与当前版本号一致时直接返回304，只查询视图版本号，不执行列表查询；
+     * 否则查询并带上ETag返回（no-cache：浏览器每次都带ETag回来验证）
+     */
+    private ResponseEntity<ApiResponse<?>> conditional(WebRequest webRequest, String etag,
+                                                       Supplier<ApiResponse<?>> body) {
+        if (webRequest.checkNotModified(etag)) {
+            viewVersionService.recordConditionalGet(true);
+            return null;
+        }
+        viewVersionService.recordConditionalGet(false);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body.get());
+    }
 }
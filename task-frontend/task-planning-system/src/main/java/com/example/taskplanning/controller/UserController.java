@@ -2,13 +2,17 @@
 package com.example.taskplanning.controller;
 
 import com.example.taskplanning.ApiResponse;
+import com.example.taskplanning.dto.PasswordChangeDto;
 import com.example.taskplanning.dto.UserResponseDto;
 import com.example.taskplanning.service.UserService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -40,6 +44,18 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(currentUserDto, "Successfully fetched current user data."));
     }
 
+    /**
+     * 修改当前登录用户的密码
+     * PUT /api/users/me/password
+     * 成功后所有已签发的访问令牌和刷新令牌失效，需要重新登录
+     */
+    @PutMapping("/me/password")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<Void>> changePassword(@Valid @RequestBody PasswordChangeDto requestDto) {
+        userService.changePassword(requestDto);
+        return ResponseEntity.ok(ApiResponse.success("密码已修改，请重新登录"));
+    }
+
     // 未来你可以在这里添加其他用户相关的API，比如：
     // @PutMapping("/me")
     // public ResponseEntity<ApiResponse<UserResponseDto>> updateCurrentUser(...) { ... }
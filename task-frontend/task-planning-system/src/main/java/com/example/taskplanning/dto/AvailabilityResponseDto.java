@@ -0,0 +1,41 @@
+package com.example.taskplanning.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 用户名/邮箱可用性检查响应DTO
+ * 只返回请求中携带的字段
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityResponseDto {
+
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+
+    // 无参构造
+    public AvailabilityResponseDto() {
+    }
+
+    // 全参构造
+    public AvailabilityResponseDto(Boolean usernameAvailable, Boolean emailAvailable) {
+        this.usernameAvailable = usernameAvailable;
+        this.emailAvailable = emailAvailable;
+    }
+
+    // Getter and Setter
+    public Boolean getUsernameAvailable() {
+        return usernameAvailable;
+    }
+
+    public void setUsernameAvailable(Boolean usernameAvailable) {
+        this.usernameAvailable = usernameAvailable;
+    }
+
+    public Boolean getEmailAvailable() {
+        return emailAvailable;
+    }
+
+    public void setEmailAvailable(Boolean emailAvailable) {
+        this.emailAvailable = emailAvailable;
+    }
+}
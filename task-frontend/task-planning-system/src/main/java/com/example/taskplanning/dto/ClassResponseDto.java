@@ -22,9 +22,14 @@ public class ClassResponseDto {
 
     // 便利构造函数，用于从Entity转换
     public ClassResponseDto(Classes classEntity, User owner) {
+        this(classEntity, owner, true);
+    }
+
+    // includeDescription 为false时不读取延迟加载的描述字段（班级列表使用）
+    public ClassResponseDto(Classes classEntity, User owner, boolean includeDescription) {
         this.id = classEntity.getId();
         this.name = classEntity.getName();
-        this.description = classEntity.getDescription();
+        this.description = includeDescription ? classEntity.getDescription() : null;
         this.inviteCode = classEntity.getInviteCode();
         this.isPublic = classEntity.isPublic();
         this.joinApprovalRequired = classEntity.isJoinApprovalRequired();
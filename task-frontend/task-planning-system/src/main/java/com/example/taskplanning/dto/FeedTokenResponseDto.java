@@ -0,0 +1,38 @@
+package com.example.taskplanning.dto;
+
+/**
+ * 日历订阅令牌响应DTO
+ * 令牌原文只在生成时返回一次，feedUrl 可直接填入手机日历的"添加订阅"
+ */
+public class FeedTokenResponseDto {
+
+    private String token;
+    private String feedUrl;
+
+    // 无参构造
+    public FeedTokenResponseDto() {
+    }
+
+    // 全参构造
+    public FeedTokenResponseDto(String token, String feedUrl) {
+        this.token = token;
+        this.feedUrl = feedUrl;
+    }
+
+    // Getter and Setter
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getFeedUrl() {
+        return feedUrl;
+    }
+
+    public void setFeedUrl(String feedUrl) {
+        this.feedUrl = feedUrl;
+    }
+}
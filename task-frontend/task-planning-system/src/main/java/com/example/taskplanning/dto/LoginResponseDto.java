@@ -9,6 +9,8 @@ public class LoginResponseDto {
     private String accessToken;
     private String tokenType;
     private Long expiresIn;
+    private String refreshToken;
+    private Long refreshExpiresIn;
 
     // 无参构造函数
     public LoginResponseDto() {}
@@ -20,6 +22,14 @@ public class LoginResponseDto {
         this.expiresIn = expiresIn;
     }
 
+    // 带刷新令牌的构造函数
+    public LoginResponseDto(String accessToken, String tokenType, Long expiresIn,
+                            String refreshToken, Long refreshExpiresIn) {
+        this(accessToken, tokenType, expiresIn);
+        this.refreshToken = refreshToken;
+        this.refreshExpiresIn = refreshExpiresIn;
+    }
+
     // 静态工厂方法，方便创建标准的Bearer Token响应
     public static LoginResponseDto createBearerToken(String accessToken, Long expiresIn) {
         return new LoginResponseDto(accessToken, "Bearer", expiresIn);
@@ -50,12 +60,30 @@ public class LoginResponseDto {
         this.expiresIn = expiresIn;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public Long getRefreshExpiresIn() {
+        return refreshExpiresIn;
+    }
+
+    public void setRefreshExpiresIn(Long refreshExpiresIn) {
+        this.refreshExpiresIn = refreshExpiresIn;
+    }
+
     @Override
     public String toString() {
         return "LoginResponseDto{" +
                 "accessToken='[PROTECTED]'" + // 出于安全考虑，不在日志中显示完整token
                 ", tokenType='" + tokenType + '\'' +
                 ", expiresIn=" + expiresIn +
+                ", refreshToken='[PROTECTED]'" +
+                ", refreshExpiresIn=" + refreshExpiresIn +
                 '}';
     }
 }
@@ -0,0 +1,26 @@
+package com.example.taskplanning.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * 刷新令牌请求DTO（用于刷新访问令牌和退出登录）
+ */
+public class RefreshTokenRequestDto {
+
+    @NotBlank(message = "刷新令牌不能为空")
+    private String refreshToken;
+
+    // Getters and Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshTokenRequestDto{refreshToken='[PROTECTED]'}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.taskplanning.dto;
+
+import com.example.taskplanning.util.KeysetCursor;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 分页结果DTO（不执行COUNT）
+ * 键集分页返回当前页内容、是否还有下一页以及下一页的游标；
+ * 页码分页（paging=slice）返回页码，按页码多查一条判断是否还有下一页。
+ * 只有请求 withTotal=true 时才带上总数（来自计数缓存）
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SliceResponseDto<T> {
+
+    /** 请求参数 paging 取该值时按页码分页，但不执行COUNT */
+    public static final String PAGING_MODE = "slice";
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Integer page;
+    private Long totalElements;
+
+    public SliceResponseDto() {
+    }
+
+    public SliceResponseDto(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * 由多查一条（limit + 1）的查询结果构造分页结果
+     * @param rows 查询结果，最多 limit + 1 条
+     * @param limit 每页条数
+     * @param cursorOf 取某一行的游标
+     * @param mapper 把当前页的行转换为DTO
+     */
+    public static <E, T> SliceResponseDto<T> of(List<E> rows, int limit,
+                                                Function<E, KeysetCursor> cursorOf,
+                                                Function<List<E>, List<T>> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<E> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new SliceResponseDto<>(mapper.apply(page), limit, hasNext, nextCursor);
+    }
+
+    /**
+     * 由 Spring Data 的 Slice 查询结果（多查一条判断 hasNext，不执行COUNT）构造分页结果
+     * @param mapper 把当前页的行转换为DTO
+     */
+    public static <E, T> SliceResponseDto<T> of(Slice<E> slice, Function<List<E>, List<T>> mapper) {
+        SliceResponseDto<T> dto = new SliceResponseDto<>(mapper.apply(slice.getContent()), slice.getSize(), slice.hasNext(), null);
+        dto.setPage(slice.getNumber());
+        return dto;
+    }
+
+    /**
+     * 需要总数时由调用方填入（计数来自缓存，不随每次翻页执行COUNT）
+     */
+    public SliceResponseDto<T> withTotal(Long totalElements) {
+        this.totalElements = totalElements;
+        return this;
+    }
+
+    // Getters and Setters
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public Integer getPage() { return page; }
+    public void setPage(Integer page) { this.page = page; }
+
+    public Long getTotalElements() { return totalElements; }
+    public void setTotalElements(Long totalElements) { this.totalElements = totalElements; }
+}
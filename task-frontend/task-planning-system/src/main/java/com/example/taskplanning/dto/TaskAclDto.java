@@ -0,0 +1,43 @@
+package com.example.taskplanning.dto;
+
+import com.example.taskplanning.entity.Task;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 任务权限判断所需的最小字段集合（不加载任务实体及其描述）
+ * 任务的访问/编辑规则只在这里定义，批量权限查询、任务详情、状态更新、修改和删除都调用这两个方法
+ */
+public record TaskAclDto(Long taskId, Task.TaskType taskType, Long creatorId, Long classId, boolean deleted) {
+
+    /**
+     * 访问（查看详情、更新个人状态）：个人任务仅创建者可访问；班级任务需要用户已关联该任务（同步到个人日历）
+     * @param linked 用户是否有该任务的用户任务关系
+     */
+    public boolean canAccess(Long userId, boolean linked) {
+        if (deleted) {
+            return false;
+        }
+        if (taskType == Task.TaskType.PERSONAL) {
+            return userId.equals(creatorId);
+        }
+        return taskType == Task.TaskType.CLASS && linked;
+    }
+
+    /**
+     * 修改和删除：个人任务仅创建者；班级任务为创建者或该班级的管理员/创建者（已批准）
+     * @param managesClass 用户是否管理任务所属班级，只在需要时调用
+     */
+    public boolean canEdit(Long userId, BooleanSupplier managesClass) {
+        if (deleted) {
+            return false;
+        }
+        if (taskType == Task.TaskType.PERSONAL) {
+            return userId.equals(creatorId);
+        }
+        if (taskType != Task.TaskType.CLASS || classId == null) {
+            return false; // 数据完整性保护
+        }
+        return userId.equals(creatorId) || managesClass.getAsBoolean();
+    }
+}
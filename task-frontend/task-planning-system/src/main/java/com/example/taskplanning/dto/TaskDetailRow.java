@@ -0,0 +1,45 @@
+package com.example.taskplanning.dto;
+
+import com.example.taskplanning.entity.Task;
+import com.example.taskplanning.entity.UserTaskRelation;
+
+import java.time.LocalDateTime;
+
+/**
+ * 任务详情查询的投影行：任务字段、创建者/班级名称以及当前用户的任务关系（可能为空），
+ * 由一条关联查询一次取回
+ */
+public record TaskDetailRow(
+        Long id,
+        String title,
+        String description,
+        String courseName,
+        Task.TaskType taskType,
+        LocalDateTime deadline,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        boolean deleted,
+        Long creatorId,
+        String creatorName,
+        Long classId,
+        String className,
+        Long relationId,
+        UserTaskRelation.TaskStatus personalStatus,
+        LocalDateTime personalDeadline,
+        String personalNotes,
+        LocalDateTime completedAt) {
+
+    /**
+     * 任务的权限信息，访问规则见 TaskAclDto
+     */
+    public TaskAclDto acl() {
+        return new TaskAclDto(id, taskType, creatorId, classId, deleted);
+    }
+
+    /**
+     * 当前用户（查询时的 userId）是否可以访问该任务
+     */
+    public boolean isAccessibleBy(Long userId) {
+        return acl().canAccess(userId, relationId != null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.taskplanning.dto;
+
+/**
+ * 单个任务的权限结果DTO
+ */
+public class TaskPermissionDto {
+
+    private Long taskId;
+    private boolean canAccess;
+    private boolean canEdit;
+
+    public TaskPermissionDto() {
+    }
+
+    public TaskPermissionDto(Long taskId, boolean canAccess, boolean canEdit) {
+        this.taskId = taskId;
+        this.canAccess = canAccess;
+        this.canEdit = canEdit;
+    }
+
+    // Getters and Setters
+    public Long getTaskId() { return taskId; }
+    public void setTaskId(Long taskId) { this.taskId = taskId; }
+
+    public boolean isCanAccess() { return canAccess; }
+    public void setCanAccess(boolean canAccess) { this.canAccess = canAccess; }
+
+    public boolean isCanEdit() { return canEdit; }
+    public void setCanEdit(boolean canEdit) { this.canEdit = canEdit; }
+}
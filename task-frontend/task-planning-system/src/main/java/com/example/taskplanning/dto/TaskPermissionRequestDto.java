@@ -0,0 +1,19 @@
+package com.example.taskplanning.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * 批量任务权限查询请求DTO
+ */
+public class TaskPermissionRequestDto {
+
+    @NotEmpty(message = "任务ID列表不能为空")
+    @Size(max = 500, message = "一次最多查询500个任务")
+    private List<Long> taskIds;
+
+    // Getters and Setters
+    public List<Long> getTaskIds() { return taskIds; }
+    public void setTaskIds(List<Long> taskIds) { this.taskIds = taskIds; }
+}
@@ -11,8 +11,10 @@ import java.time.LocalDateTime;
 @Table(name = "action_logs")
 public class ActionLog {
 
+    // 号段分配主键，见 IdGeneration
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "action_log_id_seq")
+    @SequenceGenerator(name = "action_log_id_seq", sequenceName = "action_log_id_seq", allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
 
     // 操作者，可以为null（系统操作）
@@ -31,6 +33,7 @@ public class ActionLog {
 
     // 使用@Lob来存储可能很长的JSON字符串
     @Lob
+    @Basic(fetch = FetchType.LAZY) // 延迟加载，按日志列表查询时不取回
     private String details; // 存储JSON格式的操作详情
 
     @Column(name = "ip_address", length = 45)
@@ -0,0 +1,63 @@
+package com.example.taskplanning.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 日历读模型：用户日历中某一天出现的一个任务（反范式，日历接口直接按 (user_id, entry_day) 范围扫描）
+ * 任务在创建日和截止日各有一条记录；由任务/任务关系变更的事务提交后维护，也可以整体重建
+ * 任务描述（可能很长）不冗余存储，读取时按任务ID关联 tasks 取回
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "calendar_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_calendar_entries_user_day_task", columnNames = {"user_id", "entry_day", "task_id"})
+}, indexes = {
+        @Index(name = "idx_calendar_entries_task_id", columnList = "task_id")
+})
+public class CalendarEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "entry_day", nullable = false)
+    private LocalDate entryDay;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    // --- 以下为任务和个人状态的冗余字段 ---
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(name = "course_name", length = 100)
+    private String courseName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "task_type", nullable = false, length = 20)
+    private Task.TaskType taskType;
+
+    private LocalDateTime deadline;
+
+    @Column(name = "task_created_at", nullable = false)
+    private LocalDateTime taskCreatedAt;
+
+    @Column(name = "class_name")
+    private String className;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "personal_status", length = 20)
+    private UserTaskRelation.TaskStatus personalStatus;
+
+    @Column(name = "personal_deadline")
+    private LocalDateTime personalDeadline;
+}
@@ -21,6 +21,7 @@ public class Classes { // 使用ClassEntity避免与Java关键字'class'冲突
     private String name;
 
     @Lob // @Lob注解表示这是一个大的文本字段，对应数据库的TEXT类型
+    @Basic(fetch = FetchType.LAZY) // 延迟加载，只在班级详情中读取
     private String description;
 
     @Column(name = "invite_code", nullable = false, unique = true, length = 20)
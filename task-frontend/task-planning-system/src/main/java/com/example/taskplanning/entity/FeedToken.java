@@ -0,0 +1,39 @@
+package com.example.taskplanning.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+/**
+ * 日历订阅令牌
+ * 每个用户最多一个，只保存令牌的SHA-256摘要；重新生成或吊销后旧订阅地址立即失效
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "feed_tokens", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_feed_tokens_user_id", columnNames = {"user_id"}),
+        @UniqueConstraint(name = "uk_feed_tokens_token_hash", columnNames = {"token_hash"})
+})
+public class FeedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt; // 当前令牌的生成时间，重新生成时更新
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
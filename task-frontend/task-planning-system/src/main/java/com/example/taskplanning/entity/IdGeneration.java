@@ -0,0 +1,16 @@
+package com.example.taskplanning.entity;
+
+/**
+ * 号段分配主键的公共参数
+ * Task、UserTaskRelation、UserClassRelation、ActionLog 的主键由同名单行表（*_id_seq，见迁移 V4）模拟序列分配，
+ * Hibernate 每次取 ALLOCATION_SIZE 个，不依赖自增列回填主键，才能批量插入。
+ * 这些表的 id 列没有 AUTO_INCREMENT：直接用 SQL 插入时，主键也必须从对应的 *_id_seq 表中预留。
+ */
+public final class IdGeneration {
+
+    // 号段大小，与生产环境的 hibernate.jdbc.batch_size 一致
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGeneration() {
+    }
+}
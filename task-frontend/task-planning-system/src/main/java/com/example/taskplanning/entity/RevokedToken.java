@@ -0,0 +1,37 @@
+package com.example.taskplanning.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+/**
+ * 已吊销的访问令牌（按JWT ID记录）
+ * 只需保留到令牌自身过期，启动时据此重建内存吊销表
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String jti; // JWT ID
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt; // 令牌原本的过期时间，过期后记录可清理
+
+    @Column(name = "revoked_at", nullable = false, updatable = false)
+    private LocalDateTime revokedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.revokedAt = LocalDateTime.now();
+    }
+}
@@ -10,17 +10,34 @@ import java.util.Set;
 @Getter
 @Setter
 @Entity
-@Table(name = "tasks")
+// 列表接口按此取回任务及其创建者、班级（都是LAZY多对一），避免逐行懒加载
+@NamedEntityGraph(name = Task.WITH_CREATOR_AND_CLASS, attributeNodes = {
+        @NamedAttributeNode("creator"),
+        @NamedAttributeNode("classEntity")
+})
+@Table(name = "tasks", indexes = {
+        // 班级任务列表 / 个人任务列表按 (deadline, id) 的键集分页
+        @Index(name = "idx_tasks_class_deleted_deadline", columnList = "class_id, is_deleted, deadline"),
+        @Index(name = "idx_tasks_creator_type_deleted_deadline", columnList = "creator_id, task_type, is_deleted, deadline"),
+        // 同步班级任务时按创建时间取任务ID
+        @Index(name = "idx_tasks_class_created", columnList = "class_id, created_at")
+})
 public class Task {
 
+    public static final String WITH_CREATOR_AND_CLASS = "Task.withCreatorAndClass";
+
+    // 号段分配主键，见 IdGeneration
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_id_seq")
+    @SequenceGenerator(name = "task_id_seq", sequenceName = "task_id_seq", allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 200)
     private String title;
 
+    // 延迟加载（需字节码增强，见 pom.xml 中的 hibernate-enhance-maven-plugin），列表查询不取回该列
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private String description;
 
     @Column(name = "course_name", length = 100)
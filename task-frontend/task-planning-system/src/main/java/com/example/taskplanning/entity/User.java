@@ -10,18 +10,27 @@ import java.util.HashSet;
 @Getter
 @Setter
 @Entity
-@Table(name = "users") // 明确指定表名为 users (复数)
+@Table(name = "users", uniqueConstraints = { // 明确指定表名为 users (复数)
+        // 约束显式命名，注册时据此区分用户名重复和邮箱重复
+        @UniqueConstraint(name = User.UK_USERNAME, columnNames = "username"),
+        @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email")
+}, indexes = {
+        @Index(name = "idx_users_phone", columnList = "phone")
+})
 public class User {
 
+    public static final String UK_USERNAME = "uk_users_username";
+    public static final String UK_EMAIL = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id", nullable = false)
     private Long id;
 
-    @Column(name = "username", nullable = false, unique = true, length = 50)
+    @Column(name = "username", nullable = false, length = 50)
     private String username;
 
-    @Column(name = "email", nullable = false, unique = true, length = 100)
+    @Column(name = "email", nullable = false, length = 100)
     private String email;
 
     @Column(name = "password", nullable = false)
@@ -48,11 +57,9 @@ public class User {
     @Column(name="notificationSettings",nullable = false)
     private boolean notificationSettings;
 
-    @Column(name="verification_token")
-    private String verificationToken;
-
-    @Column(name="verification_token_expiry")
-    private LocalDateTime verificationTokenExpiry;
+    // Token版本号：递增后该用户此前签发的所有JWT立即失效（如禁用账号）
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
 
     @Column(name = "created_at", updatable = false) // 创建后不可更新
     private LocalDateTime createdAt;
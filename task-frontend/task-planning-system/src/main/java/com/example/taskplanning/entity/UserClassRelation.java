@@ -8,14 +8,36 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
+// 列表接口按需取回关联的用户、班级（及班级创建者），避免逐行懒加载
+@NamedEntityGraph(name = UserClassRelation.WITH_USER, attributeNodes = @NamedAttributeNode("user"))
+@NamedEntityGraph(name = UserClassRelation.WITH_USER_AND_CLASS, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("classEntity")
+})
+@NamedEntityGraph(name = UserClassRelation.WITH_CLASS_AND_OWNER,
+        attributeNodes = @NamedAttributeNode(value = "classEntity", subgraph = "class"),
+        subgraphs = @NamedSubgraph(name = "class", attributeNodes = @NamedAttributeNode("owner")))
 // 为 user_id 和 class_id 添加复合唯一约束，确保一个用户在一个班级里只有一条记录
 @Table(name = "user_class_relations", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"user_id", "class_id"})
+        @UniqueConstraint(name = "uk_ucr_user_class", columnNames = {"user_id", "class_id"})
+}, indexes = {
+        // 成员列表按 (joined_at, id)、入班申请按 (created_at, id) 的键集分页
+        @Index(name = "idx_ucr_class_status_joined", columnList = "class_id, status, joined_at"),
+        @Index(name = "idx_ucr_class_status_created", columnList = "class_id, status, created_at"),
+        @Index(name = "idx_ucr_status_created", columnList = "status, created_at"),
+        // 我的班级列表按加入时间排序
+        @Index(name = "idx_ucr_user_status_joined", columnList = "user_id, status, joined_at")
 })
 public class UserClassRelation {
 
+    public static final String WITH_USER = "UserClassRelation.withUser";
+    public static final String WITH_USER_AND_CLASS = "UserClassRelation.withUserAndClass";
+    public static final String WITH_CLASS_AND_OWNER = "UserClassRelation.withClassAndOwner";
+
+    // 号段分配主键，见 IdGeneration
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_class_relation_id_seq")
+    @SequenceGenerator(name = "user_class_relation_id_seq", sequenceName = "user_class_relation_id_seq", allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id; // 使用代理主键，便于JPA操作
 
     // --- 关系定义 ---
@@ -9,12 +9,14 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "user_task_relations", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"user_id", "task_id"})
+        @UniqueConstraint(name = "uk_utr_user_task", columnNames = {"user_id", "task_id"})
 })
 public class UserTaskRelation {
 
+    // 号段分配主键，见 IdGeneration
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_task_relation_id_seq")
+    @SequenceGenerator(name = "user_task_relation_id_seq", sequenceName = "user_task_relation_id_seq", allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id; // 代理主键
 
     // --- 关系定义 ---
@@ -37,6 +39,7 @@ public class UserTaskRelation {
     private LocalDateTime personalDeadline; // 个人设定的截止时间
 
     @Lob // @Lob注解表示这是一个大的文本字段，对应数据库的TEXT类型
+    @Basic(fetch = FetchType.LAZY) // 延迟加载，只在任务详情中读取
     @Column(name = "personal_notes")
     private String personalNotes; // 个人备注
 
@@ -0,0 +1,42 @@
+package com.example.taskplanning.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+/**
+ * 邮箱验证令牌
+ * 独立于users表存放，按令牌的SHA-256摘要唯一索引查找，过期记录由定时任务分批清理
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "verification_tokens", indexes = {
+        @Index(name = "idx_verification_tokens_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_verification_tokens_user_id", columnList = "user_id")
+})
+public class VerificationToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.taskplanning.event;
+
+/**
+ * 日历订阅令牌被重新生成或吊销，在事务提交后清除该令牌的缓存
+ */
+public record FeedTokenRevokedEvent(String tokenHash) {
+}
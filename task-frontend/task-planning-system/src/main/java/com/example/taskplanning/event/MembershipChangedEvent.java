@@ -0,0 +1,7 @@
+package com.example.taskplanning.event;
+
+/**
+ * 用户与班级的成员关系（角色或状态）发生变化，在事务提交后处理
+ */
+public record MembershipChangedEvent(Long userId, Long classId) {
+}
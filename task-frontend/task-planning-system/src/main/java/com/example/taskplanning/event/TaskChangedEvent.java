@@ -0,0 +1,18 @@
+package com.example.taskplanning.event;
+
+import com.example.taskplanning.entity.Task;
+
+/**
+ * 任务被创建、修改或删除，在事务提交后处理
+ * @param creatorId 任务创建者ID
+ * @param classId 所属班级ID，个人任务为null
+ */
+public record TaskChangedEvent(Long taskId, Long creatorId, Long classId) {
+
+    public static TaskChangedEvent of(Task task) {
+        return new TaskChangedEvent(
+                task.getId(),
+                task.getCreator().getId(),
+                task.getClassEntity() != null ? task.getClassEntity().getId() : null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.taskplanning.event;
+
+import java.util.Collection;
+
+/**
+ * 用户与任务的关系（个人状态、个人截止时间、同步导入）发生变化，在事务提交后处理
+ */
+public record TaskRelationChangedEvent(Long userId, Collection<Long> taskIds) {
+}
@@ -0,0 +1,9 @@
+package com.example.taskplanning.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 访问令牌已写入吊销表（退出登录），在事务提交后加入内存吊销表
+ */
+public record TokenRevokedEvent(String jti, LocalDateTime expiresAt) {
+}
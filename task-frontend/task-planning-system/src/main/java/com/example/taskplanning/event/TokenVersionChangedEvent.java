@@ -0,0 +1,7 @@
+package com.example.taskplanning.event;
+
+/**
+ * 用户的Token版本号已在数据库中递增（修改密码、刷新令牌被重放等），在事务提交后更新内存中的版本表
+ */
+public record TokenVersionChangedEvent(Long userId, int version) {
+}
@@ -0,0 +1,7 @@
+package com.example.taskplanning.event;
+
+/**
+ * 用户注册成功事件，在注册事务提交后处理
+ */
+public record UserRegisteredEvent(Long userId, String username, String email) {
+}
@@ -0,0 +1,46 @@
+package com.example.taskplanning.repository;
+
+import com.example.taskplanning.entity.CalendarEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CalendarEntryRepository extends JpaRepository<CalendarEntry, Long> {
+
+    /**
+     * 查询用户在日期范围内的日历记录（uk_calendar_entries_user_day_task 索引范围扫描）
+     */
+    @Query("SELECT ce FROM CalendarEntry ce WHERE ce.userId = :userId AND ce.entryDay BETWEEN :fromDay AND :toDay " +
+            "ORDER BY ce.deadline ASC, ce.taskId ASC")
+    List<CalendarEntry> findForUserBetween(@Param("userId") Long userId,
+                                           @Param("fromDay") LocalDate fromDay,
+                                           @Param("toDay") LocalDate toDay);
+
+    /**
+     * 删除某个任务在所有用户日历中的记录
+     */
+    @Modifying
+    @Query("DELETE FROM CalendarEntry ce WHERE ce.taskId = :taskId")
+    int deleteByTaskId(@Param("taskId") Long taskId);
+
+    /**
+     * 删除用户日历中指定任务的记录
+     */
+    @Modifying
+    @Query("DELETE FROM CalendarEntry ce WHERE ce.userId = :userId AND ce.taskId IN :taskIds")
+    int deleteByUserIdAndTaskIds(@Param("userId") Long userId, @Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * 清空读模型（全量重建时与重新写入在同一事务中执行）
+     */
+    @Modifying
+    @Query(value = "DELETE FROM calendar_entries", nativeQuery = true)
+    int deleteAllEntries();
+}
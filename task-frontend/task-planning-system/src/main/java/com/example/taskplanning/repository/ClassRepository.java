@@ -2,6 +2,7 @@
 package com.example.taskplanning.repository;
 
 import com.example.taskplanning.entity.Classes;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
@@ -15,6 +16,18 @@ public interface ClassRepository extends JpaRepository<Classes, Long> {
      * @return 班级实体的Optional包装
      */
     Optional<Classes> findByInviteCode(String inviteCode);
+
+    /**
+     * 根据邀请码查找班级，同时取回创建者（用于返回班级信息）
+     */
+    @EntityGraph(attributePaths = "owner")
+    Optional<Classes> findWithOwnerByInviteCode(String inviteCode);
+
+    /**
+     * 根据ID查找班级，同时取回创建者（用于返回班级信息）
+     */
+    @EntityGraph(attributePaths = "owner")
+    Optional<Classes> findWithOwnerById(Long id);
 }
 
 
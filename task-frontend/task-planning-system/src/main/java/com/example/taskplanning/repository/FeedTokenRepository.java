@@ -0,0 +1,24 @@
+package com.example.taskplanning.repository;
+
+import com.example.taskplanning.entity.FeedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FeedTokenRepository extends JpaRepository<FeedToken, Long> {
+
+    /**
+     * 根据令牌摘要查找订阅令牌所属的用户ID（token_hash有唯一索引，不加载用户实体）
+     */
+    @Query("SELECT ft.user.id FROM FeedToken ft WHERE ft.tokenHash = :tokenHash")
+    Optional<Long> findUserIdByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * 查找用户当前的订阅令牌（user_id有唯一索引）
+     */
+    Optional<FeedToken> findByUserId(Long userId);
+}
@@ -0,0 +1,29 @@
+package com.example.taskplanning.repository;
+
+import com.example.taskplanning.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * 查询仍未过期的吊销记录，用于重建内存吊销表
+     */
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    boolean existsByJti(String jti);
+
+    /**
+     * 删除已自然过期的吊销记录
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken rt WHERE rt.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,105 +1,193 @@
 // 6. TaskRepository.java - 任务数据访问接口
 package com.example.taskplanning.repository;
 
+import com.example.taskplanning.dto.TaskAclDto;
+import com.example.taskplanning.dto.TaskDetailRow;
 import com.example.taskplanning.entity.Task;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
     /**
-     * 查找指定班级的所有未删除任务
+     * 查找指定班级的所有未删除任务（按截止时间、ID排序，保证分页稳定）
      */
-    Page<Task> findByClassEntityIdAndIsDeletedFalseOrderByDeadlineAsc(Long classId, Pageable pageable);
+    @EntityGraph(Task.WITH_CREATOR_AND_CLASS)
+    Page<Task> findByClassEntityIdAndIsDeletedFalseOrderByDeadlineAscIdAsc(Long classId, Pageable pageable);
 
     /**
-     * 查找用户的个人任务
+     * 查找用户的个人任务（按截止时间、ID排序，保证分页稳定）
      */
-    Page<Task> findByCreatorIdAndTaskTypeAndIsDeletedFalseOrderByDeadlineAsc(Long creatorId, Task.TaskType taskType, Pageable pageable);
+    @EntityGraph(Task.WITH_CREATOR_AND_CLASS)
+    Page<Task> findByCreatorIdAndTaskTypeAndIsDeletedFalseOrderByDeadlineAscIdAsc(Long creatorId, Task.TaskType taskType, Pageable pageable);
 
     /**
-     * 查找指定时间范围内用户相关的所有任务（用于日历视图）
-     * 严格遵循"用户自主控制"原则：
-     * 1. 用户的个人任务
-     * 2. 用户已主动关联的班级任务（通过 user_task_relations 表）
+     * 班级任务列表（slice模式：多查一条判断是否有下一页，不执行COUNT）
+     */
+    @EntityGraph(Task.WITH_CREATOR_AND_CLASS)
+    Slice<Task> findSliceByClassEntityIdAndIsDeletedFalseOrderByDeadlineAscIdAsc(Long classId, Pageable pageable);
+
+    /**
+     * 个人任务列表（slice模式）
+     */
+    @EntityGraph(Task.WITH_CREATOR_AND_CLASS)
+    Slice<Task> findSliceByCreatorIdAndTaskTypeAndIsDeletedFalseOrderByDeadlineAscIdAsc(Long creatorId, Task.TaskType taskType, Pageable pageable);
+
+    long countByClassEntityIdAndIsDeletedFalse(Long classId);
+
+    long countByCreatorIdAndTaskTypeAndIsDeletedFalse(Long creatorId, Task.TaskType taskType);
+
+    /**
+     * 键集分页：班级中没有截止时间的任务（MySQL升序时NULL排在最前），从 afterId 之后按ID继续
      */
     @Query("""
-    SELECT DISTINCT t FROM Task t 
-    WHERE t.isDeleted = false 
-    AND (
-        (t.taskType = 'PERSONAL' AND t.creator.id = :userId)
-        OR 
-        (t.taskType = 'CLASS' AND EXISTS (
-            SELECT 1 FROM UserTaskRelation utr 
-            WHERE utr.task.id = t.id AND utr.user.id = :userId
-        ))
-    )
-    AND (
-        (t.createdAt BETWEEN :startDate AND :endDate)
-        OR 
-        (t.deadline BETWEEN :startDate AND :endDate)
-    )
-    ORDER BY t.deadline ASC
+    SELECT t FROM Task t
+    WHERE t.classEntity.id = :classId AND t.isDeleted = false
+    AND t.deadline IS NULL AND t.id > :afterId
+    ORDER BY t.id ASC
 """)
-    List<Task> findUserRelatedTasksInDateRange(
-            @Param("userId") Long userId,
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
-    );
-    /**
-     * 新增：专门获取用户已关联的班级任务（供智能同步使用）
-     * @param userId 用户ID
-     * @param startDate 开始时间
-     * @param endDate 结束时间
-     * @return 用户已关联的班级任务列表
+    @EntityGraph(Task.WITH_CREATOR_AND_CLASS)
+    List<Task> findClassTasksWithoutDeadlineAfter(@Param("classId") Long classId,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    /**
+     * 键集分页：班级中有截止时间的任务，从 (afterDeadline, afterId) 之后继续；afterDeadline 为null时从头开始
      */
     @Query("""
-    SELECT DISTINCT t FROM Task t 
-    JOIN UserTaskRelation utr ON t.id = utr.task.id 
-    WHERE utr.user.id = :userId 
-    AND t.taskType = 'CLASS' 
-    AND t.isDeleted = false 
-    AND (
-        (t.createdAt BETWEEN :startDate AND :endDate)
-        OR 
-        (t.deadline BETWEEN :startDate AND :endDate)
-    )
-    ORDER BY t.deadline ASC
+    SELECT t FROM Task t
+    WHERE t.classEntity.id = :classId AND t.isDeleted = false
+    AND t.deadline IS NOT NULL
+    AND (:afterDeadline IS NULL OR t.deadline > :afterDeadline
+         OR (t.deadline = :afterDeadline AND t.id > :afterId))
+    ORDER BY t.deadline ASC, t.id ASC
 """)
-    List<Task> findLinkedClassTasksInDateRange(
-            @Param("userId") Long userId,
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
-    );
+    @EntityGraph(Task.WITH_CREATOR_AND_CLASS)
+    List<Task> findClassTasksWithDeadlineAfter(@Param("classId") Long classId,
+                                               @Param("afterDeadline") LocalDateTime afterDeadline,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
 
     /**
-     * 检查任务是否存在且未删除
+     * 键集分页：用户没有截止时间的个人任务
      */
-    boolean existsByIdAndIsDeletedFalse(Long taskId);
+    @Query("""
+    SELECT t FROM Task t
+    WHERE t.creator.id = :creatorId AND t.taskType = 'PERSONAL' AND t.isDeleted = false
+    AND t.deadline IS NULL AND t.id > :afterId
+    ORDER BY t.id ASC
+""")
+    @EntityGraph(Task.WITH_CREATOR_AND_CLASS)
+    List<Task> findPersonalTasksWithoutDeadlineAfter(@Param("creatorId") Long creatorId,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
+
+    /**
+     * 键集分页：用户有截止时间的个人任务
+     */
+    @Query("""
+    SELECT t FROM Task t
+    WHERE t.creator.id = :creatorId AND t.taskType = 'PERSONAL' AND t.isDeleted = false
+    AND t.deadline IS NOT NULL
+    AND (:afterDeadline IS NULL OR t.deadline > :afterDeadline
+         OR (t.deadline = :afterDeadline AND t.id > :afterId))
+    ORDER BY t.deadline ASC, t.id ASC
+""")
+    @EntityGraph(Task.WITH_CREATOR_AND_CLASS)
+    List<Task> findPersonalTasksWithDeadlineAfter(@Param("creatorId") Long creatorId,
+                                                  @Param("afterDeadline") LocalDateTime afterDeadline,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    /**
+     * 只查询权限判断所需的字段（主键查询，不加载任务实体和描述）
+     */
+    @Query("SELECT new com.example.taskplanning.dto.TaskAclDto(t.id, t.taskType, t.creator.id, t.classEntity.id, t.isDeleted) " +
+            "FROM Task t WHERE t.id = :taskId")
+    Optional<TaskAclDto> findAclById(@Param("taskId") Long taskId);
+
+    /**
+     * 批量查询任务权限信息：一条语句关联班级成员关系和用户任务关系
+     * 每行为 (taskId, taskType, creatorId, classId, 班级角色, 成员状态, 是否已关联任务)，
+     * 两个关联表都有 (user_id, xxx_id) 唯一约束，每个任务至多一行
+     */
+    @Query("""
+    SELECT t.id, t.taskType, t.creator.id, t.classEntity.id, ucr.role, ucr.status,
+           CASE WHEN utr.id IS NULL THEN false ELSE true END
+    FROM Task t
+    LEFT JOIN UserClassRelation ucr ON ucr.classEntity.id = t.classEntity.id AND ucr.user.id = :userId
+    LEFT JOIN UserTaskRelation utr ON utr.task.id = t.id AND utr.user.id = :userId
+    WHERE t.id IN :taskIds AND t.isDeleted = false
+""")
+    List<Object[]> findPermissionRows(@Param("userId") Long userId, @Param("taskIds") Collection<Long> taskIds);
 
     /**
-     * 查找用户可访问的任务（用于权限验证）
+     * 任务详情：一条语句取回任务、创建者姓名、班级名称和当前用户的任务关系
      */
     @Query("""
-    SELECT t FROM Task t 
-    WHERE t.id = :taskId AND t.isDeleted = false 
-    AND (
-        (t.taskType = 'PERSONAL' AND t.creator.id = :userId)
-        OR 
-        (t.taskType = 'CLASS' AND EXISTS (
-            SELECT 1 FROM UserTaskRelation utr 
-            WHERE utr.task.id = t.id AND utr.user.id = :userId
-        ))
-    )
+    SELECT new com.example.taskplanning.dto.TaskDetailRow(
+        t.id, t.title, t.description, t.courseName, t.taskType, t.deadline, t.createdAt, t.updatedAt, t.isDeleted,
+        creator.id, creator.name, cls.id, cls.name,
+        utr.id, utr.status, utr.personalDeadline, utr.personalNotes, utr.completedAt)
+    FROM Task t
+    JOIN t.creator creator
+    LEFT JOIN t.classEntity cls
+    LEFT JOIN UserTaskRelation utr ON utr.task.id = t.id AND utr.user.id = :userId
+    WHERE t.id = :taskId
 """)
-    Task findAccessibleTaskByUserAndTaskId(@Param("userId") Long userId, @Param("taskId") Long taskId);
+    Optional<TaskDetailRow> findDetailRow(@Param("userId") Long userId, @Param("taskId") Long taskId);
+
+    /**
+     * 按ID批量加载任务并取回班级（维护日历读模型用）
+     */
+    @Query("SELECT t FROM Task t LEFT JOIN FETCH t.classEntity WHERE t.id IN :taskIds")
+    List<Task> findWithClassByIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * 按ID顺序对任务行加排他锁，返回存在的任务ID（维护日历读模型用）
+     * 同一任务的日历记录重算因此串行执行；须作为事务中的第一条语句，之后的普通读取才能看到最新提交的数据
+     */
+    @Query(value = "SELECT id FROM tasks WHERE id IN (:taskIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * 按ID批量读取任务描述，返回 [taskId, description]
+     * 描述是延迟加载字段，需要一批任务的描述时用一条查询取回，避免逐个任务触发加载
+     */
+    @Query("SELECT t.id, t.description FROM Task t WHERE t.id IN :taskIds")
+    List<Object[]> findDescriptionRows(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * 按ID顺序分批读取未删除的任务并取回班级（全量重建日历读模型用）
+     */
+    @Query("SELECT t FROM Task t LEFT JOIN FETCH t.classEntity WHERE t.id > :afterId AND t.isDeleted = false ORDER BY t.id ASC")
+    List<Task> findActiveWithClassAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 软删除任务（只更新标记和修改时间，不加载实体）
+     * @return 更新的行数，任务不存在或已删除时为0
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.isDeleted = true, t.updatedAt = :now WHERE t.id = :taskId AND t.isDeleted = false")
+    int markDeleted(@Param("taskId") Long taskId, @Param("now") LocalDateTime now);
+
+    /**
+     * 检查任务是否存在且未删除
+     */
+    boolean existsByIdAndIsDeletedFalse(Long taskId);
+
     /**
      * 获取指定班级在指定时间范围内创建的所有任务ID列表
      * @param classId 班级ID
@@ -108,24 +196,4 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      */
     @Query("SELECT t.id FROM Task t WHERE t.classEntity.id = :classId AND t.createdAt >= :startTime")
     List<Long> findTaskIdsByClassIdAndCreatedAtAfter(@Param("classId") Long classId, @Param("startTime") LocalDateTime startTime);
-    /**
-     * 获取用户在指定时间范围内的个人任务
-     */
-    @Query("""
-    SELECT t FROM Task t 
-    WHERE t.creator.id = :userId 
-    AND t.taskType = 'PERSONAL' 
-    AND t.isDeleted = false 
-    AND (
-        (t.createdAt BETWEEN :startDate AND :endDate)
-        OR 
-        (t.deadline BETWEEN :startDate AND :endDate)
-    )
-    ORDER BY t.deadline ASC
-""")
-    List<Task> findPersonalTasksInDateRange(
-            @Param("userId") Long userId,
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
-    );
 }
\ No newline at end of file
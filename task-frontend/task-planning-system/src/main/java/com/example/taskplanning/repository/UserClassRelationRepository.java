@@ -6,10 +6,13 @@ import com.example.taskplanning.entity.User;
 import com.example.taskplanning.entity.UserClassRelation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
@@ -31,6 +34,7 @@ public interface UserClassRelationRepository extends JpaRepository<UserClassRela
      * @param pageable 分页参数
      * @return 分页的用户班级关系记录
      */
+    @EntityGraph(UserClassRelation.WITH_USER)
     Page<UserClassRelation> findByClassEntityAndStatus(
             Classes classEntity,
             UserClassRelation.JoinStatus status,
@@ -44,12 +48,21 @@ public interface UserClassRelationRepository extends JpaRepository<UserClassRela
      * @param pageable 分页参数
      * @return 分页的用户班级关系记录
      */
+    @EntityGraph(UserClassRelation.WITH_CLASS_AND_OWNER)
     Page<UserClassRelation> findByUserAndStatus(
             User user,
             UserClassRelation.JoinStatus status,
             Pageable pageable
     );
 
+    /**
+     * 用户的班级关系（slice模式：多查一条判断是否有下一页，不执行COUNT）
+     */
+    @EntityGraph(UserClassRelation.WITH_CLASS_AND_OWNER)
+    Slice<UserClassRelation> findSliceByUserAndStatus(User user, UserClassRelation.JoinStatus status, Pageable pageable);
+
+    long countByUser_IdAndStatus(Long userId, UserClassRelation.JoinStatus status);
+
     /**
      * 查询用户在指定班级中的角色和状态
      * 这个方法用于权限检查，确保用户是ADMIN或OWNER
@@ -162,6 +175,14 @@ public interface UserClassRelationRepository extends JpaRepository<UserClassRela
             @Param("classId") Long classId,
             @Param("status") UserClassRelation.JoinStatus status
     );
+    /**
+     * 查询用户在班级中的角色和状态（role, status），用于权限缓存加载
+     * (user_id, class_id) 有唯一约束，结果至多一行
+     */
+    @Query("SELECT ucr.role, ucr.status FROM UserClassRelation ucr " +
+            "WHERE ucr.user.id = :userId AND ucr.classEntity.id = :classId")
+    List<Object[]> findRoleAndStatus(@Param("userId") Long userId, @Param("classId") Long classId);
+
     // 用于 isClassMember
     boolean existsByUser_IdAndClassEntity_IdAndStatus(Long userId, Long classId, UserClassRelation.JoinStatus status);
 
@@ -177,24 +198,103 @@ public interface UserClassRelationRepository extends JpaRepository<UserClassRela
      * @param pageable 分页参数
      * @return 分页的关系记录
      */
+    @EntityGraph(UserClassRelation.WITH_USER)
     Page<UserClassRelation> findByClassEntity_IdAndStatus(Long classId, UserClassRelation.JoinStatus status, Pageable pageable);
+
     /**
-     * 查找指定管理员名下所有班级的待审批申请（分页）
-     * @param managerId 管理员（OWNER或ADMIN）的用户ID
-     * @param status 申请状态，应为 PENDING
-     * @param pageable 分页参数
-     * @return 分页的待审批关系记录
+     * 班级中指定状态的关系记录（slice模式），成员列表和班级申请列表共用
+     */
+    @EntityGraph(UserClassRelation.WITH_USER)
+    Slice<UserClassRelation> findSliceByClassEntity_IdAndStatus(Long classId, UserClassRelation.JoinStatus status, Pageable pageable);
+
+    long countByClassEntity_IdAndStatus(Long classId, UserClassRelation.JoinStatus status);
+
+    /**
+     * 管理员（已批准的OWNER或ADMIN）名下所有班级中指定状态的申请
      */
-    @Query("SELECT ucr FROM UserClassRelation ucr WHERE ucr.status = :status AND EXISTS (" +
+    String FOR_MANAGER = "FROM UserClassRelation ucr WHERE ucr.status = :status AND EXISTS (" +
             "SELECT 1 FROM UserClassRelation managerRel " +
             "WHERE managerRel.classEntity = ucr.classEntity " +
             "AND managerRel.user.id = :managerId " +
             "AND managerRel.role IN ('OWNER', 'ADMIN') " +
             "AND managerRel.status = 'APPROVED'" +
-            ") ORDER BY ucr.createdAt DESC")
+            ")";
+    /**
+     * 查找指定管理员名下所有班级的待审批申请（分页）
+     * @param managerId 管理员（OWNER或ADMIN）的用户ID
+     * @param status 申请状态，应为 PENDING
+     * @param pageable 分页参数
+     * @return 分页的待审批关系记录
+     */
+    @Query("SELECT ucr " + FOR_MANAGER + " ORDER BY ucr.createdAt DESC")
+    @EntityGraph(UserClassRelation.WITH_USER_AND_CLASS)
     Page<UserClassRelation> findPendingApprovalsForManager(
             @Param("managerId") Long managerId,
             @Param("status") UserClassRelation.JoinStatus status,
             Pageable pageable
     );
+
+    /**
+     * 管理员名下所有班级的待审批申请（slice模式：不执行带 EXISTS 子查询的COUNT）
+     */
+    @Query("SELECT ucr " + FOR_MANAGER + " ORDER BY ucr.createdAt DESC, ucr.id DESC")
+    @EntityGraph(UserClassRelation.WITH_USER_AND_CLASS)
+    Slice<UserClassRelation> findPendingApprovalSliceForManager(
+            @Param("managerId") Long managerId,
+            @Param("status") UserClassRelation.JoinStatus status,
+            Pageable pageable
+    );
+
+    @Query("SELECT COUNT(ucr) " + FOR_MANAGER)
+    long countPendingApprovalsForManager(@Param("managerId") Long managerId,
+                                         @Param("status") UserClassRelation.JoinStatus status);
+
+    /**
+     * 键集分页：班级成员，按 (joinedAt, id) 升序，从游标位置之后继续；afterJoinedAt 为null时从头开始
+     */
+    @Query("SELECT ucr FROM UserClassRelation ucr " +
+            "WHERE ucr.classEntity.id = :classId AND ucr.status = :status " +
+            "AND (:afterJoinedAt IS NULL OR ucr.joinedAt > :afterJoinedAt " +
+            "OR (ucr.joinedAt = :afterJoinedAt AND ucr.id > :afterId)) " +
+            "ORDER BY ucr.joinedAt ASC, ucr.id ASC")
+    @EntityGraph(UserClassRelation.WITH_USER)
+    List<UserClassRelation> findByClassAndStatusAfterJoinedAt(
+            @Param("classId") Long classId,
+            @Param("status") UserClassRelation.JoinStatus status,
+            @Param("afterJoinedAt") LocalDateTime afterJoinedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * 键集分页：班级的入班申请，按 (createdAt, id) 升序
+     */
+    @Query("SELECT ucr FROM UserClassRelation ucr " +
+            "WHERE ucr.classEntity.id = :classId AND ucr.status = :status " +
+            "AND (:afterCreatedAt IS NULL OR ucr.createdAt > :afterCreatedAt " +
+            "OR (ucr.createdAt = :afterCreatedAt AND ucr.id > :afterId)) " +
+            "ORDER BY ucr.createdAt ASC, ucr.id ASC")
+    @EntityGraph(UserClassRelation.WITH_USER)
+    List<UserClassRelation> findByClassAndStatusAfterCreatedAt(
+            @Param("classId") Long classId,
+            @Param("status") UserClassRelation.JoinStatus status,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * 键集分页：管理员名下所有班级的待审批申请，按 (createdAt, id) 降序，从游标位置之前继续
+     */
+    @Query("SELECT ucr " + FOR_MANAGER + " AND (:beforeCreatedAt IS NULL OR ucr.createdAt < :beforeCreatedAt " +
+            "OR (ucr.createdAt = :beforeCreatedAt AND ucr.id < :beforeId)) " +
+            "ORDER BY ucr.createdAt DESC, ucr.id DESC")
+    @EntityGraph(UserClassRelation.WITH_USER_AND_CLASS)
+    List<UserClassRelation> findPendingApprovalsForManagerBefore(
+            @Param("managerId") Long managerId,
+            @Param("status") UserClassRelation.JoinStatus status,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
 }
\ No newline at end of file
@@ -3,10 +3,12 @@ package com.example.taskplanning.repository;
 
 import com.example.taskplanning.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -37,11 +39,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByEmail(String email);
 
-    Optional<User> findByVerificationToken(String token);
-
     /**
      * 根据用户名或邮箱查找用户
      */
     @Query("SELECT u FROM User u WHERE u.username = :usernameOrEmail OR u.email = :usernameOrEmail")
     Optional<User> findByUsernameOrEmail(@Param("usernameOrEmail") String usernameOrEmail);
-}
\ No newline at end of file
+
+    /**
+     * 查询全部用户名和邮箱（username, email），用于启动时构建可用性布隆过滤器
+     */
+    @Query("SELECT u.username, u.email FROM User u")
+    List<Object[]> findAllUsernamesAndEmails();
+
+    /**
+     * 查询所有Token版本号不为初始值的用户（id, tokenVersion），用于启动时加载版本表
+     */
+    @Query("SELECT u.id, u.tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<Object[]> findNonDefaultTokenVersions();
+
+    /**
+     * 递增用户的Token版本号，使其已签发的Token全部失效
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :userId")
+    int incrementTokenVersion(@Param("userId") Long userId);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :userId")
+    Optional<Integer> findTokenVersionById(@Param("userId") Long userId);
+}
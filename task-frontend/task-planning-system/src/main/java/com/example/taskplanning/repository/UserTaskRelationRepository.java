@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -23,6 +24,24 @@ public interface UserTaskRelationRepository extends JpaRepository<UserTaskRelati
      */
     List<UserTaskRelation> findByUserId(Long userId);
 
+    /**
+     * 只查询用户与指定任务集合的关系（当前页或当前时间窗口内的任务）
+     */
+    @Query("SELECT utr FROM UserTaskRelation utr WHERE utr.user.id = :userId AND utr.task.id IN :taskIds")
+    List<UserTaskRelation> findByUserIdAndTaskIds(@Param("userId") Long userId, @Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * 查询一组任务的全部用户关系（维护日历读模型用）
+     */
+    @Query("SELECT utr FROM UserTaskRelation utr WHERE utr.task.id IN :taskIds")
+    List<UserTaskRelation> findByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * 查询关联了指定任务的用户ID
+     */
+    @Query("SELECT utr.user.id FROM UserTaskRelation utr WHERE utr.task.id = :taskId")
+    List<Long> findUserIdsByTaskId(@Param("taskId") Long taskId);
+
     /**
      * 检查用户与任务的关系是否存在
      */
@@ -0,0 +1,38 @@
+package com.example.taskplanning.repository;
+
+import com.example.taskplanning.entity.VerificationToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Long> {
+
+    /**
+     * 根据令牌摘要查找验证令牌，同时取回所属用户（token_hash有唯一索引）
+     */
+    @Query("SELECT vt FROM VerificationToken vt JOIN FETCH vt.user WHERE vt.tokenHash = :tokenHash")
+    Optional<VerificationToken> findByTokenHashWithUser(@Param("tokenHash") String tokenHash);
+
+    /**
+     * 删除用户的全部验证令牌（重新发送或验证成功后）
+     */
+    @Modifying
+    @Query("DELETE FROM VerificationToken vt WHERE vt.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * 删除一批已过期的验证令牌，每次调用是一个独立的短事务
+     * @param limit 本批最多删除的行数
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM verification_tokens WHERE expires_at < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -1,26 +1,36 @@
 package com.example.taskplanning.service;
 
 import com.example.taskplanning.dto.GlobalApprovalResponseDto;
-import com.example.taskplanning.entity.User;
+import com.example.taskplanning.dto.SliceResponseDto;
 import com.example.taskplanning.entity.UserClassRelation;
 import com.example.taskplanning.repository.UserClassRelationRepository;
+import com.example.taskplanning.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Service
 @Transactional(readOnly = true)
 public class ApprovalService {
 
     private final UserClassRelationRepository userClassRelationRepository;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
+    private final ListCountCache listCountCache;
 
     @Autowired
-    public ApprovalService(UserClassRelationRepository userClassRelationRepository, UserService userService) {
+    public ApprovalService(UserClassRelationRepository userClassRelationRepository,
+                           CurrentUserResolver currentUserResolver,
+                           ListCountCache listCountCache) {
         this.userClassRelationRepository = userClassRelationRepository;
-        this.userService = userService;
+        this.currentUserResolver = currentUserResolver;
+        this.listCountCache = listCountCache;
     }
 
     /**
@@ -29,12 +39,12 @@ public class ApprovalService {
      * @return 分页的全局待审批DTO
      */
     public Page<GlobalApprovalResponseDto> getGlobalPendingApprovals(Pageable pageable) {
-        // 1. 获取当前登录的用户实体
-        User currentUser = userService.getCurrentUserEntity();
+        // 1. 获取当前登录的用户ID
+        Long currentUserId = currentUserResolver.getCurrentUserId();
 
         // 2. 调用Repository中的新方法，传入当前用户ID进行查询
         Page<UserClassRelation> pendingRelations = userClassRelationRepository.findPendingApprovalsForManager(
-                currentUser.getId(),
+                currentUserId,
                 UserClassRelation.JoinStatus.PENDING,
                 pageable
         );
@@ -42,4 +52,51 @@ public class ApprovalService {
         // 3. 将查询结果 Page<UserClassRelation> 映射为 Page<GlobalApprovalResponseDto>
         return pendingRelations.map(GlobalApprovalResponseDto::new);
     }
+
+    /**
+     * 获取当前管理员名下所有待处理的入班申请（slice模式，按申请时间倒序）
+     * 不执行带 EXISTS 子查询的COUNT，withTotal 为true时从计数缓存取总数
+     * @param pageable 分页参数（只使用页码和每页条数，排序固定）
+     * @param withTotal 是否需要总数
+     * @return 当前页的全局待审批DTO
+     */
+    public SliceResponseDto<GlobalApprovalResponseDto> getGlobalPendingApprovalSlice(Pageable pageable, boolean withTotal) {
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+
+        Slice<UserClassRelation> rows = userClassRelationRepository.findPendingApprovalSliceForManager(
+                currentUserId,
+                UserClassRelation.JoinStatus.PENDING,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        SliceResponseDto<GlobalApprovalResponseDto> slice = SliceResponseDto.of(rows,
+                page -> page.stream().map(GlobalApprovalResponseDto::new).collect(Collectors.toList()));
+        if (withTotal) {
+            slice.withTotal(listCountCache.get(ListCountCache.View.MANAGED_APPROVALS, currentUserId,
+                    () -> userClassRelationRepository.countPendingApprovalsForManager(
+                            currentUserId, UserClassRelation.JoinStatus.PENDING)));
+        }
+        return slice;
+    }
+
+    /**
+     * 获取当前管理员名下所有待处理的入班申请（键集分页，按申请时间倒序）
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     * @param size 每页条数
+     * @return 当前页的全局待审批DTO
+     */
+    public SliceResponseDto<GlobalApprovalResponseDto> getGlobalPendingApprovalSlice(String cursor, int size) {
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+
+        KeysetCursor before = KeysetCursor.decode(cursor);
+        int limit = KeysetCursor.clampSize(size);
+        List<UserClassRelation> rows = userClassRelationRepository.findPendingApprovalsForManagerBefore(
+                currentUserId,
+                UserClassRelation.JoinStatus.PENDING,
+                before == null ? null : before.key(),
+                before == null ? 0L : before.id(),
+                PageRequest.of(0, limit + 1));
+
+        return SliceResponseDto.of(rows, limit,
+                relation -> new KeysetCursor(relation.getCreatedAt(), relation.getId()),
+                page -> page.stream().map(GlobalApprovalResponseDto::new).collect(Collectors.toList()));
+    }
 }
\ No newline at end of file
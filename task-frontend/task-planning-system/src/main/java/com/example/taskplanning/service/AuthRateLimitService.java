@@ -0,0 +1,69 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.exception.BusinessException;
+import com.example.taskplanning.util.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 认证接口限流
+ * 在登录、重发验证邮件等接口进入密码哈希或发信之前，按客户端IP和账号两个维度做令牌桶限流，
+ * 超出限额直接返回429，不消耗任何哈希计算。
+ * 客户端IP取 request.getRemoteAddr()：部署在反向代理之后时它是代理的地址，所有客户端会共用一个桶。
+ * 因此开启了 server.forward-headers-strategy=native，由Tomcat的RemoteIpValve从 X-Forwarded-For 中取出真实客户端地址；
+ * 只有来自受信代理（server.tomcat.remoteip.internal-proxies，默认内网和本机地址）的请求头才会被采信，外部客户端无法伪造。
+ */
+@Service
+public class AuthRateLimitService {
+
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter accountLimiter;
+
+    public AuthRateLimitService(MetricsService metricsService,
+                                @Value("${app.auth.rate-limit.ip.capacity:20}") int ipCapacity,
+                                @Value("${app.auth.rate-limit.ip.refill-per-minute:20}") int ipRefillPerMinute,
+                                @Value("${app.auth.rate-limit.account.capacity:5}") int accountCapacity,
+                                @Value("${app.auth.rate-limit.account.refill-per-minute:5}") int accountRefillPerMinute,
+                                @Value("${app.auth.rate-limit.max-keys:100000}") int maxKeys) {
+        this.ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipRefillPerMinute, maxKeys);
+        this.accountLimiter = new TokenBucketRateLimiter(accountCapacity, accountRefillPerMinute, maxKeys);
+
+        metricsService.register("auth.rateLimit", () -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("ip", ipLimiter.snapshot());
+            map.put("account", accountLimiter.snapshot());
+            return map;
+        });
+    }
+
+    /**
+     * 登录限流：同时检查客户端IP和用户名
+     */
+    public void checkLogin(String clientIp, String username) {
+        check("login", clientIp, username);
+    }
+
+    /**
+     * 重发验证邮件限流：同时检查客户端IP和邮箱
+     */
+    public void checkResendVerification(String clientIp, String email) {
+        check("resend", clientIp, email);
+    }
+
+    private void check(String scope, String clientIp, String account) {
+        if (clientIp != null && !ipLimiter.tryAcquire(scope + ":" + clientIp)) {
+            throw tooManyRequests();
+        }
+        if (account != null && !accountLimiter.tryAcquire(scope + ":" + account.trim().toLowerCase(Locale.ROOT))) {
+            throw tooManyRequests();
+        }
+    }
+
+    private BusinessException tooManyRequests() {
+        return new BusinessException("TOO_MANY_REQUESTS", "请求过于频繁，请稍后再试", 429);
+    }
+}
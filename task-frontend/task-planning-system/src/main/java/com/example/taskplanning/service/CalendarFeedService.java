@@ -0,0 +1,152 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.util.IcsWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 日历订阅（iCalendar）输出
+ * 从任务表逐行流式读取并直接写出 VEVENT，不在内存中构建结果列表。
+ * 事件时间与前端日历一致：个人任务取任务截止时间，班级任务优先取个人截止时间；
+ * 没有截止时间的任务不输出，截止时间早于 app.calendar.feed.past-days 天前（按天对齐）的任务不输出。
+ * 窗口起点每天零点移动一次，即使没有任何修改订阅内容也可能变化，控制器把它放进ETag、并以当天零点作为 Last-Modified 的下限。
+ */
+@Service
+public class CalendarFeedService {
+
+    private static final String CALENDAR_NAME = "任务规划";
+    private static final String UID_DOMAIN = "@task-planning-system";
+
+    /**
+     * 个人任务走 (creator_id, task_type, is_deleted, deadline) 索引范围扫描；
+     * 班级任务从 user_task_relations 按 user_id 取出后按主键回表
+     */
+    private static final String FEED_SQL = """
+            SELECT t.id, t.title, t.description, t.course_name, NULL AS class_name,
+                   t.deadline AS due_at, t.updated_at, utr.status, utr.updated_at AS relation_updated_at
+            FROM tasks t
+            LEFT JOIN user_task_relations utr ON utr.task_id = t.id AND utr.user_id = t.creator_id
+            WHERE t.creator_id = ? AND t.task_type = 'PERSONAL' AND t.is_deleted = false
+              AND t.deadline >= ?
+            UNION ALL
+            SELECT t.id, t.title, t.description, t.course_name, c.name AS class_name,
+                   COALESCE(utr.personal_deadline, t.deadline) AS due_at, t.updated_at, utr.status,
+                   utr.updated_at AS relation_updated_at
+            FROM user_task_relations utr
+            JOIN tasks t ON t.id = utr.task_id
+            LEFT JOIN classes c ON c.id = t.class_id
+            WHERE utr.user_id = ? AND t.task_type = 'CLASS' AND t.is_deleted = false
+              AND COALESCE(utr.personal_deadline, t.deadline) >= ?
+            """;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final int pastDays;
+    private final String refreshInterval;
+
+    public CalendarFeedService(DataSource dataSource,
+                               @Value("${app.calendar.feed.past-days:30}") int pastDays,
+                               @Value("${app.calendar.feed.refresh-interval:PT15M}") String refreshInterval) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // 与 CalendarStreamService 相同：MySQL Connector/J 逐行流式读取结果集
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.pastDays = pastDays;
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * 订阅窗口的起始日期：今天往前 app.calendar.feed.past-days 天
+     */
+    public LocalDate windowStart(LocalDate today) {
+        return today.minusDays(pastDays);
+    }
+
+    /**
+     * 将用户的订阅日历以 text/calendar 格式写出
+     * @param windowStartDay 窗口起始日期（与ETag使用同一个值），截止时间早于这一天零点的任务不输出
+     */
+    public void writeFeed(Long userId, LocalDate windowStartDay, OutputStream out) throws IOException {
+        LocalDateTime windowStart = windowStartDay.atStartOfDay();
+        IcsWriter ics = new IcsWriter(out);
+        ics.property("BEGIN", "VCALENDAR")
+                .property("VERSION", "2.0")
+                .property("PRODID", "-//task-planning-system//calendar feed//ZH")
+                .property("CALSCALE", "GREGORIAN")
+                .property("METHOD", "PUBLISH")
+                .text("X-WR-CALNAME", CALENDAR_NAME)
+                .property("REFRESH-INTERVAL;VALUE=DURATION", refreshInterval)
+                .property("X-PUBLISHED-TTL", refreshInterval);
+
+        EventWriter writer = new EventWriter(ics, Instant.now());
+        try {
+            streamingJdbcTemplate.query(FEED_SQL, writer, userId, windowStart, userId, windowStart);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        ics.property("END", "VCALENDAR");
+        ics.flush();
+    }
+
+    /**
+     * 每行写出一个 VEVENT；截止时间没有时长，只写 DTSTART（按规范即为零时长事件）
+     */
+    private static final class EventWriter implements RowCallbackHandler {
+
+        private final IcsWriter ics;
+        private final Instant stamp;
+        private final ZoneId zone = ZoneId.systemDefault();
+
+        EventWriter(IcsWriter ics, Instant stamp) {
+            this.ics = ics;
+            this.stamp = stamp;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                LocalDateTime dueAt = rs.getObject("due_at", LocalDateTime.class);
+                LocalDateTime updatedAt = rs.getObject("updated_at", LocalDateTime.class);
+                LocalDateTime relationUpdatedAt = rs.getObject("relation_updated_at", LocalDateTime.class);
+                if (relationUpdatedAt != null && relationUpdatedAt.isAfter(updatedAt)) {
+                    updatedAt = relationUpdatedAt;
+                }
+                boolean done = "DONE".equals(rs.getString("status"));
+                String courseName = rs.getString("course_name");
+                String className = rs.getString("class_name");
+                String description = rs.getString("description");
+
+                ics.property("BEGIN", "VEVENT")
+                        .property("UID", "task-" + rs.getLong("id") + UID_DOMAIN)
+                        .dateTime("DTSTAMP", stamp)
+                        .dateTime("DTSTART", dueAt.atZone(zone).toInstant())
+                        .dateTime("LAST-MODIFIED", updatedAt.atZone(zone).toInstant())
+                        .text("SUMMARY", (done ? "[已完成] " : "") + rs.getString("title"));
+                if (description != null && !description.isBlank()) {
+                    ics.text("DESCRIPTION", className != null ? className + "\n" + description : description);
+                } else if (className != null) {
+                    ics.text("DESCRIPTION", className);
+                }
+                if (courseName != null && !courseName.isBlank()) {
+                    ics.text("CATEGORIES", courseName);
+                }
+                ics.property("TRANSP", "TRANSPARENT")
+                        .property("END", "VEVENT");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.dto.CalendarTaskDto;
+import com.example.taskplanning.entity.CalendarEntry;
+import com.example.taskplanning.entity.Task;
+import com.example.taskplanning.entity.UserTaskRelation;
+import com.example.taskplanning.event.TaskChangedEvent;
+import com.example.taskplanning.event.TaskRelationChangedEvent;
+import com.example.taskplanning.repository.CalendarEntryRepository;
+import com.example.taskplanning.repository.TaskRepository;
+import com.example.taskplanning.repository.UserTaskRelationRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 日历读模型维护与查询
+ * 可见规则：未删除的个人任务对创建者可见，
+ * 未删除的班级任务对已关联（user_task_relations）的用户可见；任务出现在创建日和截止日。
+ * 任务和任务关系变更的事务提交后，在新事务中重算受影响的记录：先按任务ID锁住任务行，
+ * 同一任务的重算串行执行，删除旧记录再写入新记录不会与并发的重算在唯一键上冲突；
+ * 死锁、锁等待超时等暂时性失败重试 PROJECTION_ATTEMPTS 次，仍失败时记录错误，需要用 --rebuild-calendar 修复。
+ */
+@Service
+public class CalendarReadModelService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalendarReadModelService.class);
+
+    private static final int REBUILD_CHUNK_SIZE = 500;
+    private static final int PROJECTION_ATTEMPTS = 3;
+
+    // 先于视图版本号递增执行（见 ViewVersionService.LISTENER_ORDER）
+    public static final int LISTENER_ORDER = 10;
+
+    private final CalendarEntryRepository calendarEntryRepository;
+    private final TaskRepository taskRepository;
+    private final UserTaskRelationRepository userTaskRelationRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public CalendarReadModelService(CalendarEntryRepository calendarEntryRepository,
+                                    TaskRepository taskRepository,
+                                    UserTaskRelationRepository userTaskRelationRepository,
+                                    EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager) {
+        this.calendarEntryRepository = calendarEntryRepository;
+        this.taskRepository = taskRepository;
+        this.userTaskRelationRepository = userTaskRelationRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 查询用户在日期范围内的日历任务，同一任务只返回一次，按截止时间升序
+     * 描述按任务ID一次查出
+     */
+    @Transactional(readOnly = true)
+    public List<CalendarTaskDto> findCalendarTasks(Long userId, LocalDate fromDay, LocalDate toDay) {
+        Map<Long, CalendarTaskDto> tasks = new LinkedHashMap<>();
+        for (CalendarEntry entry : calendarEntryRepository.findForUserBetween(userId, fromDay, toDay)) {
+            tasks.putIfAbsent(entry.getTaskId(), toCalendarDto(entry));
+        }
+        if (!tasks.isEmpty()) {
+            for (Object[] row : taskRepository.findDescriptionRows(tasks.keySet())) {
+                tasks.get((Long) row[0]).setDescription((String) row[1]);
+            }
+        }
+        return new ArrayList<>(tasks.values());
+    }
+
+    /**
+     * 任务创建、修改或删除后，重算该任务在所有用户日历中的记录
+     */
+    @TransactionalEventListener
+    @Order(LISTENER_ORDER)
+    public void onTaskChanged(TaskChangedEvent event) {
+        project("taskId=" + event.taskId(), () -> {
+            List<Long> taskIds = taskRepository.lockByIdIn(List.of(event.taskId()));
+            calendarEntryRepository.deleteByTaskId(event.taskId());
+            if (taskIds.isEmpty()) {
+                return;
+            }
+            List<Task> tasks = taskRepository.findWithClassByIdIn(taskIds);
+            List<UserTaskRelation> relations = userTaskRelationRepository.findByTaskIds(taskIds);
+            calendarEntryRepository.saveAll(buildEntries(tasks, relations));
+        });
+    }
+
+    /**
+     * 用户修改个人状态或同步班级任务后，重算该用户日历中这些任务的记录
+     */
+    @TransactionalEventListener
+    @Order(LISTENER_ORDER)
+    public void onTaskRelationChanged(TaskRelationChangedEvent event) {
+        Collection<Long> changedTaskIds = event.taskIds();
+        if (changedTaskIds.isEmpty()) {
+            return;
+        }
+        project("userId=" + event.userId() + " taskIds=" + changedTaskIds, () -> {
+            List<Long> taskIds = taskRepository.lockByIdIn(changedTaskIds);
+            calendarEntryRepository.deleteByUserIdAndTaskIds(event.userId(), changedTaskIds);
+            if (taskIds.isEmpty()) {
+                return;
+            }
+            List<Task> tasks = taskRepository.findWithClassByIdIn(taskIds);
+            List<UserTaskRelation> relations = userTaskRelationRepository.findByUserIdAndTaskIds(event.userId(), taskIds);
+            List<CalendarEntry> entries = buildEntries(tasks, relations).stream()
+                    .filter(entry -> entry.getUserId().equals(event.userId()))
+                    .collect(Collectors.toList());
+            calendarEntryRepository.saveAll(entries);
+        });
+    }
+
+    /**
+     * 在新事务中执行一次重算，暂时性失败（死锁、锁等待超时）重试
+     */
+    private void project(String target, Runnable projection) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> projection.run());
+                return;
+            } catch (TransientDataAccessException | DataIntegrityViolationException e) {
+                if (attempt >= PROJECTION_ATTEMPTS) {
+                    logger.error("Calendar projection failed after {} attempts ({}), run --rebuild-calendar to repair",
+                            attempt, target, e);
+                    return;
+                }
+                logger.warn("Calendar projection attempt {} failed ({}): {}", attempt, target, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 全量重建读模型：在一个事务中清空后按任务ID分批重算，提交前读者看到的仍是旧数据，不会读到空表或半张表；
+     * 每批写入后清空持久化上下文，内存不随任务数增长。
+     * 重建事务持有整张表的行锁，期间并发的增量重算会等待提交，随后在新数据上重新执行
+     * @return 写入的记录数
+     */
+    public long rebuildAll() {
+        logger.info("Rebuilding calendar_entries ...");
+        Long written = transactionTemplate.execute(status -> {
+            calendarEntryRepository.deleteAllEntries();
+
+            long count = 0;
+            long afterId = 0L;
+            while (true) {
+                List<Task> tasks = taskRepository.findActiveWithClassAfterId(afterId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+                if (tasks.isEmpty()) {
+                    return count;
+                }
+                List<Long> taskIds = tasks.stream().map(Task::getId).collect(Collectors.toList());
+                List<UserTaskRelation> relations = userTaskRelationRepository.findByTaskIds(taskIds);
+                count += calendarEntryRepository.saveAll(buildEntries(tasks, relations)).size();
+                afterId = taskIds.get(taskIds.size() - 1);
+
+                entityManager.flush();
+                entityManager.clear();
+            }
+        });
+        logger.info("Rebuilt calendar_entries: {} entries", written);
+        return written;
+    }
+
+    /**
+     * 读模型是否为空（首次部署时用于判断是否需要自动重建）
+     */
+    public boolean isEmpty() {
+        return calendarEntryRepository.count() == 0;
+    }
+
+    /**
+     * 按可见规则为一批任务生成日历记录
+     */
+    private List<CalendarEntry> buildEntries(List<Task> tasks, List<UserTaskRelation> relations) {
+        // taskId -> (userId -> relation)
+        Map<Long, Map<Long, UserTaskRelation>> relationsByTask = new LinkedHashMap<>();
+        for (UserTaskRelation relation : relations) {
+            relationsByTask.computeIfAbsent(relation.getTask().getId(), id -> new LinkedHashMap<>())
+                    .put(relation.getUser().getId(), relation);
+        }
+
+        List<CalendarEntry> entries = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.isDeleted()) {
+                continue;
+            }
+            Map<Long, UserTaskRelation> taskRelations = relationsByTask.getOrDefault(task.getId(), Map.of());
+            if (task.getTaskType() == Task.TaskType.PERSONAL) {
+                Long creatorId = task.getCreator().getId();
+                addEntries(entries, task, creatorId, taskRelations.get(creatorId));
+            } else if (task.getTaskType() == Task.TaskType.CLASS) {
+                taskRelations.forEach((userId, relation) -> addEntries(entries, task, userId, relation));
+            }
+        }
+        return entries;
+    }
+
+    private void addEntries(List<CalendarEntry> entries, Task task, Long userId, UserTaskRelation relation) {
+        Set<LocalDate> days = new LinkedHashSet<>();
+        days.add(task.getCreatedAt().toLocalDate());
+        if (task.getDeadline() != null) {
+            days.add(task.getDeadline().toLocalDate());
+        }
+
+        for (LocalDate day : days) {
+            CalendarEntry entry = new CalendarEntry();
+            entry.setUserId(userId);
+            entry.setEntryDay(day);
+            entry.setTaskId(task.getId());
+            entry.setTitle(task.getTitle());
+            entry.setCourseName(task.getCourseName());
+            entry.setTaskType(task.getTaskType());
+            entry.setDeadline(task.getDeadline());
+            entry.setTaskCreatedAt(task.getCreatedAt());
+            entry.setClassName(task.getClassEntity() != null ? task.getClassEntity().getName() : null);
+            if (relation != null) {
+                entry.setPersonalStatus(relation.getStatus());
+                entry.setPersonalDeadline(relation.getPersonalDeadline());
+            }
+            entries.add(entry);
+        }
+    }
+
+    private CalendarTaskDto toCalendarDto(CalendarEntry entry) {
+        CalendarTaskDto dto = new CalendarTaskDto();
+        dto.setId(entry.getTaskId());
+        dto.setTitle(entry.getTitle());
+        dto.setCourseName(entry.getCourseName());
+        dto.setTaskType(entry.getTaskType());
+        dto.setDeadline(entry.getDeadline());
+        dto.setCreatedAt(entry.getTaskCreatedAt());
+        dto.setClassName(entry.getClassName());
+        dto.setPersonalStatus(entry.getPersonalStatus() != null
+                ? entry.getPersonalStatus() : UserTaskRelation.TaskStatus.TODO);
+        dto.setPersonalDeadline(entry.getPersonalDeadline());
+        return dto;
+    }
+}
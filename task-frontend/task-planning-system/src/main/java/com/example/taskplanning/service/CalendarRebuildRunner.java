@@ -0,0 +1,33 @@
+package com.example.taskplanning.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 日历读模型重建命令
+ * 启动参数带 --rebuild-calendar 时全量重建 calendar_entries，例如：
+ * java -jar app.jar --rebuild-calendar --spring.main.web-application-type=none
+ * 未带参数时，如果读模型为空（首次部署）也会自动重建一次
+ */
+@Component
+public class CalendarRebuildRunner implements ApplicationRunner {
+
+    private final CalendarReadModelService calendarReadModelService;
+    private final boolean rebuildIfEmpty;
+
+    public CalendarRebuildRunner(CalendarReadModelService calendarReadModelService,
+                                 @Value("${app.calendar.rebuild-if-empty:true}") boolean rebuildIfEmpty) {
+        this.calendarReadModelService = calendarReadModelService;
+        this.rebuildIfEmpty = rebuildIfEmpty;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption("rebuild-calendar")
+                || (rebuildIfEmpty && calendarReadModelService.isEmpty())) {
+            calendarReadModelService.rebuildAll();
+        }
+    }
+}
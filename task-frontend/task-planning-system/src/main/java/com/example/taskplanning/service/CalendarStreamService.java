@@ -0,0 +1,197 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.dto.CalendarTaskDto;
+import com.example.taskplanning.entity.Task;
+import com.example.taskplanning.entity.UserTaskRelation;
+import com.example.taskplanning.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * 日历区间查询（流式输出）
+ * 从日历读模型按 (user_id, entry_day) 范围读取，JDBC 逐行读取并直接写出JSON，不在内存中构建结果列表，
+ * 年视图、周视图、日程视图一次请求即可取回。
+ * 同一任务在范围（或同一分组）内可能有创建日和截止日两条记录：按分组键、截止时间、任务ID排序后相邻去重。
+ */
+@Service
+public class CalendarStreamService {
+
+    /**
+     * 分组方式：不分组（按截止时间排列）、按天、按周（周一为一周的开始）
+     */
+    public enum Grouping {
+        NONE("NULL", "ce.deadline, ce.task_id, ce.entry_day"),
+        DAY("ce.entry_day", "ce.entry_day, ce.deadline, ce.task_id"),
+        WEEK("DATE_SUB(ce.entry_day, INTERVAL WEEKDAY(ce.entry_day) DAY)", "group_day, ce.deadline, ce.task_id, ce.entry_day");
+
+        private final String groupExpression;
+        private final String orderBy;
+
+        Grouping(String groupExpression, String orderBy) {
+            this.groupExpression = groupExpression;
+            this.orderBy = orderBy;
+        }
+
+        public static Grouping parse(String value) {
+            try {
+                return Grouping.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("INVALID_GROUP_BY", "groupBy 只能是 none、day 或 week");
+            }
+        }
+
+        /**
+         * 描述不冗余在读模型中，按主键关联 tasks 取回
+         */
+        String sql() {
+            return "SELECT " + groupExpression + " AS group_day, ce.task_id, ce.entry_day, ce.title, t.description, "
+                    + "ce.course_name, ce.task_type, ce.deadline, ce.task_created_at, ce.class_name, "
+                    + "ce.personal_status, ce.personal_deadline "
+                    + "FROM calendar_entries ce JOIN tasks t ON t.id = ce.task_id "
+                    + "WHERE ce.user_id = ? AND ce.entry_day BETWEEN ? AND ? "
+                    + "ORDER BY " + orderBy;
+        }
+    }
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxDays;
+
+    public CalendarStreamService(DataSource dataSource,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.calendar.range.max-days:400}") int maxDays) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // MySQL Connector/J 在 fetchSize 为 Integer.MIN_VALUE 时逐行流式读取结果集，客户端内存不随行数增长
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.objectMapper = objectMapper;
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * 校验查询区间：开始日期不晚于结束日期，且跨度不超过 app.calendar.range.max-days
+     */
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BusinessException("INVALID_RANGE", "开始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > maxDays) {
+            throw new BusinessException("INVALID_RANGE", "查询区间不能超过" + maxDays + "天");
+        }
+    }
+
+    /**
+     * 将用户在 [from, to] 内的日历任务以统一响应格式写出：
+     * 不分组时 data.tasks 为任务数组；按天/周分组时 data.groups 为 [{date, tasks}] 数组
+     */
+    public void writeRange(Long userId, LocalDate from, LocalDate to, Grouping grouping, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeNumberField("code", 200);
+            json.writeStringField("message", "日历数据获取成功");
+            json.writeObjectField("timestamp", LocalDateTime.now());
+            json.writeObjectFieldStart("data");
+            json.writeStringField("from", from.toString());
+            json.writeStringField("to", to.toString());
+            json.writeStringField("groupBy", grouping.name().toLowerCase(Locale.ROOT));
+            json.writeArrayFieldStart(grouping == Grouping.NONE ? "tasks" : "groups");
+
+            RangeWriter writer = new RangeWriter(json, grouping);
+            try {
+                streamingJdbcTemplate.query(grouping.sql(), writer, userId, from, to);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * 逐行写出：分组键变化时开启新分组，同一分组内跳过同一任务的第二条记录
+     */
+    private static final class RangeWriter implements RowCallbackHandler {
+
+        private final JsonGenerator json;
+        private final Grouping grouping;
+
+        private LocalDate currentGroup;
+        private long lastTaskId = -1L;
+
+        RangeWriter(JsonGenerator json, Grouping grouping) {
+            this.json = json;
+            this.grouping = grouping;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                if (grouping != Grouping.NONE) {
+                    LocalDate group = rs.getObject("group_day", LocalDate.class);
+                    if (!group.equals(currentGroup)) {
+                        if (currentGroup != null) {
+                            json.writeEndArray();
+                            json.writeEndObject();
+                        }
+                        json.writeStartObject();
+                        json.writeStringField("date", group.toString());
+                        json.writeArrayFieldStart("tasks");
+                        currentGroup = group;
+                        lastTaskId = -1L;
+                    }
+                }
+
+                long taskId = rs.getLong("task_id");
+                if (taskId == lastTaskId) {
+                    return;
+                }
+                lastTaskId = taskId;
+                json.writeObject(toCalendarDto(rs));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            if (currentGroup != null) {
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        }
+
+        private CalendarTaskDto toCalendarDto(ResultSet rs) throws SQLException {
+            CalendarTaskDto dto = new CalendarTaskDto();
+            dto.setId(rs.getLong("task_id"));
+            dto.setTitle(rs.getString("title"));
+            dto.setDescription(rs.getString("description"));
+            dto.setCourseName(rs.getString("course_name"));
+            dto.setTaskType(Task.TaskType.valueOf(rs.getString("task_type")));
+            dto.setDeadline(rs.getObject("deadline", LocalDateTime.class));
+            dto.setCreatedAt(rs.getObject("task_created_at", LocalDateTime.class));
+            dto.setClassName(rs.getString("class_name"));
+            String personalStatus = rs.getString("personal_status");
+            dto.setPersonalStatus(personalStatus != null
+                    ? UserTaskRelation.TaskStatus.valueOf(personalStatus) : UserTaskRelation.TaskStatus.TODO);
+            dto.setPersonalDeadline(rs.getObject("personal_deadline", LocalDateTime.class));
+            return dto;
+        }
+    }
+}
@@ -8,15 +8,22 @@ import com.example.taskplanning.entity.UserClassRelation;
 import com.example.taskplanning.exception.BusinessException;
 import com.example.taskplanning.repository.ClassRepository;
 import com.example.taskplanning.repository.UserClassRelationRepository;
+import com.example.taskplanning.event.MembershipChangedEvent;
+import com.example.taskplanning.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import com.example.taskplanning.annotation.LogAction;
 
 @Service
@@ -25,7 +32,10 @@ public class ClassService {
 
     private final ClassRepository classRepository;
     private final UserClassRelationRepository userClassRelationRepository;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
+    private final MembershipCache membershipCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ListCountCache listCountCache;
 
     private static final String INVITE_CODE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
     private static final int INVITE_CODE_LENGTH = 8;
@@ -34,10 +44,16 @@ public class ClassService {
     @Autowired
     public ClassService(ClassRepository classRepository,
                         UserClassRelationRepository userClassRelationRepository,
-                        UserService userService) {
+                        CurrentUserResolver currentUserResolver,
+                        MembershipCache membershipCache,
+                        ApplicationEventPublisher eventPublisher,
+                        ListCountCache listCountCache) {
         this.classRepository = classRepository;
         this.userClassRelationRepository = userClassRelationRepository;
-        this.userService = userService;
+        this.currentUserResolver = currentUserResolver;
+        this.membershipCache = membershipCache;
+        this.eventPublisher = eventPublisher;
+        this.listCountCache = listCountCache;
     }
 
     /**
@@ -48,7 +64,7 @@ public class ClassService {
     @LogAction(action = "CLASS_CREATE", entityType = "CLASS")
     public ClassResponseDto createClass(ClassCreateDto createDto) {
         // 获取当前登录用户
-        User creator = userService.getCurrentUserEntity();
+        User creator = currentUserResolver.getCurrentUser();
 
         // 生成唯一的邀请码
         String inviteCode = generateUniqueInviteCode();
@@ -76,6 +92,7 @@ public class ClassService {
         ownerRelation.setCreatedAt(LocalDateTime.now());
 
         userClassRelationRepository.save(ownerRelation);
+        eventPublisher.publishEvent(new MembershipChangedEvent(creator.getId(), savedClass.getId()));
 
         return convertToClassResponseDto(savedClass);
     }
@@ -88,7 +105,7 @@ public class ClassService {
      */
     @Transactional(readOnly = true)
     public ClassResponseDto findClassByInviteCode(String inviteCode) {
-        Classes classEntity = classRepository.findByInviteCode(inviteCode)
+        Classes classEntity = classRepository.findWithOwnerByInviteCode(inviteCode)
                 .orElseThrow(() -> new BusinessException("PermissionDeniedException", "邀请码无效或班级不存在"));
 
         return convertToClassResponseDto(classEntity);
@@ -103,7 +120,7 @@ public class ClassService {
     @LogAction(action = "CLASS_JOIN_APPLY", entityType = "CLASS")
     public void applyToJoinClass(Long classId, ClassJoinRequestDto joinRequestDto) {
         // 获取当前登录用户
-        User applicant = userService.getCurrentUserEntity();
+        User applicant = currentUserResolver.getCurrentUserReference();
 
         // 查找班级
         Classes classEntity = classRepository.findById(classId)
@@ -132,6 +149,7 @@ public class ClassService {
         newRelation.setCreatedAt(LocalDateTime.now());
 
         userClassRelationRepository.save(newRelation);
+        eventPublisher.publishEvent(new MembershipChangedEvent(applicant.getId(), classId));
     }
 
     /**
@@ -144,14 +162,14 @@ public class ClassService {
     @Transactional(readOnly = true)
     public Page<ApprovalResponseDto> getApprovalList(Long classId, Pageable pageable) {
         // 获取当前登录用户
-        User currentUser = userService.getCurrentUserEntity();
+        Long currentUserId = currentUserResolver.getCurrentUserId();
 
         // 检查班级是否存在
         Classes classEntity = classRepository.findById(classId)
                 .orElseThrow(() -> new BusinessException("getApprovalList_FAILED", "班级不存在"));
 
         // 权限检查：验证当前用户是否是该班级的ADMIN或OWNER
-        if (!hasClassAdminPermission(currentUser.getId(), classId)) {
+        if (!hasClassAdminPermission(currentUserId, classId)) {
             throw new BusinessException("PermissionDenied", "您没有权限查看该班级的申请列表");
         }
 
@@ -167,6 +185,63 @@ public class ClassService {
         return pendingApplications.map(this::convertToApprovalResponseDto);
     }
 
+    /**
+     * 获取班级的待审批申请列表（slice模式：不执行COUNT，withTotal 为true时从计数缓存取总数）
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<ApprovalResponseDto> getApprovalSlice(Long classId, Pageable pageable, boolean withTotal) {
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+
+        if (!classRepository.existsById(classId)) {
+            throw new BusinessException("getApprovalList_FAILED", "班级不存在");
+        }
+        if (!hasClassAdminPermission(currentUserId, classId)) {
+            throw new BusinessException("PermissionDenied", "您没有权限查看该班级的申请列表");
+        }
+
+        Slice<UserClassRelation> rows = userClassRelationRepository.findSliceByClassEntity_IdAndStatus(
+                classId, UserClassRelation.JoinStatus.PENDING, pageable);
+        SliceResponseDto<ApprovalResponseDto> slice = SliceResponseDto.of(rows,
+                page -> page.stream().map(this::convertToApprovalResponseDto).collect(Collectors.toList()));
+        if (withTotal) {
+            slice.withTotal(listCountCache.get(ListCountCache.View.CLASS_APPROVALS, classId,
+                    () -> userClassRelationRepository.countByClassEntity_IdAndStatus(classId, UserClassRelation.JoinStatus.PENDING)));
+        }
+        return slice;
+    }
+
+    /**
+     * 获取班级的待审批申请列表（键集分页，按申请时间升序）
+     * @param classId 班级ID
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     * @param size 每页条数
+     * @return 当前页的待审批申请
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<ApprovalResponseDto> getApprovalSlice(Long classId, String cursor, int size) {
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+
+        if (!classRepository.existsById(classId)) {
+            throw new BusinessException("getApprovalList_FAILED", "班级不存在");
+        }
+        if (!hasClassAdminPermission(currentUserId, classId)) {
+            throw new BusinessException("PermissionDenied", "您没有权限查看该班级的申请列表");
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int limit = KeysetCursor.clampSize(size);
+        List<UserClassRelation> rows = userClassRelationRepository.findByClassAndStatusAfterCreatedAt(
+                classId,
+                UserClassRelation.JoinStatus.PENDING,
+                after == null ? null : after.key(),
+                after == null ? 0L : after.id(),
+                PageRequest.of(0, limit + 1));
+
+        return SliceResponseDto.of(rows, limit,
+                relation -> new KeysetCursor(relation.getCreatedAt(), relation.getId()),
+                page -> page.stream().map(this::convertToApprovalResponseDto).collect(Collectors.toList()));
+    }
+
     /**
      * 处理申请审批
      * @param classId 班级ID
@@ -177,7 +252,7 @@ public class ClassService {
      */
     public String processApproval(Long classId, Long applicantUserId, ApprovalActionDto approvalActionDto) {
         // 获取当前登录用户（审批者）
-        User approver = userService.getCurrentUserEntity();
+        User approver = currentUserResolver.getCurrentUserReference();
 
         // 检查班级是否存在
         Classes classEntity = classRepository.findById(classId)
@@ -213,6 +288,7 @@ public class ClassService {
         // 更新审批时间
         pendingRelation.setUpdatedAt(LocalDateTime.now());
         userClassRelationRepository.save(pendingRelation);
+        eventPublisher.publishEvent(new MembershipChangedEvent(applicantUserId, classId));
 
         return resultMessage;
     }
@@ -225,7 +301,7 @@ public class ClassService {
     @Transactional(readOnly = true)
     public Page<ClassResponseDto> getMyClasses(Pageable pageable) {
         // 获取当前登录用户
-        User currentUser = userService.getCurrentUserEntity();
+        User currentUser = currentUserResolver.getCurrentUserReference();
 
         // 分页查询该用户所有APPROVED状态的班级关系记录
         Page<UserClassRelation> approvedRelations =
@@ -236,7 +312,26 @@ public class ClassService {
                 );
 
         // 转换为ClassResponseDto
-        return approvedRelations.map(relation -> convertToClassResponseDto(relation.getClassEntity()));
+        return approvedRelations.map(relation -> convertToClassListDto(relation.getClassEntity()));
+    }
+
+    /**
+     * 获取用户加入的所有班级（slice模式：不执行COUNT，withTotal 为true时从计数缓存取总数）
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<ClassResponseDto> getMyClassSlice(Pageable pageable, boolean withTotal) {
+        User currentUser = currentUserResolver.getCurrentUserReference();
+
+        Slice<UserClassRelation> rows = userClassRelationRepository.findSliceByUserAndStatus(
+                currentUser, UserClassRelation.JoinStatus.APPROVED, pageable);
+        SliceResponseDto<ClassResponseDto> slice = SliceResponseDto.of(rows, page -> page.stream()
+                .map(relation -> convertToClassListDto(relation.getClassEntity()))
+                .collect(Collectors.toList()));
+        if (withTotal) {
+            slice.withTotal(listCountCache.get(ListCountCache.View.MY_CLASSES, currentUser.getId(),
+                    () -> userClassRelationRepository.countByUser_IdAndStatus(currentUser.getId(), UserClassRelation.JoinStatus.APPROVED)));
+        }
+        return slice;
     }
 
     /**
@@ -248,7 +343,7 @@ public class ClassService {
      */
     public void changeMemberRole(Long classId, Long userId, UserClassRelation.RoleInClass newRole) {
         // 获取当前用户（操作者）
-        User currentOperator = userService.getCurrentUserEntity();
+        Long currentOperatorId = currentUserResolver.getCurrentUserId();
 
         // 查找要修改角色的用户与班级的关系记录
         UserClassRelation relation = userClassRelationRepository.findByUserIdAndClassEntityIdAndStatus(
@@ -261,7 +356,7 @@ public class ClassService {
         }
 
         // 不允许创建者修改自己的角色（虽然理论上Owner不会走到这里）
-        if (userId.equals(currentOperator.getId())) {
+        if (userId.equals(currentOperatorId)) {
             throw new BusinessException("changeMemberRole_FAILED", "不能修改自己的角色");
         }
 
@@ -282,6 +377,7 @@ public class ClassService {
         relation.setUpdatedAt(LocalDateTime.now());
 
         userClassRelationRepository.save(relation);
+        eventPublisher.publishEvent(new MembershipChangedEvent(userId, classId));
     }
 
     /**
@@ -291,8 +387,7 @@ public class ClassService {
      */
     @Transactional(readOnly = true)
     public boolean checkClassPermission(Long classId) {
-        User currentUser = userService.getCurrentUserEntity();
-        return hasClassAdminPermission(currentUser.getId(), classId);
+        return hasClassAdminPermission(currentUserResolver.getCurrentUserId(), classId);
     }
 
     /**
@@ -303,7 +398,7 @@ public class ClassService {
      */
     @Transactional(readOnly = true)
     public boolean hasClassAdminPermission(Long userId, Long classId) {
-        return userClassRelationRepository.hasAdminPermission(userId, classId);
+        return membershipCache.canManage(userId, classId);
     }
 
     /**
@@ -342,6 +437,15 @@ public class ClassService {
         return new ClassResponseDto(classEntity, classEntity.getOwner());
     }
 
+    /**
+     * 将Classes实体转换为班级列表项DTO，不包含描述
+     * @param classEntity 班级实体
+     * @return 班级响应DTO
+     */
+    private ClassResponseDto convertToClassListDto(Classes classEntity) {
+        return new ClassResponseDto(classEntity, classEntity.getOwner(), false);
+    }
+
     /**
      * 将UserClassRelation实体转换为ApprovalResponseDto
      * @param relation 用户班级关系实体
@@ -364,6 +468,41 @@ public class ClassService {
         // 将查询结果 (Page<UserClassRelation>) 转换为 (Page<MemberResponseDto>)
         return relationPage.map(MemberResponseDto::new);
     }
+
+    /**
+     * 获取班级成员列表（slice模式：不执行COUNT，withTotal 为true时从计数缓存取总数）
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<MemberResponseDto> getMemberSlice(Long classId, Pageable pageable, boolean withTotal) {
+        Slice<UserClassRelation> rows = userClassRelationRepository.findSliceByClassEntity_IdAndStatus(
+                classId, UserClassRelation.JoinStatus.APPROVED, pageable);
+        SliceResponseDto<MemberResponseDto> slice = SliceResponseDto.of(rows,
+                page -> page.stream().map(MemberResponseDto::new).collect(Collectors.toList()));
+        if (withTotal) {
+            slice.withTotal(listCountCache.get(ListCountCache.View.CLASS_MEMBERS, classId,
+                    () -> userClassRelationRepository.countByClassEntity_IdAndStatus(classId, UserClassRelation.JoinStatus.APPROVED)));
+        }
+        return slice;
+    }
+
+    /**
+     * 获取班级成员列表（键集分页，按加入时间升序）
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<MemberResponseDto> getMemberSlice(Long classId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int limit = KeysetCursor.clampSize(size);
+        List<UserClassRelation> rows = userClassRelationRepository.findByClassAndStatusAfterJoinedAt(
+                classId,
+                UserClassRelation.JoinStatus.APPROVED,
+                after == null ? null : after.key(),
+                after == null ? 0L : after.id(),
+                PageRequest.of(0, limit + 1));
+
+        return SliceResponseDto.of(rows, limit,
+                relation -> new KeysetCursor(relation.getJoinedAt(), relation.getId()),
+                page -> page.stream().map(MemberResponseDto::new).collect(Collectors.toList()));
+    }
     /**
      * 获取用户在指定班级中的角色和权限信息
      * @param classId 班级ID
@@ -372,7 +511,7 @@ public class ClassService {
     @Transactional(readOnly = true)
     public UserRolePermissionResponseDto getUserRoleInClass(Long classId) {
         // 获取当前登录用户
-        User currentUser = userService.getCurrentUserEntity();
+        User currentUser = currentUserResolver.getCurrentUserReference();
 
         // 检查班级是否存在
         Classes classEntity = classRepository.findById(classId)
@@ -413,7 +552,7 @@ public class ClassService {
      */
     @Transactional(readOnly = true)
     public ClassResponseDto getClassDetails(Long classId) {
-        Classes classEntity = classRepository.findById(classId)
+        Classes classEntity = classRepository.findWithOwnerById(classId)
                 .orElseThrow(() -> new BusinessException("CLASS_NOT_FOUND", "班级不存在", 404));
 
         // 使用已有的转换方法
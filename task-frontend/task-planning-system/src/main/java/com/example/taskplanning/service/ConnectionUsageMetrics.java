@@ -0,0 +1,112 @@
+package com.example.taskplanning.service;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据库连接占用指标
+ * 由 Hikari 回调：每次连接归还时记录占用时长（借出到归还），每次借出时记录等待时长，以及借连接超时次数；
+ * 占用时长按区间分桶，用于观察关闭 open-in-view 前后单个请求持有连接的时间。
+ * 通过 ConnectionMetricsConfig 挂到 HikariDataSource 上。
+ */
+@Service
+public class ConnectionUsageMetrics implements MetricsTrackerFactory {
+
+    // 占用时长分桶上界（毫秒），最后一个桶为 >= 1000ms
+    private static final long[] USAGE_BUCKETS_MS = {5, 20, 100, 500, 1000};
+    private static final String[] USAGE_BUCKET_NAMES = {"lt5ms", "lt20ms", "lt100ms", "lt500ms", "lt1000ms", "ge1000ms"};
+
+    private final LongAdder usageCount = new LongAdder();
+    private final LongAdder usageTotalMs = new LongAdder();
+    private final AtomicLong usageMaxMs = new AtomicLong();
+    private final LongAdder[] usageBuckets = new LongAdder[USAGE_BUCKET_NAMES.length];
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireTotalNanos = new LongAdder();
+    private final AtomicLong acquireMaxNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+
+    private volatile PoolStats poolStats;
+
+    public ConnectionUsageMetrics(MetricsService metricsService) {
+        for (int i = 0; i < usageBuckets.length; i++) {
+            usageBuckets[i] = new LongAdder();
+        }
+
+        metricsService.register("db.connections", () -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            PoolStats stats = poolStats;
+            if (stats != null) {
+                map.put("active", stats.getActiveConnections());
+                map.put("idle", stats.getIdleConnections());
+                map.put("total", stats.getTotalConnections());
+                map.put("max", stats.getMaxConnections());
+                map.put("pendingThreads", stats.getPendingThreads());
+            }
+
+            long usages = usageCount.sum();
+            Map<String, Object> usage = new LinkedHashMap<>();
+            usage.put("count", usages);
+            usage.put("avgMs", usages == 0 ? 0.0 : (double) usageTotalMs.sum() / usages);
+            usage.put("maxMs", usageMaxMs.get());
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < usageBuckets.length; i++) {
+                buckets.put(USAGE_BUCKET_NAMES[i], usageBuckets[i].sum());
+            }
+            usage.put("buckets", buckets);
+            map.put("usage", usage);
+
+            long acquires = acquireCount.sum();
+            Map<String, Object> acquire = new LinkedHashMap<>();
+            acquire.put("count", acquires);
+            acquire.put("avgMs", acquires == 0 ? 0.0 : (double) acquireTotalNanos.sum() / acquires / 1_000_000);
+            acquire.put("maxMs", TimeUnit.NANOSECONDS.toMillis(acquireMaxNanos.get()));
+            acquire.put("timeouts", timeouts.sum());
+            map.put("acquire", acquire);
+            return map;
+        });
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireCount.increment();
+                acquireTotalNanos.add(elapsedAcquiredNanos);
+                acquireMaxNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageCount.increment();
+                usageTotalMs.add(elapsedBorrowedMillis);
+                usageMaxMs.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+                usageBuckets[bucketOf(elapsedBorrowedMillis)].increment();
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    private static int bucketOf(long millis) {
+        for (int i = 0; i < USAGE_BUCKETS_MS.length; i++) {
+            if (millis < USAGE_BUCKETS_MS[i]) {
+                return i;
+            }
+        }
+        return USAGE_BUCKETS_MS.length;
+    }
+}
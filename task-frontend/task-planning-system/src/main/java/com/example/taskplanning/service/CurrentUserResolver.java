@@ -0,0 +1,84 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.config.CustomUserDetails;
+import com.example.taskplanning.entity.User;
+import com.example.taskplanning.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 当前登录用户解析器（请求级）
+ * 1. 只需要用户ID时，直接从CustomUserDetails读取，不访问数据库
+ * 2. 只需要建立关联时，返回getReferenceById代理，不触发查询
+ * 3. 需要用户字段时，完整实体在每个请求内最多加载一次并缓存在请求属性中
+ */
+@Component
+public class CurrentUserResolver {
+
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserResolver.class.getName() + ".CURRENT_USER";
+
+    private final UserRepository userRepository;
+
+    @Autowired
+    public CurrentUserResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * 获取当前用户ID（不访问数据库）
+     */
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            return userDetails.getId();
+        }
+        // 非CustomUserDetails主体（理论上不会出现），退化为加载完整实体
+        return getCurrentUser().getId();
+    }
+
+    /**
+     * 获取当前用户的引用代理，用于设置外键关联（不访问数据库）
+     */
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+
+    /**
+     * 获取当前用户的完整实体，同一请求内只查询一次
+     */
+    public User getCurrentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object cached = attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof User user) {
+                return user;
+            }
+        }
+
+        User user = loadCurrentUser();
+        if (attributes != null) {
+            attributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    private User loadCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            throw new UsernameNotFoundException("No authenticated user in security context");
+        }
+        if (authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            return userRepository.findById(userDetails.getId())
+                    .orElseThrow(() -> new UsernameNotFoundException("Authenticated user not found in database: " + userDetails.getUsername()));
+        }
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Authenticated user not found in database: " + username));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.entity.FeedToken;
+import com.example.taskplanning.event.FeedTokenRevokedEvent;
+import com.example.taskplanning.exception.BusinessException;
+import com.example.taskplanning.repository.FeedTokenRepository;
+import com.example.taskplanning.util.BoundedCache;
+import com.example.taskplanning.util.TokenDigests;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 日历订阅令牌管理
+ * 日历应用无法携带JWT，订阅地址中带一个随机令牌代替登录；数据库只保存摘要。
+ * 日历应用会定期轮询，令牌摘要 -> 用户ID 缓存在内存中，命中时不查询数据库；
+ * 重新生成或吊销的事务提交后清除旧令牌的缓存条目。
+ * 缓存是每个实例各自一份，清除只作用于处理吊销请求的实例：多实例部署时，其他实例上的旧令牌
+ * 最多还能使用 app.calendar.feed.token-cache.ttl-ms（默认10分钟）。订阅内容是只读的日程，接受这个有界的延迟；
+ * 需要立即失效时调小该TTL（为0时每次都查询数据库）。
+ */
+@Service
+public class FeedTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final FeedTokenRepository feedTokenRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BoundedCache<String, Long> cache;
+    private final long ttlMillis;
+
+    public FeedTokenService(FeedTokenRepository feedTokenRepository,
+                            CurrentUserResolver currentUserResolver,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${app.calendar.feed.token-cache.max-size:10000}") int maxSize,
+                            @Value("${app.calendar.feed.token-cache.ttl-ms:600000}") long ttlMillis,
+                            MetricsService metricsService) {
+        this.feedTokenRepository = feedTokenRepository;
+        this.currentUserResolver = currentUserResolver;
+        this.eventPublisher = eventPublisher;
+        this.cache = new BoundedCache<>(maxSize);
+        this.ttlMillis = ttlMillis;
+
+        metricsService.register("calendar.feedTokenCache", () -> {
+            Map<String, Object> map = new LinkedHashMap<>(cache.getStats().snapshot());
+            map.put("size", cache.size());
+            return map;
+        });
+    }
+
+    /**
+     * 为当前用户生成订阅令牌，已有令牌时替换（旧订阅地址随即失效）
+     * @return 令牌原文（只在此处返回一次）
+     */
+    @Transactional
+    public String issueForCurrentUser() {
+        Long userId = currentUserResolver.getCurrentUserId();
+        String rawToken = TokenDigests.randomToken(TOKEN_BYTES);
+
+        FeedToken feedToken = feedTokenRepository.findByUserId(userId).orElse(null);
+        if (feedToken == null) {
+            feedToken = new FeedToken();
+            feedToken.setUser(currentUserResolver.getCurrentUserReference());
+        } else {
+            eventPublisher.publishEvent(new FeedTokenRevokedEvent(feedToken.getTokenHash()));
+        }
+        feedToken.setTokenHash(TokenDigests.sha256Hex(rawToken));
+        feedToken.setCreatedAt(LocalDateTime.now());
+        feedTokenRepository.save(feedToken);
+
+        return rawToken;
+    }
+
+    /**
+     * 吊销当前用户的订阅令牌
+     */
+    @Transactional
+    public void revokeForCurrentUser() {
+        feedTokenRepository.findByUserId(currentUserResolver.getCurrentUserId()).ifPresent(feedToken -> {
+            eventPublisher.publishEvent(new FeedTokenRevokedEvent(feedToken.getTokenHash()));
+            feedTokenRepository.delete(feedToken);
+        });
+    }
+
+    /**
+     * 解析订阅令牌对应的用户ID，令牌无效时抛出404（不存在的结果不缓存）
+     * 命中缓存时不再校验吊销状态，其他实例上的吊销在条目过期后才生效，见类注释
+     */
+    public Long resolveUserId(String rawToken) {
+        String tokenHash = TokenDigests.sha256Hex(rawToken);
+        Long userId = cache.get(tokenHash);
+        if (userId == null) {
+            userId = feedTokenRepository.findUserIdByTokenHash(tokenHash)
+                    .orElseThrow(() -> new BusinessException("FEED_NOT_FOUND", "订阅地址无效或已失效", 404));
+            cache.put(tokenHash, userId, System.currentTimeMillis() + ttlMillis);
+        }
+        return userId;
+    }
+
+    @TransactionalEventListener
+    public void onFeedTokenRevoked(FeedTokenRevokedEvent event) {
+        cache.invalidate(event.tokenHash());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.taskplanning.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 最后登录时间的延迟批量写入
+ * 登录时只在内存中记录每个用户最新的登录时间，由定时任务用一条多行UPDATE批量落库，
+ * 登录请求不再对users行加写锁；应用关闭时会把剩余的记录全部写入
+ */
+@Slf4j
+@Service
+public class LastLoginRecorder {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    // userId -> 最新登录时间，同一用户多次登录只保留最后一次
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate,
+                             @Value("${app.auth.last-login.batch-size:500}") int batchSize,
+                             MetricsService metricsService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+
+        metricsService.register("auth.lastLoginWriteBehind", () -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("pending", pending.size());
+            map.put("recorded", recorded.sum());
+            map.put("flushedRows", flushedRows.sum());
+            map.put("flushes", flushes.sum());
+            return map;
+        });
+    }
+
+    /**
+     * 记录一次登录
+     */
+    public void record(Long userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt, (a, b) -> a.isAfter(b) ? a : b);
+        recorded.increment();
+    }
+
+    /**
+     * 定时将缓冲区写入数据库
+     */
+    @Scheduled(fixedDelayString = "${app.auth.last-login.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>(batchSize);
+        for (Long userId : pending.keySet()) {
+            LocalDateTime loginAt = pending.remove(userId);
+            if (loginAt == null) {
+                continue;
+            }
+            batch.add(Map.entry(userId, loginAt));
+            if (batch.size() >= batchSize) {
+                writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    /**
+     * 一条语句更新一批用户：UPDATE users SET last_login_at = CASE id WHEN ? THEN ? ... END WHERE id IN (...)
+     * 写入失败时把记录放回缓冲区，等待下一次重试（若期间有更新的登录时间则以新的为准）
+     */
+    private void writeBatch(List<Map.Entry<Long, LocalDateTime>> batch) {
+        StringBuilder sql = new StringBuilder("UPDATE users SET last_login_at = CASE id");
+        StringBuilder in = new StringBuilder();
+        List<Object> params = new ArrayList<>(batch.size() * 3);
+        for (Map.Entry<Long, LocalDateTime> entry : batch) {
+            sql.append(" WHEN ? THEN ?");
+            params.add(entry.getKey());
+            params.add(Timestamp.valueOf(entry.getValue()));
+            in.append(in.length() == 0 ? "?" : ",?");
+        }
+        sql.append(" END WHERE id IN (").append(in).append(')');
+        batch.forEach(entry -> params.add(entry.getKey()));
+
+        try {
+            jdbcTemplate.update(sql.toString(), params.toArray());
+            flushedRows.add(batch.size());
+            flushes.increment();
+        } catch (RuntimeException e) {
+            log.error("批量写入最后登录时间失败，{}条记录将在下次重试", batch.size(), e);
+            batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), (a, b) -> a.isAfter(b) ? a : b));
+        }
+    }
+}
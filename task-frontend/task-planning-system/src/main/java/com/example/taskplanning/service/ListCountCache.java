@@ -0,0 +1,89 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.event.MembershipChangedEvent;
+import com.example.taskplanning.event.TaskChangedEvent;
+import com.example.taskplanning.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 列表总数缓存
+ * 页码分页的 slice 模式不执行COUNT，只有客户端请求总数时才从这里取；
+ * 按 (列表, 班级ID或用户ID) 缓存，未命中时执行一次COUNT。
+ * 任务、成员关系变更的事务提交后失效对应条目，另有过期时间兜底。
+ */
+@Service
+public class ListCountCache {
+
+    /**
+     * 可缓存总数的列表，owner 为班级ID或用户ID
+     */
+    public enum View {
+        CLASS_TASKS,        // 班级任务，按班级
+        PERSONAL_TASKS,     // 个人任务，按用户
+        MY_CLASSES,         // 我的班级，按用户
+        CLASS_MEMBERS,      // 班级成员，按班级
+        CLASS_APPROVALS,    // 班级待审批申请，按班级
+        MANAGED_APPROVALS   // 管理员名下所有班级的待审批申请，按管理员
+    }
+
+    private final BoundedCache<Key, Long> cache;
+    private final long ttlMillis;
+
+    public ListCountCache(@Value("${app.cache.list-count.max-size:20000}") int maxSize,
+                          @Value("${app.cache.list-count.ttl-ms:60000}") long ttlMillis,
+                          MetricsService metricsService) {
+        this.cache = new BoundedCache<>(maxSize);
+        this.ttlMillis = ttlMillis;
+
+        metricsService.register("cache.listCount", () -> {
+            Map<String, Object> map = new LinkedHashMap<>(cache.getStats().snapshot());
+            map.put("size", cache.size());
+            return map;
+        });
+    }
+
+    /**
+     * 获取列表总数，未命中时调用 counter 执行COUNT并缓存
+     */
+    public long get(View view, Long ownerId, LongSupplier counter) {
+        Key key = new Key(view, ownerId);
+        Long count = cache.get(key);
+        if (count == null) {
+            count = counter.getAsLong();
+            cache.put(key, count, System.currentTimeMillis() + ttlMillis);
+        }
+        return count;
+    }
+
+    /**
+     * 任务创建、修改或删除：影响所属班级的任务数和创建者的个人任务数
+     */
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        cache.invalidate(new Key(View.PERSONAL_TASKS, event.creatorId()));
+        if (event.classId() != null) {
+            cache.invalidate(new Key(View.CLASS_TASKS, event.classId()));
+        }
+    }
+
+    /**
+     * 成员关系变更：影响班级的成员数、申请数和该用户的班级数；
+     * 班级的管理员集合不在事件中，管理员名下申请数全部失效
+     */
+    @TransactionalEventListener
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        cache.invalidate(new Key(View.CLASS_MEMBERS, event.classId()));
+        cache.invalidate(new Key(View.CLASS_APPROVALS, event.classId()));
+        cache.invalidate(new Key(View.MY_CLASSES, event.userId()));
+        cache.invalidateIf(key -> key.view() == View.MANAGED_APPROVALS);
+    }
+
+    private record Key(View view, Long ownerId) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.entity.UserClassRelation;
+import com.example.taskplanning.event.MembershipChangedEvent;
+import com.example.taskplanning.repository.UserClassRelationRepository;
+import com.example.taskplanning.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 班级成员关系缓存
+ * 按 (userId, classId) 缓存用户在班级中的角色和状态（包括"不是成员"），供权限检查使用；
+ * 成员关系变更的事务提交后失效对应条目，另有过期时间兜底
+ */
+@Service
+public class MembershipCache {
+
+    private static final Membership NONE = new Membership(null, null);
+
+    private final UserClassRelationRepository userClassRelationRepository;
+    private final BoundedCache<Key, Membership> cache;
+    private final long ttlMillis;
+
+    public MembershipCache(UserClassRelationRepository userClassRelationRepository,
+                           @Value("${app.cache.membership.max-size:50000}") int maxSize,
+                           @Value("${app.cache.membership.ttl-ms:300000}") long ttlMillis,
+                           MetricsService metricsService) {
+        this.userClassRelationRepository = userClassRelationRepository;
+        this.cache = new BoundedCache<>(maxSize);
+        this.ttlMillis = ttlMillis;
+
+        metricsService.register("security.membershipCache", () -> {
+            Map<String, Object> map = new LinkedHashMap<>(cache.getStats().snapshot());
+            map.put("size", cache.size());
+            return map;
+        });
+    }
+
+    /**
+     * 获取用户在班级中的成员关系，不存在时返回角色和状态均为null的对象
+     */
+    public Membership get(Long userId, Long classId) {
+        Key key = new Key(userId, classId);
+        Membership membership = cache.get(key);
+        if (membership == null) {
+            membership = load(userId, classId);
+            cache.put(key, membership, System.currentTimeMillis() + ttlMillis);
+        }
+        return membership;
+    }
+
+    /**
+     * 是否为班级的已批准成员
+     */
+    public boolean isMember(Long userId, Long classId) {
+        return get(userId, classId).isApproved();
+    }
+
+    /**
+     * 是否为班级的管理员或创建者（已批准）
+     */
+    public boolean canManage(Long userId, Long classId) {
+        return get(userId, classId).canManage();
+    }
+
+    /**
+     * 是否为班级的创建者（已批准）
+     */
+    public boolean isOwner(Long userId, Long classId) {
+        Membership membership = get(userId, classId);
+        return membership.isApproved() && membership.role() == UserClassRelation.RoleInClass.OWNER;
+    }
+
+    /**
+     * 成员关系变更的事务提交后失效缓存
+     */
+    @TransactionalEventListener
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        cache.invalidate(new Key(event.userId(), event.classId()));
+    }
+
+    private Membership load(Long userId, Long classId) {
+        List<Object[]> rows = userClassRelationRepository.findRoleAndStatus(userId, classId);
+        if (rows.isEmpty()) {
+            return NONE;
+        }
+        Object[] row = rows.get(0);
+        return new Membership((UserClassRelation.RoleInClass) row[0], (UserClassRelation.JoinStatus) row[1]);
+    }
+
+    private record Key(Long userId, Long classId) {
+    }
+
+    /**
+     * 成员关系快照：角色和状态
+     */
+    public record Membership(UserClassRelation.RoleInClass role, UserClassRelation.JoinStatus status) {
+
+        public boolean isApproved() {
+            return status == UserClassRelation.JoinStatus.APPROVED;
+        }
+
+        /**
+         * 已批准的管理员或创建者
+         */
+        public boolean canManage() {
+            return isApproved()
+                    && (role == UserClassRelation.RoleInClass.ADMIN || role == UserClassRelation.RoleInClass.OWNER);
+        }
+    }
+}
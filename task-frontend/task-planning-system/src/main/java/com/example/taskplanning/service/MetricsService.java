@@ -0,0 +1,36 @@
+package com.example.taskplanning.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 运行时指标汇总
+ * 各组件（缓存、限流器、线程池等）在启动时注册自己的指标快照，由MetricsController统一输出
+ */
+@Service
+public class MetricsService {
+
+    private final Map<String, Supplier<Map<String, Object>>> sources = new ConcurrentHashMap<>();
+
+    /**
+     * 注册一个指标来源
+     * @param name 指标名称，如 "jwt.verifiedTokenCache"
+     * @param snapshot 每次调用返回当前指标快照
+     */
+    public void register(String name, Supplier<Map<String, Object>> snapshot) {
+        sources.put(name, snapshot);
+    }
+
+    /**
+     * 获取所有已注册指标的快照，按名称排序
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        sources.keySet().stream().sorted().forEach(name -> result.put(name, sources.get(name).get()));
+        return result;
+    }
+}
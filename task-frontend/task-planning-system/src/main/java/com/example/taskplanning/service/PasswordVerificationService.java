@@ -0,0 +1,97 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密码校验服务
+ * 将AuthenticationManager的认证（BCrypt比对）放到独立的有界线程池中执行，
+ * 请求线程只负责等待结果；线程池排满时快速失败，不再继续堆积
+ */
+@Slf4j
+@Service
+public class PasswordVerificationService {
+
+    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMs;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public PasswordVerificationService(@Lazy AuthenticationManager authenticationManager,
+                                       @Qualifier("passwordHashingExecutor") ThreadPoolTaskExecutor executor,
+                                       @Value("${app.auth.password-hashing.timeout-ms:10000}") long timeoutMs,
+                                       MetricsService metricsService) {
+        this.authenticationManager = authenticationManager;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+
+        metricsService.register("auth.passwordHashingExecutor", () -> {
+            ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("poolSize", pool.getPoolSize());
+            map.put("activeThreads", pool.getActiveCount());
+            map.put("queueDepth", pool.getQueue().size());
+            map.put("queueRemainingCapacity", pool.getQueue().remainingCapacity());
+            map.put("completedTasks", pool.getCompletedTaskCount());
+            map.put("rejected", rejected.sum());
+            map.put("timedOut", timedOut.sum());
+            return map;
+        });
+    }
+
+    /**
+     * 在密码校验线程池中执行认证
+     * 认证失败时原样抛出Spring Security的AuthenticationException
+     */
+    public Authentication authenticate(Authentication request) {
+        Future<Authentication> future;
+        try {
+            future = executor.submit(() -> authenticationManager.authenticate(request));
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            throw busy();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            log.warn("密码校验超时: {}ms", timeoutMs);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        }
+    }
+
+    private BusinessException busy() {
+        return new BusinessException("LOGIN_BUSY", "登录请求过多，请稍后再试", 503);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.entity.RefreshToken;
+import com.example.taskplanning.entity.User;
+import com.example.taskplanning.exception.BusinessException;
+import com.example.taskplanning.repository.RefreshTokenRepository;
+import com.example.taskplanning.repository.UserRepository;
+import com.example.taskplanning.util.TokenDigests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 刷新令牌管理
+ * 刷新令牌为随机字符串，数据库只保存其摘要；每次使用后轮换，旧令牌立即作废。
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final TokenVersionService tokenVersionService;
+
+    @Value("${app.jwt.refresh-expiration-in-ms}")
+    private long refreshExpirationInMs;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                               TokenVersionService tokenVersionService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.tokenVersionService = tokenVersionService;
+    }
+
+    /**
+     * 按用户ID签发刷新令牌（登录时使用，调用方无需持有事务；只需外键，使用引用代理，不查询用户）
+     * @return 令牌原文（只在此处返回一次）
+     */
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userRepository.getReferenceById(userId));
+    }
+
+    /**
+     * 为用户签发新的刷新令牌
+     * @return 令牌原文（只在此处返回一次）
+     */
+    @Transactional
+    public String issue(User user) {
+        String rawToken = TokenDigests.randomToken(TOKEN_BYTES);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUser(user);
+        refreshToken.setTokenHash(TokenDigests.sha256Hex(rawToken));
+        refreshToken.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpirationInMs * 1_000_000));
+        refreshTokenRepository.save(refreshToken);
+
+        return rawToken;
+    }
+
+    /**
+     * 使用刷新令牌：校验通过后将其作废，调用方随后签发新令牌
+     * 作废用条件更新完成（revoked = false 才更新），并发出示同一令牌时只有一个请求成功；
+     * 更新0行即出示的是已作废的令牌，视为令牌泄露，吊销该用户的全部刷新令牌和已签发的访问令牌
+     */
+    @Transactional(noRollbackFor = BusinessException.class)
+    public RefreshToken consume(String rawToken) {
+        String tokenHash = TokenDigests.sha256Hex(rawToken);
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(tokenHash)
+                .orElseThrow(() -> new BusinessException("INVALID_REFRESH_TOKEN", "刷新令牌无效", 401));
+
+        if (refreshTokenRepository.revokeIfActive(tokenHash) == 0) {
+            logger.warn("Revoked refresh token reused, revoking all tokens of userId={}", refreshToken.getUser().getId());
+            tokenVersionService.invalidateAllTokens(refreshToken.getUser().getId());
+            throw new BusinessException("INVALID_REFRESH_TOKEN", "刷新令牌已失效，请重新登录", 401);
+        }
+        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("EXPIRED_REFRESH_TOKEN", "刷新令牌已过期，请重新登录", 401);
+        }
+
+        return refreshToken;
+    }
+
+    /**
+     * 作废一个刷新令牌（退出登录）
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(TokenDigests.sha256Hex(rawToken))
+                .ifPresent(refreshToken -> refreshToken.setRevoked(true));
+    }
+
+    public long getRefreshExpirationInMs() {
+        return refreshExpirationInMs;
+    }
+
+    /**
+     * 每天清理已过期的刷新令牌
+     */
+    @Scheduled(cron = "${app.jwt.refresh.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.taskplanning.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 启动耗时指标
+ * 记录上下文刷新完成（含 Flyway 迁移和 Hibernate 初始化）与应用就绪的耗时，以及当前的表结构管理方式，
+ * 用于比较不同 ddl-auto 配置下的启动时间
+ */
+@Slf4j
+@Service
+public class StartupMetrics {
+
+    private final String ddlAuto;
+
+    private volatile Duration startedIn;
+    private volatile Duration readyIn;
+
+    public StartupMetrics(@Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto,
+                          MetricsService metricsService) {
+        this.ddlAuto = ddlAuto;
+
+        metricsService.register("app.startup", () -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("ddlAuto", ddlAuto);
+            map.put("startedMs", startedIn == null ? null : startedIn.toMillis());
+            map.put("readyMs", readyIn == null ? null : readyIn.toMillis());
+            return map;
+        });
+    }
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        startedIn = event.getTimeTaken();
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        readyIn = event.getTimeTaken();
+        log.info("启动完成: ddl-auto={}, 上下文刷新 {}ms, 就绪 {}ms",
+                ddlAuto, startedIn == null ? -1 : startedIn.toMillis(), readyIn == null ? -1 : readyIn.toMillis());
+    }
+}
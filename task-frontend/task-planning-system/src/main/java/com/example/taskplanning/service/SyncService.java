@@ -6,7 +6,9 @@ import com.example.taskplanning.entity.User;
 import com.example.taskplanning.entity.UserTaskRelation;
 import com.example.taskplanning.repository.TaskRepository;
 import com.example.taskplanning.repository.UserTaskRelationRepository;
+import com.example.taskplanning.event.TaskRelationChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.example.taskplanning.annotation.LogAction;
@@ -27,7 +29,10 @@ public class SyncService {
     private UserTaskRelationRepository userTaskRelationRepository;
 
     @Autowired
-    private UserService userService;
+    private CurrentUserResolver currentUserResolver;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * 为用户智能同步指定班级在指定时间范围内的任务
@@ -38,8 +43,8 @@ public class SyncService {
     @Transactional
     @LogAction(action = "TASK_SYNC", entityType = "CLASS")
     public SyncResultDto syncClassTasks(Long classId, String range) {
-        // 1. 获取当前登录用户
-        User currentUser = userService.getCurrentUserEntity();
+        // 1. 获取当前登录用户（只用于建立关联，使用引用代理即可）
+        User currentUser = currentUserResolver.getCurrentUserReference();
 
         // 2. 计算时间范围
         LocalDateTime startTime = calculateStartTime(range);
@@ -64,18 +69,16 @@ public class SyncService {
         if (!newTaskIdsToSync.isEmpty()) {
             List<UserTaskRelation> newRelations = new ArrayList<>();
 
-            for (Long taskId : newTaskIdsToSync) {
-                // 创建任务引用对象，JPA会处理延迟加载
-                Task taskReference = taskRepository.getReferenceById(taskId);
-
+            // 一次取回需要关联的任务（需要读取截止时间），不逐个初始化引用代理
+            for (Task task : taskRepository.findAllById(newTaskIdsToSync)) {
                 UserTaskRelation relation = new UserTaskRelation();
                 relation.setUser(currentUser);
-                relation.setTask(taskReference);
+                relation.setTask(task);
                 relation.setStatus(UserTaskRelation.TaskStatus.TODO); // 默认状态
 
                 // 🔥 关键修复：根据业务规则三，设置personal_deadline的默认值
                 // 将任务的官方deadline作为用户个人计划的初始值
-                relation.setPersonalDeadline(taskReference.getDeadline());
+                relation.setPersonalDeadline(task.getDeadline());
 
                 relation.setCreatedAt(LocalDateTime.now());
                 relation.setUpdatedAt(LocalDateTime.now());
@@ -85,6 +88,7 @@ public class SyncService {
 
             // 批量保存
             userTaskRelationRepository.saveAll(newRelations);
+            eventPublisher.publishEvent(new TaskRelationChangedEvent(currentUser.getId(), newTaskIdsToSync));
         }
 
         // 7. 构建并返回结果
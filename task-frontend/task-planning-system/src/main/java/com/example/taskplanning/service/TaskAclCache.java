@@ -0,0 +1,59 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.dto.TaskAclDto;
+import com.example.taskplanning.event.TaskChangedEvent;
+import com.example.taskplanning.repository.TaskRepository;
+import com.example.taskplanning.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 任务权限信息缓存
+ * taskId -> (任务类型, 创建者ID, 班级ID, 是否删除)，未命中时用一条主键查询加载；
+ * 任务修改或删除的事务提交后失效对应条目
+ */
+@Service
+public class TaskAclCache {
+
+    private final TaskRepository taskRepository;
+    private final BoundedCache<Long, TaskAclDto> cache;
+    private final long ttlMillis;
+
+    public TaskAclCache(TaskRepository taskRepository,
+                        @Value("${app.cache.task-acl.max-size:50000}") int maxSize,
+                        @Value("${app.cache.task-acl.ttl-ms:600000}") long ttlMillis,
+                        MetricsService metricsService) {
+        this.taskRepository = taskRepository;
+        this.cache = new BoundedCache<>(maxSize);
+        this.ttlMillis = ttlMillis;
+
+        metricsService.register("security.taskAclCache", () -> {
+            Map<String, Object> map = new LinkedHashMap<>(cache.getStats().snapshot());
+            map.put("size", cache.size());
+            return map;
+        });
+    }
+
+    /**
+     * 获取任务的权限信息，任务不存在时返回null（不存在的结果不缓存）
+     */
+    public TaskAclDto get(Long taskId) {
+        TaskAclDto acl = cache.get(taskId);
+        if (acl == null) {
+            acl = taskRepository.findAclById(taskId).orElse(null);
+            if (acl != null) {
+                cache.put(taskId, acl, System.currentTimeMillis() + ttlMillis);
+            }
+        }
+        return acl;
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        cache.invalidate(event.taskId());
+    }
+}
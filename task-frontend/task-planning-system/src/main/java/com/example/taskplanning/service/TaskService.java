@@ -2,23 +2,38 @@
 package com.example.taskplanning.service;
 
 import com.example.taskplanning.dto.CalendarTaskDto;
+import com.example.taskplanning.dto.TaskAclDto;
+import com.example.taskplanning.dto.SliceResponseDto;
 import com.example.taskplanning.dto.TaskCreateDto;
+import com.example.taskplanning.dto.TaskDetailRow;
+import com.example.taskplanning.dto.TaskPermissionDto;
 import com.example.taskplanning.dto.TaskResponseDto;
 import com.example.taskplanning.dto.TaskStatusUpdateDto;
 import com.example.taskplanning.entity.*;
 import com.example.taskplanning.exception.BusinessException;
 import com.example.taskplanning.repository.*;
+import com.example.taskplanning.event.TaskChangedEvent;
+import com.example.taskplanning.event.TaskRelationChangedEvent;
+import com.example.taskplanning.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import com.example.taskplanning.annotation.LogAction;
 
@@ -31,19 +46,34 @@ public class TaskService {
     private final UserTaskRelationRepository userTaskRelationRepository;
     private final UserClassRelationRepository userClassRelationRepository;
     private final ClassRepository classRepository;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
+    private final MembershipCache membershipCache;
+    private final TaskAclCache taskAclCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CalendarReadModelService calendarReadModelService;
+    private final ListCountCache listCountCache;
 
     @Autowired
     public TaskService(TaskRepository taskRepository,
                        UserTaskRelationRepository userTaskRelationRepository,
                        UserClassRelationRepository userClassRelationRepository,
                        ClassRepository classRepository,
-                       UserService userService) {
+                       CurrentUserResolver currentUserResolver,
+                       MembershipCache membershipCache,
+                       TaskAclCache taskAclCache,
+                       ApplicationEventPublisher eventPublisher,
+                       CalendarReadModelService calendarReadModelService,
+                       ListCountCache listCountCache) {
         this.taskRepository = taskRepository;
         this.userTaskRelationRepository = userTaskRelationRepository;
         this.userClassRelationRepository = userClassRelationRepository;
         this.classRepository = classRepository;
-        this.userService = userService;
+        this.currentUserResolver = currentUserResolver;
+        this.membershipCache = membershipCache;
+        this.taskAclCache = taskAclCache;
+        this.eventPublisher = eventPublisher;
+        this.calendarReadModelService = calendarReadModelService;
+        this.listCountCache = listCountCache;
     }
 
     /**
@@ -51,7 +81,7 @@ public class TaskService {
      */
     @LogAction(action = "TASK_CREATE_PERSONAL", entityType = "TASK")
     public TaskResponseDto createPersonalTask(TaskCreateDto createDto) {
-        User currentUser = userService.getCurrentUserEntity();
+        User currentUser = currentUserResolver.getCurrentUser();
 
         Task task = new Task();
         task.setTitle(createDto.getTitle());
@@ -63,6 +93,7 @@ public class TaskService {
         task.setClassEntity(null); // 个人任务无关联班级
 
         Task savedTask = taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.of(savedTask));
         return convertToResponseDto(savedTask, null);
     }
 
@@ -71,7 +102,7 @@ public class TaskService {
      */
     @LogAction(action = "TASK_CREATE_CLASS", entityType = "TASK")
     public TaskResponseDto createClassTask(Long classId, TaskCreateDto createDto) {
-        User currentUser = userService.getCurrentUserEntity();
+        User currentUser = currentUserResolver.getCurrentUser();
 
         // 验证班级存在
         Classes classEntity = classRepository.findById(classId)
@@ -87,6 +118,7 @@ public class TaskService {
         task.setClassEntity(classEntity);
 
         Task savedTask = taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.of(savedTask));
         return convertToResponseDto(savedTask, null);
     }
 
@@ -96,28 +128,13 @@ public class TaskService {
      */
     @Transactional(readOnly = true)
     public List<CalendarTaskDto> getCalendarTasks(int year, int month) {
-        User currentUser = userService.getCurrentUserEntity();
+        Long currentUserId = currentUserResolver.getCurrentUserId();
 
         YearMonth yearMonth = YearMonth.of(year, month);
-        LocalDateTime startDate = yearMonth.atDay(1).atStartOfDay();
-        LocalDateTime endDate = yearMonth.atEndOfMonth().atTime(23, 59, 59);
 
-        // 使用修正后的查询方法，确保只返回用户主动关联的任务
-        List<Task> tasks = taskRepository.findUserRelatedTasksInDateRange(
-                currentUser.getId(), startDate, endDate);
-
-        // 获取用户的所有任务关系，用于填充个人状态
-        Map<Long, UserTaskRelation> userRelations = userTaskRelationRepository
-                .findByUserId(currentUser.getId())
-                .stream()
-                .collect(Collectors.toMap(
-                        relation -> relation.getTask().getId(),
-                        relation -> relation
-                ));
-
-        return tasks.stream()
-                .map(task -> convertToCalendarDto(task, userRelations.get(task.getId())))
-                .collect(Collectors.toList());
+        // 从日历读模型按 (user_id, entry_day) 范围扫描，只包含用户主动关联的任务
+        return calendarReadModelService.findCalendarTasks(
+                currentUserId, yearMonth.atDay(1), yearMonth.atEndOfMonth());
     }
 
     /**
@@ -125,20 +142,43 @@ public class TaskService {
      */
     @Transactional(readOnly = true)
     public Page<TaskResponseDto> getClassTasks(Long classId, Pageable pageable) {
-        User currentUser = userService.getCurrentUserEntity();
+        Long currentUserId = currentUserResolver.getCurrentUserId();
 
-        Page<Task> tasks = taskRepository.findByClassEntityIdAndIsDeletedFalseOrderByDeadlineAsc(classId, pageable);
+        Page<Task> tasks = taskRepository.findByClassEntityIdAndIsDeletedFalseOrderByDeadlineAscIdAsc(classId, pageable);
 
-        // 获取用户的任务关系映射
-        Map<Long, UserTaskRelation> userRelations = userTaskRelationRepository
-                .findByUserId(currentUser.getId())
-                .stream()
-                .collect(Collectors.toMap(
-                        relation -> relation.getTask().getId(),
-                        relation -> relation
-                ));
+        // 只获取当前页任务对应的关系
+        Map<Long, UserTaskRelation> userRelations = findRelationsForTasks(currentUserId, tasks.getContent());
 
-        return tasks.map(task -> convertToResponseDto(task, userRelations.get(task.getId())));
+        return tasks.map(task -> convertToSummaryDto(task, userRelations.get(task.getId())));
+    }
+
+    /**
+     * 获取班级任务列表（slice模式：不执行COUNT，withTotal 为true时从计数缓存取总数）
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<TaskResponseDto> getClassTaskSlice(Long classId, Pageable pageable, boolean withTotal) {
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+
+        Slice<Task> tasks = taskRepository.findSliceByClassEntityIdAndIsDeletedFalseOrderByDeadlineAscIdAsc(classId, pageable);
+        SliceResponseDto<TaskResponseDto> slice = SliceResponseDto.of(tasks, page -> toResponseDtos(currentUserId, page));
+        if (withTotal) {
+            slice.withTotal(listCountCache.get(ListCountCache.View.CLASS_TASKS, classId,
+                    () -> taskRepository.countByClassEntityIdAndIsDeletedFalse(classId)));
+        }
+        return slice;
+    }
+
+    /**
+     * 获取班级任务列表（键集分页）
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<TaskResponseDto> getClassTaskSlice(Long classId, String cursor, int size) {
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+        return findTaskSliceByDeadline(currentUserId, cursor, size,
+                (afterId, pageable) -> taskRepository.findClassTasksWithoutDeadlineAfter(classId, afterId, pageable),
+                (afterDeadline, afterId, pageable) ->
+                        taskRepository.findClassTasksWithDeadlineAfter(classId, afterDeadline, afterId, pageable));
     }
 
     /**
@@ -146,65 +186,63 @@ public class TaskService {
      * 🔥 修复：明确区分个人任务和班级任务的处理逻辑
      */
     public TaskResponseDto updateTaskStatus(Long taskId, TaskStatusUpdateDto statusUpdateDto) {
-        User currentUser = userService.getCurrentUserEntity();
+        // 只需要建立关联，使用引用代理即可
+        User currentUser = currentUserResolver.getCurrentUserReference();
 
-        // 验证用户是否可以访问该任务
-        Task task = taskRepository.findAccessibleTaskByUserAndTaskId(currentUser.getId(), taskId);
-        if (task == null) {
+        // 验证用户是否可以访问该任务（规则见 TaskAclDto.canAccess）：只读权限信息缓存，通过后才加载任务实体
+        TaskAclDto acl = taskAclCache.get(taskId);
+        UserTaskRelation relation = userTaskRelationRepository
+                .findByUserIdAndTaskId(currentUser.getId(), taskId)
+                .orElse(null);
+        if (acl == null || !acl.canAccess(currentUser.getId(), relation != null)) {
             throw new BusinessException("TASK_NOT_ACCESSIBLE", "无权访问该任务");
         }
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new BusinessException("TASK_NOT_ACCESSIBLE", "无权访问该任务"));
 
         // 统一通过关系表管理所有任务的个人状态
         // 个人任务和班级任务都使用相同的逻辑，因为本质上都是"用户对任务的个人化设定"
-        return updateUserTaskRelation(currentUser, task, statusUpdateDto);
+        return updateUserTaskRelation(currentUser, task, relation, statusUpdateDto);
     }
     /**
      * 获取任务详情
      */
     @Transactional(readOnly = true)
     public TaskResponseDto getTaskDetail(Long taskId) {
-        User currentUser = userService.getCurrentUserEntity();
+        Long currentUserId = currentUserResolver.getCurrentUserId();
 
-        Task task = taskRepository.findById(taskId)
+        // 一条查询取回任务、创建者、班级和当前用户的任务关系
+        TaskDetailRow row = taskRepository.findDetailRow(currentUserId, taskId)
                 .orElseThrow(() -> new BusinessException("TASK_NOT_FOUND", "任务不存在"));
         // 如果任务已删除，直接返回不存在
-        if (task.isDeleted()) {
+        if (row.deleted()) {
             throw new BusinessException("TASK_NOT_FOUND", "任务不存在");
         }
 
         // 检查用户是否可以访问该任务
-        if (!canUserAccessTask(currentUser.getId(), taskId)) {
+        if (!row.isAccessibleBy(currentUserId)) {
             throw new BusinessException("TASK_NOT_ACCESSIBLE", "无权访问该任务");
         }
 
-
-        UserTaskRelation relation = userTaskRelationRepository
-                .findByUserIdAndTaskId(currentUser.getId(), taskId)
-                .orElse(null);
-
-        return convertToResponseDto(task, relation);
+        return convertToResponseDto(row);
     }
 
     /**
      * 更新或创建用户任务关系
      * 🔥 修复：确保新建关系时正确设置personal_deadline默认值
      */
-    private TaskResponseDto updateUserTaskRelation(User user, Task task, TaskStatusUpdateDto statusUpdateDto) {
-        UserTaskRelation relation = userTaskRelationRepository
-                .findByUserIdAndTaskId(user.getId(), task.getId())
-                .orElseGet(() -> {
-                    UserTaskRelation newRelation = new UserTaskRelation();
-                    newRelation.setUser(user);
-                    newRelation.setTask(task);
-
-                    // 🔥 关键修复：为新建的关系设置personal_deadline默认值
-                    // 这处理了"手动导入"任务到个人日历的场景
-                    if (newRelation.getPersonalDeadline() == null) {
-                        newRelation.setPersonalDeadline(task.getDeadline());
-                    }
-
-                    return newRelation;
-                });
+    private TaskResponseDto updateUserTaskRelation(User user, Task task, UserTaskRelation existing,
+                                                   TaskStatusUpdateDto statusUpdateDto) {
+        UserTaskRelation relation = existing;
+        if (relation == null) {
+            relation = new UserTaskRelation();
+            relation.setUser(user);
+            relation.setTask(task);
+
+            // 🔥 关键修复：为新建的关系设置personal_deadline默认值
+            // 这处理了"手动导入"任务到个人日历的场景
+            relation.setPersonalDeadline(task.getDeadline());
+        }
         // Log before update
         try { logger.info("updateUserTaskRelation before: taskId={} relationId={} personalDeadline={} status={}", task.getId(), relation.getId(), relation.getPersonalDeadline(), relation.getStatus()); } catch (Exception e) {}
 
@@ -226,6 +264,7 @@ public class TaskService {
         }
 
         UserTaskRelation savedRelation = userTaskRelationRepository.save(relation);
+        eventPublisher.publishEvent(new TaskRelationChangedEvent(user.getId(), List.of(task.getId())));
 
         // Log after save
         try { logger.info("updateUserTaskRelation after: taskId={} relationId={} personalDeadline={} status={}", task.getId(), savedRelation.getId(), savedRelation.getPersonalDeadline(), savedRelation.getStatus()); } catch (Exception e) {}
@@ -238,18 +277,75 @@ public class TaskService {
      */
     @Transactional(readOnly = true)
     public boolean canUserAccessTask(Long userId, Long taskId) {
-        Task task = taskRepository.findAccessibleTaskByUserAndTaskId(userId, taskId);
-        return task != null;
+        TaskAclDto acl = taskAclCache.get(taskId);
+        return acl != null && acl.canAccess(userId, userTaskRelationRepository.existsByUserIdAndTaskId(userId, taskId));
+    }
+
+    /**
+     * 批量计算当前用户对一组任务的访问/编辑权限
+     * 与单个任务的接口调用同一组规则（TaskAclDto.canAccess / canEdit），区别只在于事实一次查出：
+     * 班级成员关系和任务关系由同一条语句关联取回。不存在或已删除的任务返回无权限。
+     */
+    @Transactional(readOnly = true)
+    public List<TaskPermissionDto> getTaskPermissions(List<Long> taskIds) {
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+        Set<Long> distinctIds = new LinkedHashSet<>(taskIds);
+
+        Map<Long, TaskPermissionDto> result = new HashMap<>();
+        for (Object[] row : taskRepository.findPermissionRows(currentUserId, distinctIds)) {
+            Long taskId = (Long) row[0];
+            TaskAclDto acl = new TaskAclDto(taskId, (Task.TaskType) row[1], (Long) row[2], (Long) row[3], false);
+            MembershipCache.Membership membership = new MembershipCache.Membership(
+                    (UserClassRelation.RoleInClass) row[4], (UserClassRelation.JoinStatus) row[5]);
+            boolean linked = (Boolean) row[6];
+
+            result.put(taskId, new TaskPermissionDto(taskId,
+                    acl.canAccess(currentUserId, linked),
+                    acl.canEdit(currentUserId, membership::canManage)));
+        }
+
+        return distinctIds.stream()
+                .map(id -> result.getOrDefault(id, new TaskPermissionDto(id, false, false)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 查询用户与给定任务的关系，按任务ID索引
+     * 只按当前页/当前窗口的任务ID查询，不加载用户的全部历史关系
+     */
+    private Map<Long, UserTaskRelation> findRelationsForTasks(Long userId, List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> taskIds = tasks.stream().map(Task::getId).collect(Collectors.toList());
+        return userTaskRelationRepository.findByUserIdAndTaskIds(userId, taskIds)
+                .stream()
+                .collect(Collectors.toMap(
+                        relation -> relation.getTask().getId(),
+                        relation -> relation
+                ));
     }
 
     /**
-     * 转换为响应DTO
+     * 转换为响应DTO（包含描述和个人备注，用于单个任务的返回）
      */
     private TaskResponseDto convertToResponseDto(Task task, UserTaskRelation relation) {
+        TaskResponseDto dto = convertToSummaryDto(task, relation);
+        dto.setDescription(task.getDescription());
+        if (relation != null) {
+            dto.setPersonalNotes(relation.getPersonalNotes());
+        }
+        return dto;
+    }
+
+    /**
+     * 转换为列表项DTO
+     * 不读取描述和个人备注：这两个大字段是延迟加载的，列表查询不取回它们，只有任务详情接口返回
+     */
+    private TaskResponseDto convertToSummaryDto(Task task, UserTaskRelation relation) {
         TaskResponseDto dto = new TaskResponseDto();
         dto.setId(task.getId());
         dto.setTitle(task.getTitle());
-        dto.setDescription(task.getDescription());
         dto.setCourseName(task.getCourseName());
         dto.setTaskType(task.getTaskType());
         dto.setDeadline(task.getDeadline());
@@ -267,7 +363,6 @@ public class TaskService {
         if (relation != null) {
             dto.setPersonalStatus(relation.getStatus());
             dto.setPersonalDeadline(relation.getPersonalDeadline());
-            dto.setPersonalNotes(relation.getPersonalNotes());
             dto.setCompletedAt(relation.getCompletedAt());
         } else {
             dto.setPersonalStatus(UserTaskRelation.TaskStatus.TODO);
@@ -277,51 +372,120 @@ public class TaskService {
     }
 
     /**
-     * 转换为日历DTO
+     * 将任务详情投影行转换为响应DTO
      */
-    private CalendarTaskDto convertToCalendarDto(Task task, UserTaskRelation relation) {
-        CalendarTaskDto dto = new CalendarTaskDto();
-        dto.setId(task.getId());
-        dto.setTitle(task.getTitle());
-        dto.setDescription(task.getDescription()); // <-- 新增的逻辑
-        dto.setCourseName(task.getCourseName());
-        dto.setTaskType(task.getTaskType());
-        dto.setDeadline(task.getDeadline());
-        dto.setCreatedAt(task.getCreatedAt());
-
-        if (task.getClassEntity() != null) {
-            dto.setClassName(task.getClassEntity().getName());
-        }
-
-        if (relation != null) {
-            dto.setPersonalStatus(relation.getStatus());
-            dto.setPersonalDeadline(relation.getPersonalDeadline());
+    private TaskResponseDto convertToResponseDto(TaskDetailRow row) {
+        TaskResponseDto dto = new TaskResponseDto();
+        dto.setId(row.id());
+        dto.setTitle(row.title());
+        dto.setDescription(row.description());
+        dto.setCourseName(row.courseName());
+        dto.setTaskType(row.taskType());
+        dto.setDeadline(row.deadline());
+        dto.setCreatedAt(row.createdAt());
+        dto.setUpdatedAt(row.updatedAt());
+
+        dto.setCreatorId(row.creatorId());
+        dto.setCreatorName(row.creatorName());
+        dto.setClassId(row.classId());
+        dto.setClassName(row.className());
+
+        if (row.relationId() != null) {
+            dto.setPersonalStatus(row.personalStatus());
+            dto.setPersonalDeadline(row.personalDeadline());
+            dto.setPersonalNotes(row.personalNotes());
+            dto.setCompletedAt(row.completedAt());
         } else {
             dto.setPersonalStatus(UserTaskRelation.TaskStatus.TODO);
         }
 
         return dto;
     }
+
     /**
      * 获取用户的个人任务列表
      */
     @Transactional(readOnly = true)
     public Page<TaskResponseDto> getPersonalTasks(Pageable pageable) {
-        User currentUser = userService.getCurrentUserEntity();
+        Long currentUserId = currentUserResolver.getCurrentUserId();
 
-        Page<Task> tasks = taskRepository.findByCreatorIdAndTaskTypeAndIsDeletedFalseOrderByDeadlineAsc(
-                currentUser.getId(), Task.TaskType.PERSONAL, pageable);
+        Page<Task> tasks = taskRepository.findByCreatorIdAndTaskTypeAndIsDeletedFalseOrderByDeadlineAscIdAsc(
+                currentUserId, Task.TaskType.PERSONAL, pageable);
 
-        // 获取用户的任务关系映射
-        Map<Long, UserTaskRelation> userRelations = userTaskRelationRepository
-                .findByUserId(currentUser.getId())
-                .stream()
-                .collect(Collectors.toMap(
-                        relation -> relation.getTask().getId(),
-                        relation -> relation
-                ));
+        // 只获取当前页任务对应的关系
+        Map<Long, UserTaskRelation> userRelations = findRelationsForTasks(currentUserId, tasks.getContent());
 
-        return tasks.map(task -> convertToResponseDto(task, userRelations.get(task.getId())));
+        return tasks.map(task -> convertToSummaryDto(task, userRelations.get(task.getId())));
+    }
+
+    /**
+     * 获取用户的个人任务列表（slice模式：不执行COUNT，withTotal 为true时从计数缓存取总数）
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<TaskResponseDto> getPersonalTaskSlice(Pageable pageable, boolean withTotal) {
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+
+        Slice<Task> tasks = taskRepository.findSliceByCreatorIdAndTaskTypeAndIsDeletedFalseOrderByDeadlineAscIdAsc(
+                currentUserId, Task.TaskType.PERSONAL, pageable);
+        SliceResponseDto<TaskResponseDto> slice = SliceResponseDto.of(tasks, page -> toResponseDtos(currentUserId, page));
+        if (withTotal) {
+            slice.withTotal(listCountCache.get(ListCountCache.View.PERSONAL_TASKS, currentUserId,
+                    () -> taskRepository.countByCreatorIdAndTaskTypeAndIsDeletedFalse(currentUserId, Task.TaskType.PERSONAL)));
+        }
+        return slice;
+    }
+
+    /**
+     * 获取用户的个人任务列表（键集分页）
+     * @param cursor 上一页返回的 nextCursor，第一页为空
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<TaskResponseDto> getPersonalTaskSlice(String cursor, int size) {
+        Long currentUserId = currentUserResolver.getCurrentUserId();
+        return findTaskSliceByDeadline(currentUserId, cursor, size,
+                (afterId, pageable) -> taskRepository.findPersonalTasksWithoutDeadlineAfter(currentUserId, afterId, pageable),
+                (afterDeadline, afterId, pageable) ->
+                        taskRepository.findPersonalTasksWithDeadlineAfter(currentUserId, afterDeadline, afterId, pageable));
+    }
+
+    /**
+     * 按 (deadline, id) 升序做键集分页，与OFFSET分页的顺序一致（MySQL升序时NULL在前）：
+     * 先取没有截止时间的任务，不够一页再从有截止时间的任务中补齐，两段查询都只做索引范围扫描
+     */
+    private SliceResponseDto<TaskResponseDto> findTaskSliceByDeadline(Long currentUserId, String cursor, int size,
+                                                                       BiFunction<Long, Pageable, List<Task>> withoutDeadline,
+                                                                       DeadlineSeek withDeadline) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int limit = KeysetCursor.clampSize(size);
+
+        List<Task> rows = new ArrayList<>(limit + 1);
+        if (after == null || after.key() == null) {
+            rows.addAll(withoutDeadline.apply(after == null ? 0L : after.id(), PageRequest.of(0, limit + 1)));
+        }
+        if (rows.size() <= limit) {
+            LocalDateTime afterDeadline = after == null ? null : after.key();
+            Long afterId = after == null ? 0L : after.id();
+            rows.addAll(withDeadline.find(afterDeadline, afterId, PageRequest.of(0, limit + 1 - rows.size())));
+        }
+
+        return SliceResponseDto.of(rows, limit,
+                task -> new KeysetCursor(task.getDeadline(), task.getId()),
+                page -> toResponseDtos(currentUserId, page));
+    }
+
+    /**
+     * 转换一页任务，当前用户的任务关系一次查出
+     */
+    private List<TaskResponseDto> toResponseDtos(Long currentUserId, List<Task> tasks) {
+        Map<Long, UserTaskRelation> userRelations = findRelationsForTasks(currentUserId, tasks);
+        return tasks.stream()
+                .map(task -> convertToSummaryDto(task, userRelations.get(task.getId())))
+                .collect(Collectors.toList());
+    }
+
+    @FunctionalInterface
+    private interface DeadlineSeek {
+        List<Task> find(LocalDateTime afterDeadline, Long afterId, Pageable pageable);
     }
 
     /**
@@ -329,34 +493,20 @@ public class TaskService {
      * 🔥 修复：完善班级任务的删除权限校验逻辑
      */
     public void deleteTask(Long taskId) {
-        User currentUser = userService.getCurrentUserEntity();
+        Long currentUserId = currentUserResolver.getCurrentUserId();
 
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new BusinessException("TASK_NOT_FOUND", "任务不存在"));
-
-        // 🔥 关键修复：根据业务规则二，完善删除权限校验
-        boolean hasPermission = false;
-
-        if (task.getTaskType() == Task.TaskType.PERSONAL) {
-            // 个人任务：仅创建者可删除
-            hasPermission = task.getCreator().getId().equals(currentUser.getId());
-        } else if (task.getTaskType() == Task.TaskType.CLASS) {
-            // 班级任务：创建者或该班级的ADMIN/OWNER可删除
-            if (task.getCreator().getId().equals(currentUser.getId())) {
-                hasPermission = true;
-            } else {
-                // 检查是否为班级管理员
-                Long classId = task.getClassEntity().getId();
-                hasPermission = userClassRelationRepository.hasAdminPermission(currentUser.getId(), classId);
-            }
-        }
+        TaskAclDto acl = findActiveAcl(taskId);
 
-        if (!hasPermission) {
+        // 个人任务仅创建者可删除；班级任务为创建者或该班级的ADMIN/OWNER（规则见 TaskAclDto.canEdit）
+        if (!canEdit(currentUserId, acl)) {
             throw new BusinessException("TASK_DELETE_FORBIDDEN", "无权删除该任务");
         }
 
-        task.setDeleted(true);
-        taskRepository.save(task);
+        // 软删除只改一个标记，直接更新，不加载任务实体
+        if (taskRepository.markDeleted(taskId, LocalDateTime.now()) == 0) {
+            throw new BusinessException("TASK_NOT_FOUND", "任务不存在");
+        }
+        eventPublisher.publishEvent(new TaskChangedEvent(taskId, acl.creatorId(), acl.classId()));
     }
 
     /**
@@ -364,32 +514,17 @@ public class TaskService {
      * 🔥 修复：完善班级任务的权限校验逻辑
      */
     public TaskResponseDto updateTask(Long taskId, TaskCreateDto updateDto) {
-        User currentUser = userService.getCurrentUserEntity();
-
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new BusinessException("TASK_NOT_FOUND", "任务不存在"));
-
-        // 🔥 关键修复：根据业务规则二，完善权限校验
-        boolean hasPermission = false;
-
-        if (task.getTaskType() == Task.TaskType.PERSONAL) {
-            // 个人任务：仅创建者可修改
-            hasPermission = task.getCreator().getId().equals(currentUser.getId());
-        } else if (task.getTaskType() == Task.TaskType.CLASS) {
-            // 班级任务：创建者或该班级的ADMIN/OWNER可修改
-            if (task.getCreator().getId().equals(currentUser.getId())) {
-                hasPermission = true;
-            } else {
-                // 检查是否为班级管理员
-                Long classId = task.getClassEntity().getId();
-                hasPermission = userClassRelationRepository.hasAdminPermission(currentUser.getId(), classId);
-            }
-        }
+        Long currentUserId = currentUserResolver.getCurrentUserId();
 
-        if (!hasPermission) {
+        // 个人任务仅创建者可修改；班级任务为创建者或该班级的ADMIN/OWNER（规则见 TaskAclDto.canEdit）
+        // 权限检查只读权限信息缓存，通过后才加载任务实体
+        if (!canEdit(currentUserId, findActiveAcl(taskId))) {
             throw new BusinessException("TASK_UPDATE_FORBIDDEN", "无权修改该任务");
         }
 
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new BusinessException("TASK_NOT_FOUND", "任务不存在"));
+
         // 执行更新
         task.setTitle(updateDto.getTitle());
         task.setDescription(updateDto.getDescription());
@@ -397,12 +532,31 @@ public class TaskService {
         task.setDeadline(updateDto.getDeadline());
 
         Task savedTask = taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.of(task));
 
         UserTaskRelation relation = userTaskRelationRepository
-                .findByUserIdAndTaskId(currentUser.getId(), taskId)
+                .findByUserIdAndTaskId(currentUserId, taskId)
                 .orElse(null);
 
         return convertToResponseDto(savedTask, relation);
     }
 
+    /**
+     * 从权限信息缓存读取未删除任务的权限信息，不存在或已删除时视为任务不存在
+     */
+    private TaskAclDto findActiveAcl(Long taskId) {
+        TaskAclDto acl = taskAclCache.get(taskId);
+        if (acl == null || acl.deleted()) {
+            throw new BusinessException("TASK_NOT_FOUND", "任务不存在");
+        }
+        return acl;
+    }
+
+    /**
+     * 修改/删除权限，班级管理权限走成员关系缓存
+     */
+    private boolean canEdit(Long userId, TaskAclDto acl) {
+        return acl.canEdit(userId, () -> membershipCache.canManage(userId, acl.classId()));
+    }
+
 }
@@ -0,0 +1,162 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.entity.RevokedToken;
+import com.example.taskplanning.event.TokenRevokedEvent;
+import com.example.taskplanning.repository.RevokedTokenRepository;
+import com.example.taskplanning.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问令牌吊销表
+ * 内存中维护 布隆过滤器 + 精确集合，启动时从revoked_tokens表重建。
+ * 过滤器在每个请求上调用isRevoked，绝大多数令牌在布隆过滤器这一步即可判定为未吊销，不访问数据库。
+ * 本实例的吊销在事务提交后写入内存；其他实例的吊销由定时同步读入，
+ * 多实例部署时被吊销的令牌在其他实例上最多还能使用 app.jwt.revocation.sync-interval-ms（默认60秒），远小于访问令牌有效期（15分钟）。
+ * 同步只读取未过期的吊销记录（expires_at 索引范围扫描），数量不超过一个访问令牌有效期内的退出登录次数。
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final int MIN_BLOOM_CAPACITY = 10_000;
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.001;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // jti -> 令牌过期时间
+    private final Map<String, LocalDateTime> revokedJtis = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter = new BloomFilter(MIN_BLOOM_CAPACITY, BLOOM_FALSE_POSITIVE_RATE);
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder bloomPositives = new LongAdder();
+    private final LongAdder revokedHits = new LongAdder();
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, MetricsService metricsService,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.eventPublisher = eventPublisher;
+        metricsService.register("auth.tokenRevocation", () -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("revokedTokens", revokedJtis.size());
+            map.put("checks", checks.sum());
+            map.put("bloomPositives", bloomPositives.sum());
+            map.put("revokedHits", revokedHits.sum());
+            return map;
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * 判断令牌是否已被吊销（纯内存操作）
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        checks.increment();
+        if (!bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        bloomPositives.increment();
+        boolean revoked = revokedJtis.containsKey(jti);
+        if (revoked) {
+            revokedHits.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * 吊销一个访问令牌
+     * 加入调用方的事务；内存吊销表在事务提交后才更新
+     * @param jti 令牌ID
+     * @param expiration 令牌原本的过期时间
+     */
+    @Transactional
+    public void revoke(String jti, Date expiration) {
+        if (jti == null || revokedJtis.containsKey(jti)) {
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault());
+        if (!revokedTokenRepository.existsByJti(jti)) {
+            RevokedToken revokedToken = new RevokedToken();
+            revokedToken.setJti(jti);
+            revokedToken.setExpiresAt(expiresAt);
+            revokedTokenRepository.save(revokedToken);
+        }
+        eventPublisher.publishEvent(new TokenRevokedEvent(jti, expiresAt));
+    }
+
+    @TransactionalEventListener
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        add(event.jti(), event.expiresAt());
+    }
+
+    /**
+     * 定时读入其他实例写入的吊销记录（只增不删，删除和过滤器重建仍由 purgeExpired 负责）
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-ms:60000}",
+            initialDelayString = "${app.jwt.revocation.sync-interval-ms:60000}")
+    public void sync() {
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            if (!revokedJtis.containsKey(token.getJti())) {
+                add(token.getJti(), token.getExpiresAt());
+            }
+        }
+    }
+
+    private void add(String jti, LocalDateTime expiresAt) {
+        revokedJtis.put(jti, expiresAt);
+        bloomFilter.put(jti);
+    }
+
+    /**
+     * 每小时清理已自然过期的吊销记录，并重建布隆过滤器（布隆过滤器不支持删除）
+     */
+    @Scheduled(cron = "${app.jwt.revocation.purge-cron:0 0 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Purged {} expired revoked-token records", deleted);
+        }
+        rebuild();
+    }
+
+    private void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revokedJtis.put(token.getJti(), token.getExpiresAt());
+        }
+        revokedJtis.entrySet().removeIf(entry -> entry.getValue().isBefore(now));
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_BLOOM_CAPACITY, revokedJtis.size() * 2), BLOOM_FALSE_POSITIVE_RATE);
+        revokedJtis.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        // 重建期间新吊销的令牌可能只写入了旧过滤器，替换后再补写一次
+        revokedJtis.keySet().forEach(rebuilt::put);
+        logger.info("Token revocation filter rebuilt with {} entries", revokedJtis.size());
+    }
+}
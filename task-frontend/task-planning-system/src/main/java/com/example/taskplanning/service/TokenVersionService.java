@@ -0,0 +1,96 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.event.TokenVersionChangedEvent;
+import com.example.taskplanning.repository.RefreshTokenRepository;
+import com.example.taskplanning.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token版本表
+ * JWT中携带签发时的版本号，过滤器与内存中的版本表比对，不一致即拒绝。
+ * 只有版本号被递增过的用户才会出现在表中，因此表很小，校验不需要访问数据库。
+ * 版本号以 users.token_version 为准：本实例的递增在事务提交后写入内存；
+ * 其他实例的递增由定时重新加载同步，多实例部署时旧Token最多还能使用 app.jwt.token-version.reload-interval-ms（默认30秒）。
+ */
+@Service
+public class TokenVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionService.class);
+
+    private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // userId -> 当前有效的Token版本号（缺省为0）
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenVersionService(UserRepository userRepository, RefreshTokenRepository refreshTokenRepository,
+                               ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void load() {
+        reload();
+        logger.info("Loaded {} token version entries", versions.size());
+    }
+
+    /**
+     * 定时从数据库重新加载版本表，同步其他实例上的递增
+     * 版本号只增不减，合并时取较大值，不会覆盖本实例刚提交的递增
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.token-version.reload-interval-ms:30000}",
+            initialDelayString = "${app.jwt.token-version.reload-interval-ms:30000}")
+    public void reload() {
+        List<Object[]> rows = userRepository.findNonDefaultTokenVersions();
+        for (Object[] row : rows) {
+            versions.merge((Long) row[0], (Integer) row[1], Math::max);
+        }
+    }
+
+    /**
+     * 获取用户当前的Token版本号
+     */
+    public int currentVersion(Long userId) {
+        return versions.getOrDefault(userId, 0);
+    }
+
+    /**
+     * 判断Token中携带的版本号是否仍然有效
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return currentVersion(userId) == tokenVersion;
+    }
+
+    /**
+     * 使用户此前签发的所有Token失效（修改密码、刷新令牌被重放等场景），同时作废其刷新令牌
+     * 加入调用方的事务；内存中的版本表在事务提交后才更新，回滚时旧Token仍然有效
+     */
+    @Transactional
+    public void invalidateAllTokens(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        refreshTokenRepository.revokeAllByUserId(userId);
+        int newVersion = userRepository.findTokenVersionById(userId).orElse(0);
+        eventPublisher.publishEvent(new TokenVersionChangedEvent(userId, newVersion));
+    }
+
+    @TransactionalEventListener
+    public void onTokenVersionChanged(TokenVersionChangedEvent event) {
+        versions.merge(event.userId(), event.version(), Math::max);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.dto.AvailabilityResponseDto;
+import com.example.taskplanning.event.UserRegisteredEvent;
+import com.example.taskplanning.repository.UserRepository;
+import com.example.taskplanning.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户名/邮箱可用性检查
+ * 启动时把已有的用户名和邮箱装入布隆过滤器，注册事务提交后增量加入；
+ * 过滤器判定"一定不存在"时直接返回可用，只有可能存在时才查询数据库确认。
+ * 这里只是注册表单的实时提示，注册本身以数据库唯一约束为准。
+ */
+@Service
+public class UserAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserAvailabilityService.class);
+
+    private final UserRepository userRepository;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder databaseChecks = new LongAdder();
+
+    public UserAvailabilityService(UserRepository userRepository,
+                                   @Value("${app.availability.expected-users:1000000}") int expectedUsers,
+                                   @Value("${app.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                   MetricsService metricsService) {
+        this.userRepository = userRepository;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+
+        metricsService.register("auth.availabilityBloom", () -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("checks", checks.sum());
+            map.put("databaseChecks", databaseChecks.sum());
+            return map;
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        userRepository.findAllUsernamesAndEmails().forEach(row -> {
+            usernames.put(normalize((String) row[0]));
+            emails.put(normalize((String) row[1]));
+        });
+        logger.info("Loaded username/email availability filters");
+    }
+
+    /**
+     * 检查用户名和邮箱是否可用，参数为空的一项不检查
+     */
+    public AvailabilityResponseDto check(String username, String email) {
+        Boolean usernameAvailable = null;
+        Boolean emailAvailable = null;
+        if (StringUtils.hasText(username)) {
+            checks.increment();
+            usernameAvailable = !usernames.mightContain(normalize(username)) || !confirm(userRepository.existsByUsername(username.trim()));
+        }
+        if (StringUtils.hasText(email)) {
+            checks.increment();
+            emailAvailable = !emails.mightContain(normalize(email)) || !confirm(userRepository.existsByEmail(email.trim()));
+        }
+        return new AvailabilityResponseDto(usernameAvailable, emailAvailable);
+    }
+
+    /**
+     * 注册事务提交后加入过滤器
+     */
+    @TransactionalEventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        usernames.put(normalize(event.username()));
+        emails.put(normalize(event.email()));
+    }
+
+    private boolean confirm(boolean exists) {
+        databaseChecks.increment();
+        return exists;
+    }
+
+    // MySQL默认排序规则不区分大小写，过滤器按小写存放以免漏判
+    private String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
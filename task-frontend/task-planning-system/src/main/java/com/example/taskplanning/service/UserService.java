@@ -4,12 +4,17 @@ package com.example.taskplanning.service;
 import com.example.taskplanning.JwtTokenProvider;
 import com.example.taskplanning.config.CustomUserDetails;
 import com.example.taskplanning.dto.*;
+import com.example.taskplanning.entity.RefreshToken;
 import com.example.taskplanning.entity.User;
 import com.example.taskplanning.exception.BusinessException;
 import com.example.taskplanning.repository.UserRepository;
+import com.example.taskplanning.event.UserRegisteredEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.security.authentication.AuthenticationManager;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -19,10 +24,13 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.transaction.annotation.Transactional;
 import com.example.taskplanning.annotation.LogAction;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @Service
 public class UserService implements UserDetailsService { // <-- 1. 实现 UserDetailsService 接口
@@ -30,20 +38,48 @@ public class UserService implements UserDetailsService { // <-- 1. 实现 UserDe
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordVerificationService passwordVerificationService;
     private final EmailService emailService;
+    private final CurrentUserResolver currentUserResolver;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final VerificationTokenService verificationTokenService;
+    private final UserAvailabilityService userAvailabilityService;
+    private final TokenVersionService tokenVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    // 拥有系统管理权限（ADMIN，如查看运行时指标）的用户名
+    private final Set<String> adminUsernames;
 
     // 使用构造函数注入，这是Spring推荐的最佳实践
     @Autowired
     public UserService(UserRepository userRepository,
                        @Lazy PasswordEncoder passwordEncoder, // 使用@Lazy解决潜在的循环依赖
                        JwtTokenProvider jwtTokenProvider,
-                       @Lazy AuthenticationManager authenticationManager, EmailService emailService) {
+                       PasswordVerificationService passwordVerificationService, EmailService emailService,
+                       CurrentUserResolver currentUserResolver,
+                       RefreshTokenService refreshTokenService,
+                       TokenRevocationService tokenRevocationService,
+                       LastLoginRecorder lastLoginRecorder,
+                       VerificationTokenService verificationTokenService,
+                       UserAvailabilityService userAvailabilityService,
+                       TokenVersionService tokenVersionService,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${app.security.admin-usernames:}") Set<String> adminUsernames) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
-        this.authenticationManager = authenticationManager;
+        this.passwordVerificationService = passwordVerificationService;
         this.emailService = emailService;
+        this.currentUserResolver = currentUserResolver;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.lastLoginRecorder = lastLoginRecorder;
+        this.verificationTokenService = verificationTokenService;
+        this.userAvailabilityService = userAvailabilityService;
+        this.tokenVersionService = tokenVersionService;
+        this.eventPublisher = eventPublisher;
+        this.adminUsernames = adminUsernames;
     }
 
     /**
@@ -56,12 +92,23 @@ public class UserService implements UserDetailsService { // <-- 1. 实现 UserDe
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
+        return toUserDetails(user);
+    }
+
+    /**
+     * 将User实体转换为Spring Security使用的CustomUserDetails
+     * 配置在 app.security.admin-usernames 中的用户额外获得 ADMIN 权限（写入访问令牌，重新登录或刷新后生效）
+     */
+    private CustomUserDetails toUserDetails(User user) {
+        List<SimpleGrantedAuthority> authorities = adminUsernames.contains(user.getUsername())
+                ? List.of(new SimpleGrantedAuthority("USER"), new SimpleGrantedAuthority("ADMIN"))
+                : List.of(new SimpleGrantedAuthority("USER")); // 基础权限
         // 返回自定义的CustomUserDetails对象，包含用户ID
         return new CustomUserDetails(
                 user.getId(),           // 用户ID - 供@PreAuthorize使用
                 user.getUsername(),     // 用户名
                 user.getPassword(),     // 密码
-                Collections.singletonList(new SimpleGrantedAuthority("USER")) // 基础权限
+                authorities
         );
     }
 
@@ -71,13 +118,7 @@ public class UserService implements UserDetailsService { // <-- 1. 实现 UserDe
     @Transactional
     @LogAction(action = "USER_REGISTER", entityType = "USER")
     public UserResponseDto registerUser(UserRegistrationDto registrationDto) {
-        if (userRepository.existsByUsername(registrationDto.getUsername())) {
-            throw new BusinessException("USERNAME_EXISTS", "用户名已存在");
-        }
-        if (userRepository.existsByEmail(registrationDto.getEmail())) {
-            throw new BusinessException("EMAIL_EXISTS", "邮箱已被注册");
-        }
-
+        // 不再预先查询用户名/邮箱是否存在，由数据库唯一约束保证，冲突时转换为业务异常
         User user = new User();
         user.setUsername(registrationDto.getUsername());
         user.setEmail(registrationDto.getEmail());
@@ -87,28 +128,63 @@ public class UserService implements UserDetailsService { // <-- 1. 实现 UserDe
 
         // --- 新增逻辑 ---
         user.setEmailVerified(false); // 默认未验证
-        String token = java.util.UUID.randomUUID().toString();
-        user.setVerificationToken(token);
-        user.setVerificationTokenExpiry(LocalDateTime.now().plusHours(24)); // 24小时后过期
         // --- 结束 ---
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateUser(e, registrationDto);
+        }
+        eventPublisher.publishEvent(new UserRegisteredEvent(savedUser.getId(), savedUser.getUsername(), savedUser.getEmail()));
+        String token = verificationTokenService.issue(savedUser); // 24小时后过期
 
         // --- 新增逻辑：发送验证邮件 ---
-        emailService.sendVerificationEmail(savedUser.getEmail(), savedUser.getVerificationToken());
+        emailService.sendVerificationEmail(savedUser.getEmail(), token);
         // --- 结束 ---
 
         return convertToResponseDto(savedUser);
     }
 
+    /**
+     * 将注册时的唯一约束冲突转换为USERNAME_EXISTS / EMAIL_EXISTS
+     * 优先按约束名判断；旧库中未命名的唯一索引则按MySQL报错中的重复值判断
+     */
+    private RuntimeException translateDuplicateUser(DataIntegrityViolationException e, UserRegistrationDto registrationDto) {
+        Throwable root = e.getMostSpecificCause();
+        String message = root.getMessage() != null ? root.getMessage() : "";
+        String lower = message.toLowerCase(Locale.ROOT);
+
+        if (lower.contains(User.UK_USERNAME)) {
+            return new BusinessException("USERNAME_EXISTS", "用户名已存在");
+        }
+        if (lower.contains(User.UK_EMAIL)) {
+            return new BusinessException("EMAIL_EXISTS", "邮箱已被注册");
+        }
+        if (lower.contains("duplicate entry '" + registrationDto.getUsername().toLowerCase(Locale.ROOT) + "'")) {
+            return new BusinessException("USERNAME_EXISTS", "用户名已存在");
+        }
+        if (lower.contains("duplicate entry '" + registrationDto.getEmail().toLowerCase(Locale.ROOT) + "'")) {
+            return new BusinessException("EMAIL_EXISTS", "邮箱已被注册");
+        }
+        return e;
+    }
+
+    /**
+     * 检查用户名/邮箱是否可用（注册表单实时校验）
+     */
+    public AvailabilityResponseDto checkAvailability(String username, String email) {
+        return userAvailabilityService.check(username, email);
+    }
+
     /**
      * 用户登录
+     * 不在事务中执行：等待密码校验期间请求线程不持有数据库连接，只有签发刷新令牌一步单独开启事务
      */
-    @Transactional
     @LogAction(action = "USER_LOGIN", entityType = "USER")
     public LoginResponseDto loginUser(LoginRequestDto loginRequest) {
-        // 1. 使用AuthenticationManager进行认证
-        Authentication authentication = authenticationManager.authenticate(
+        // 1. 在密码校验线程池中进行认证（BCrypt比对不占用请求线程的CPU时间片）
+        Authentication authentication = passwordVerificationService.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginRequest.getUsername(),
                         loginRequest.getPassword()
@@ -121,12 +197,48 @@ public class UserService implements UserDetailsService { // <-- 1. 实现 UserDe
         // 3. 生成JWT Token
         String token = jwtTokenProvider.generateToken(authentication);
 
-        // 4. 更新最后登录时间
-        User user = userRepository.findByUsername(loginRequest.getUsername()).get();
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        // 4. 记录最后登录时间（延迟批量写入，不在登录路径上锁users行）
+        Long userId = ((CustomUserDetails) authentication.getPrincipal()).getId();
+        lastLoginRecorder.record(userId, LocalDateTime.now());
+
+        // 5. 签发刷新令牌（访问令牌有效期较短，过期后用刷新令牌换取新令牌）
+        String refreshToken = refreshTokenService.issue(userId);
+
+        return new LoginResponseDto(token, "Bearer", jwtTokenProvider.getJwtExpirationInMs(),
+                refreshToken, refreshTokenService.getRefreshExpirationInMs());
+    }
+
+    /**
+     * 使用刷新令牌换取新的访问令牌（刷新令牌同时轮换）
+     */
+    @Transactional(noRollbackFor = BusinessException.class)
+    public LoginResponseDto refreshAccessToken(RefreshTokenRequestDto requestDto) {
+        RefreshToken consumed = refreshTokenService.consume(requestDto.getRefreshToken());
+        User user = consumed.getUser();
 
-        return new LoginResponseDto(token, "Bearer", jwtTokenProvider.getJwtExpirationInMs());
+        String token = jwtTokenProvider.generateToken(toUserDetails(user));
+        String refreshToken = refreshTokenService.issue(user);
+
+        return new LoginResponseDto(token, "Bearer", jwtTokenProvider.getJwtExpirationInMs(),
+                refreshToken, refreshTokenService.getRefreshExpirationInMs());
+    }
+
+    /**
+     * 退出登录：吊销当前访问令牌，并作废刷新令牌
+     * @param accessToken 当前请求携带的访问令牌，可为null
+     * @param refreshToken 客户端持有的刷新令牌，可为null
+     */
+    @Transactional
+    public void logout(String accessToken, String refreshToken) {
+        if (StringUtils.hasText(accessToken)) {
+            Claims claims = jwtTokenProvider.resolveClaims(accessToken);
+            if (claims != null && claims.getExpiration() != null) {
+                tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+            }
+        }
+        if (StringUtils.hasText(refreshToken)) {
+            refreshTokenService.revoke(refreshToken);
+        }
     }
     /**
      * 验证用户邮箱
@@ -134,19 +246,11 @@ public class UserService implements UserDetailsService { // <-- 1. 实现 UserDe
      */
     @Transactional
     public void verifyEmail(String token) {
-        // 1. 根据令牌查找用户
-        User user = userRepository.findByVerificationToken(token)
-                .orElseThrow(() -> new BusinessException("INVALID_TOKEN", "无效的验证链接", 400));
+        // 1. 按令牌摘要查找（唯一索引），校验是否过期，通过后删除令牌
+        User user = verificationTokenService.consume(token);
 
-        // 2. 检查令牌是否已过期
-        if (user.getVerificationTokenExpiry().isBefore(LocalDateTime.now())) {
-            throw new BusinessException("EXPIRED_TOKEN", "验证链接已过期，请重新申请", 400);
-        }
-
-        // 3. 更新用户状态
+        // 2. 更新用户状态
         user.setEmailVerified(true);
-        user.setVerificationToken(null); // 清除令牌
-        user.setVerificationTokenExpiry(null); // 清除过期时间
 
         userRepository.save(user);
     }
@@ -165,26 +269,39 @@ public class UserService implements UserDetailsService { // <-- 1. 实现 UserDe
             throw new BusinessException("ALREADY_VERIFIED", "该邮箱已经验证，请直接登录", 400);
         }
 
-        // 3. 生成新的令牌和过期时间
-        String token = java.util.UUID.randomUUID().toString();
-        user.setVerificationToken(token);
-        user.setVerificationTokenExpiry(java.time.LocalDateTime.now().plusHours(24));
-
-        // 4. 保存更新后的用户信息
-        userRepository.save(user);
+        // 3. 生成新的令牌（旧令牌同时作废）
+        String token = verificationTokenService.issue(user);
 
-        // 5. 异步发送新的验证邮件
+        // 4. 异步发送新的验证邮件
         emailService.sendVerificationEmail(user.getEmail(), token);
     }
 
+    /**
+     * 修改当前用户的密码
+     * 修改成功后此前签发的访问令牌和刷新令牌全部失效（事务提交后生效），客户端需要重新登录
+     * @param requestDto 包含当前密码和新密码的请求DTO
+     */
+    @Transactional
+    @LogAction(action = "USER_CHANGE_PASSWORD", entityType = "USER")
+    public void changePassword(PasswordChangeDto requestDto) {
+        User user = currentUserResolver.getCurrentUser();
+
+        if (!passwordEncoder.matches(requestDto.getCurrentPassword(), user.getPassword())) {
+            throw new BusinessException("INVALID_PASSWORD", "当前密码不正确", 400);
+        }
+
+        user.setPassword(passwordEncoder.encode(requestDto.getNewPassword()));
+        userRepository.save(user);
+
+        tokenVersionService.invalidateAllTokens(user.getId());
+    }
 
     /**
      * 获取当前已认证用户的 User 实体对象 (供内部Service调用)
+     * 同一请求内只查询一次；只需要ID或外键引用时请直接使用CurrentUserResolver
      */
     public User getCurrentUserEntity() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Authenticated user not found in database: " + username));
+        return currentUserResolver.getCurrentUser();
     }
 
     /**
@@ -0,0 +1,99 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.entity.User;
+import com.example.taskplanning.entity.VerificationToken;
+import com.example.taskplanning.exception.BusinessException;
+import com.example.taskplanning.repository.VerificationTokenRepository;
+import com.example.taskplanning.util.TokenDigests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 邮箱验证令牌管理
+ * 令牌原文只出现在验证邮件中，数据库保存其摘要；每个用户同一时间只有一个有效令牌
+ */
+@Service
+public class VerificationTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final VerificationTokenRepository verificationTokenRepository;
+
+    @Value("${app.verification.token-validity-hours:24}")
+    private long validityHours;
+
+    @Value("${app.verification.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Autowired
+    public VerificationTokenService(VerificationTokenRepository verificationTokenRepository) {
+        this.verificationTokenRepository = verificationTokenRepository;
+    }
+
+    /**
+     * 为用户签发新的验证令牌，旧令牌同时作废
+     * @return 令牌原文（用于拼接验证链接）
+     */
+    @Transactional
+    public String issue(User user) {
+        if (user.getId() != null) {
+            verificationTokenRepository.deleteByUserId(user.getId());
+        }
+
+        String rawToken = TokenDigests.randomToken(TOKEN_BYTES);
+
+        VerificationToken verificationToken = new VerificationToken();
+        verificationToken.setUser(user);
+        verificationToken.setTokenHash(TokenDigests.sha256Hex(rawToken));
+        verificationToken.setExpiresAt(LocalDateTime.now().plusHours(validityHours));
+        verificationTokenRepository.save(verificationToken);
+
+        return rawToken;
+    }
+
+    /**
+     * 校验并使用验证令牌，成功后删除该用户的验证令牌
+     * @return 令牌所属用户
+     */
+    @Transactional
+    public User consume(String rawToken) {
+        VerificationToken verificationToken = verificationTokenRepository
+                .findByTokenHashWithUser(TokenDigests.sha256Hex(rawToken))
+                .orElseThrow(() -> new BusinessException("INVALID_TOKEN", "无效的验证链接", 400));
+
+        if (verificationToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("EXPIRED_TOKEN", "验证链接已过期，请重新申请", 400);
+        }
+
+        User user = verificationToken.getUser();
+        verificationTokenRepository.deleteByUserId(user.getId());
+        return user;
+    }
+
+    /**
+     * 定时分批清理过期的验证令牌，每批一个短事务，避免长时间锁表
+     */
+    @Scheduled(cron = "${app.verification.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = verificationTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted >= purgeBatchSize);
+
+        if (total > 0) {
+            logger.info("Purged {} expired verification tokens", total);
+        }
+    }
+}
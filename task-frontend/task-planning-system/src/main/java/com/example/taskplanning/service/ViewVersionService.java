@@ -0,0 +1,146 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.event.TaskChangedEvent;
+import com.example.taskplanning.event.TaskRelationChangedEvent;
+import com.example.taskplanning.repository.UserTaskRelationRepository;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 视图版本号
+ * 为每个用户和每个班级维护单调递增的版本号，影响日历、个人任务列表、班级任务列表的写操作提交后递增；
+ * 控制器据此生成强ETag，客户端带 If-None-Match 且版本未变时直接返回304，不执行列表和日历查询。
+ * 版本号保存在 view_versions 表中，取ETag只是一次主键点查，所有实例看到同一个版本号，不会因为请求落到
+ * 没见过这次修改的实例而返回错误的304。
+ * 同时记录每个用户视图最后一次变化的时间，供只支持 If-Modified-Since 的客户端（如日历订阅）使用。
+ */
+@Service
+public class ViewVersionService {
+
+    // 在日历读模型等监听器之后执行，保证版本号变化时新数据已可读
+    public static final int LISTENER_ORDER = 100;
+
+    private static final String SCOPE_USER = "USER";
+    private static final String SCOPE_CLASS = "CLASS";
+
+    private static final String BUMP_SQL = "INSERT INTO view_versions (scope, scope_id, version, modified_at) "
+            + "VALUES (?, ?, 1, ?) ON DUPLICATE KEY UPDATE version = version + 1, modified_at = VALUES(modified_at)";
+    private static final String VERSION_SQL = "SELECT version FROM view_versions WHERE scope = ? AND scope_id = ?";
+    private static final String MODIFIED_AT_SQL = "SELECT modified_at FROM view_versions WHERE scope = ? AND scope_id = ?";
+
+    private final UserTaskRelationRepository userTaskRelationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate outsideTransaction;
+    private final long startedAtMillis = System.currentTimeMillis();
+
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder modified = new LongAdder();
+
+    public ViewVersionService(UserTaskRelationRepository userTaskRelationRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MetricsService metricsService) {
+        this.userTaskRelationRepository = userTaskRelationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // 事务提交后的监听器里，原事务的连接仍然绑定在线程上；挂起它，每条递增语句单独自动提交，只锁一行
+        this.outsideTransaction = new TransactionTemplate(transactionManager);
+        this.outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+
+        metricsService.register("http.conditionalGet", () -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("notModified", notModified.sum());
+            map.put("modified", modified.sum());
+            return map;
+        });
+    }
+
+    /**
+     * 用户日历 / 个人任务列表的ETag
+     */
+    public String userEtag(String view, Long userId) {
+        return "\"" + view + "-u" + userId + "." + version(SCOPE_USER, userId) + "\"";
+    }
+
+    /**
+     * 班级任务列表的ETag：列表中带有当前用户的个人状态，所以同时包含班级和用户的版本号
+     */
+    public String classEtag(String view, Long classId, Long userId) {
+        return "\"" + view + "-c" + classId + "." + version(SCOPE_CLASS, classId)
+                + "-u" + userId + "." + version(SCOPE_USER, userId) + "\"";
+    }
+
+    /**
+     * 用户视图最后一次变化的时间（epoch毫秒）
+     * 没有记录的用户自建表以来视图未变化过，返回本实例启动时间（晚于建表时间，不会早于真实的最后修改时间）
+     */
+    public long userLastModified(Long userId) {
+        List<Timestamp> rows = jdbcTemplate.queryForList(MODIFIED_AT_SQL, Timestamp.class, SCOPE_USER, userId);
+        return rows.isEmpty() ? startedAtMillis : rows.get(0).getTime();
+    }
+
+    /**
+     * 记录一次条件请求的结果
+     */
+    public void recordConditionalGet(boolean wasNotModified) {
+        (wasNotModified ? notModified : modified).increment();
+    }
+
+    public void bumpUser(Long userId) {
+        bump(SCOPE_USER, List.of(userId));
+    }
+
+    public void bumpClass(Long classId) {
+        bump(SCOPE_CLASS, List.of(classId));
+    }
+
+    /**
+     * 任务变更：创建者、所属班级以及所有关联了该任务的用户的视图都会变化
+     */
+    @TransactionalEventListener
+    @Order(LISTENER_ORDER)
+    public void onTaskChanged(TaskChangedEvent event) {
+        TreeSet<Long> userIds = new TreeSet<>();
+        userIds.add(event.creatorId());
+        if (event.classId() != null) {
+            bumpClass(event.classId());
+            userIds.addAll(userTaskRelationRepository.findUserIdsByTaskId(event.taskId()));
+        }
+        bump(SCOPE_USER, userIds);
+    }
+
+    /**
+     * 个人状态变更或同步导入：只影响该用户的视图
+     */
+    @TransactionalEventListener
+    @Order(LISTENER_ORDER)
+    public void onTaskRelationChanged(TaskRelationChangedEvent event) {
+        bumpUser(event.userId());
+    }
+
+    private void bump(String scope, Iterable<Long> ids) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> args = new ArrayList<>();
+        for (Long id : ids) {
+            args.add(new Object[]{scope, id, now});
+        }
+        outsideTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(BUMP_SQL, args));
+    }
+
+    private long version(String scope, Long id) {
+        List<Long> rows = jdbcTemplate.queryForList(VERSION_SQL, Long.class, scope, id);
+        return rows.isEmpty() ? 0L : rows.get(0);
+    }
+}
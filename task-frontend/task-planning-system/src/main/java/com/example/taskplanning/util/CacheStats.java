@@ -0,0 +1,46 @@
+package com.example.taskplanning.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存命中统计
+ * 供各类内存缓存记录命中/未命中/淘汰次数，并通过MetricsService对外暴露
+ */
+public class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public void recordHit() { hits.increment(); }
+
+    public void recordMiss() { misses.increment(); }
+
+    public void recordEviction() { evictions.increment(); }
+
+    public long getHits() { return hits.sum(); }
+
+    public long getMisses() { return misses.sum(); }
+
+    public long getEvictions() { return evictions.sum(); }
+
+    /**
+     * 命中率，尚无请求时返回0
+     */
+    public double getHitRate() {
+        long h = getHits();
+        long total = h + getMisses();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hits", getHits());
+        map.put("misses", getMisses());
+        map.put("evictions", getEvictions());
+        map.put("hitRate", getHitRate());
+        return map;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.taskplanning.util;
+
+import com.example.taskplanning.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 键集分页游标
+ * 记录上一页最后一行的排序键（可以为null）和ID，编码成不透明的URL安全字符串交给客户端；
+ * 下一页直接从该位置之后开始查找，不使用OFFSET，也不再额外执行COUNT
+ */
+public record KeysetCursor(LocalDateTime key, Long id) {
+
+    /** 请求参数 paging 取该值时使用键集分页 */
+    public static final String PAGING_MODE = "keyset";
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String VERSION = "1";
+    private static final String NULL_KEY = "-";
+
+    public String encode() {
+        String raw = VERSION + "|" + (key == null ? NULL_KEY : key.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析客户端传回的游标
+     * @return 空字符串或null表示第一页，返回null
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw invalid();
+            }
+            LocalDateTime key = NULL_KEY.equals(parts[1]) ? null : LocalDateTime.parse(parts[1]);
+            return new KeysetCursor(key, Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            if (e instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            throw invalid();
+        }
+    }
+
+    /**
+     * 把客户端请求的每页条数限制在 [1, MAX_PAGE_SIZE]
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static BusinessException invalid() {
+        return new BusinessException("INVALID_CURSOR", "分页游标无效");
+    }
+}
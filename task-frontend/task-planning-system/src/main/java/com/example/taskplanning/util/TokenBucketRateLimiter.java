@@ -0,0 +1,120 @@
+package com.example.taskplanning.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 分段加锁的内存令牌桶限流器
+ * 按key的哈希值分到固定数量的分段，每个分段独立加锁并维护有界的LRU桶表，
+ * 不同key之间基本不会竞争同一把锁，内存占用也有上限
+ */
+public class TokenBucketRateLimiter {
+
+    static final int STRIPES = 64;
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final LongSupplier nanoClock;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param capacity 桶容量（允许的突发请求数）
+     * @param refillPerMinute 每分钟补充的令牌数
+     * @param maxKeys 最多同时跟踪的key数量，超出时淘汰最久未使用的桶
+     */
+    public TokenBucketRateLimiter(int capacity, int refillPerMinute, int maxKeys) {
+        this(capacity, refillPerMinute, maxKeys, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock 单调时钟（纳秒），测试时可注入可控的时钟
+     */
+    public TokenBucketRateLimiter(int capacity, int refillPerMinute, int maxKeys, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / 60_000_000_000.0;
+        this.nanoClock = nanoClock;
+        int perStripe = Math.max(16, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * 尝试为key消耗一个令牌
+     * @return true表示放行，false表示已超出限额
+     */
+    public boolean tryAcquire(String key) {
+        Stripe stripe = stripes[stripeOf(key)];
+        boolean ok;
+        synchronized (stripe) {
+            long now = nanoClock.getAsLong();
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.lastRefillNanos) * refillPerNano);
+                bucket.lastRefillNanos = now;
+            }
+            ok = bucket.tokens >= 1.0;
+            if (ok) {
+                bucket.tokens -= 1.0;
+            }
+        }
+        (ok ? allowed : rejected).increment();
+        return ok;
+    }
+
+    /**
+     * key所在的分段：屏蔽符号位后取模，负的哈希值也落在 [0, STRIPES) 内
+     */
+    static int stripeOf(String key) {
+        return (key.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    public int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.buckets.size();
+            }
+        }
+        return total;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("allowed", allowed.sum());
+        map.put("rejected", rejected.sum());
+        map.put("trackedKeys", trackedKeys());
+        return map;
+    }
+
+    private static final class Stripe {
+        final LinkedHashMap<String, Bucket> buckets;
+
+        Stripe(int maxEntries) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefillNanos;
+
+        Bucket(double tokens, long lastRefillNanos) {
+            this.tokens = tokens;
+            this.lastRefillNanos = lastRefillNanos;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.taskplanning.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * 令牌摘要与随机令牌生成工具
+ * 数据库和内存中只保存令牌的摘要，不保存原文
+ */
+public final class TokenDigests {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private TokenDigests() {
+    }
+
+    /**
+     * 计算SHA-256摘要，返回64位十六进制字符串
+     */
+    public static String sha256Hex(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 生成URL安全的随机令牌
+     * @param byteLength 随机字节数
+     */
+    public static String randomToken(int byteLength) {
+        byte[] bytes = new byte[byteLength];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
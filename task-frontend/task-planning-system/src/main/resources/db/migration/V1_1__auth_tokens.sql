@@ -0,0 +1,45 @@
+-- 令牌版本号、刷新令牌与访问令牌吊销表。
+-- 迁移到 Flyway 之前用 ddl-auto=update 运行过的数据库可能已有这些表、列和索引，因此逐项判断后再建；
+-- MySQL 的 ALTER TABLE / CREATE INDEX 不支持 IF NOT EXISTS，按 information_schema 的结果拼出语句执行（'do 0' 为空操作）。
+
+set @ddl = if((select count(*) from information_schema.columns
+               where table_schema = database() and table_name = 'users' and column_name = 'token_version') = 0,
+    'alter table users add column token_version integer not null default 0', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+create table if not exists refresh_tokens (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    token_hash varchar(64) not null,
+    expires_at datetime(6) not null,
+    revoked bit not null,
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint uk_refresh_tokens_token_hash unique (token_hash),
+    constraint fk_refresh_tokens_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'refresh_tokens' and index_name = 'idx_refresh_tokens_expires_at') = 0,
+    'create index idx_refresh_tokens_expires_at on refresh_tokens (expires_at)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+create table if not exists revoked_tokens (
+    id bigint not null auto_increment,
+    jti varchar(64) not null,
+    expires_at datetime(6) not null,
+    revoked_at datetime(6) not null,
+    primary key (id),
+    constraint uk_revoked_tokens_jti unique (jti)
+) engine=InnoDB;
+
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'revoked_tokens' and index_name = 'idx_revoked_tokens_expires_at') = 0,
+    'create index idx_revoked_tokens_expires_at on revoked_tokens (expires_at)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
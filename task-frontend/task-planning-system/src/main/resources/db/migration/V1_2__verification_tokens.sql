@@ -0,0 +1,56 @@
+-- 邮箱验证令牌移出 users 表：建独立的摘要表，把仍在有效期内的待验证令牌按 SHA-256 摘要迁入，再删除 users 上的旧列。
+-- 与 V1_1 相同，已由 ddl-auto=update 建好的表、索引不重复创建；update 不会删列，旧列在这里统一删除。
+
+create table if not exists verification_tokens (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    token_hash varchar(64) not null,
+    expires_at datetime(6) not null,
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint uk_verification_tokens_token_hash unique (token_hash),
+    constraint fk_verification_tokens_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'verification_tokens' and index_name = 'idx_verification_tokens_expires_at') = 0,
+    'create index idx_verification_tokens_expires_at on verification_tokens (expires_at)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'verification_tokens' and index_name = 'idx_verification_tokens_user_id') = 0,
+    'create index idx_verification_tokens_user_id on verification_tokens (user_id)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 令牌原文仍在旧列中，摘要与 TokenDigests.sha256Hex 一致（小写十六进制）；已有同一用户令牌的不再迁入
+set @ddl = if((select count(*) from information_schema.columns
+               where table_schema = database() and table_name = 'users' and column_name = 'verification_token') = 0,
+    'do 0',
+    'insert ignore into verification_tokens (user_id, token_hash, expires_at, created_at)
+     select u.id, sha2(u.verification_token, 256), u.verification_token_expiry, now(6)
+     from users u
+     where u.verification_token is not null
+       and u.verification_token_expiry > now(6)
+       and u.email_verified = false
+       and not exists (select 1 from verification_tokens vt where vt.user_id = u.id)');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = if((select count(*) from information_schema.columns
+               where table_schema = database() and table_name = 'users' and column_name = 'verification_token') = 0,
+    'do 0', 'alter table users drop column verification_token');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = if((select count(*) from information_schema.columns
+               where table_schema = database() and table_name = 'users' and column_name = 'verification_token_expiry') = 0,
+    'do 0', 'alter table users drop column verification_token_expiry');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
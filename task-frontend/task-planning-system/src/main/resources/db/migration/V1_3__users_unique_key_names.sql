@@ -0,0 +1,37 @@
+-- 注册时按约束名区分用户名重复和邮箱重复（User.UK_USERNAME / User.UK_EMAIL），
+-- 而基线时期 Hibernate 生成的唯一约束名是哈希值。这里把 username、email 上的单列唯一索引改为固定名称；
+-- 若 ddl-auto=update 已经另建了同名约束，则删除多出的那一个。
+
+set @old = (select index_name from information_schema.statistics
+            where table_schema = database() and table_name = 'users' and non_unique = 0
+              and index_name not in ('PRIMARY', 'uk_users_username')
+            group by index_name
+            having count(*) = 1 and max(column_name) = 'username'
+            limit 1);
+set @has_new = (select count(*) from information_schema.statistics
+                where table_schema = database() and table_name = 'users' and index_name = 'uk_users_username');
+set @ddl = case
+    when @old is null then 'do 0'
+    when @has_new > 0 then concat('alter table users drop index `', @old, '`')
+    else concat('alter table users rename index `', @old, '` to uk_users_username')
+end;
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @old = (select index_name from information_schema.statistics
+            where table_schema = database() and table_name = 'users' and non_unique = 0
+              and index_name not in ('PRIMARY', 'uk_users_email')
+            group by index_name
+            having count(*) = 1 and max(column_name) = 'email'
+            limit 1);
+set @has_new = (select count(*) from information_schema.statistics
+                where table_schema = database() and table_name = 'users' and index_name = 'uk_users_email');
+set @ddl = case
+    when @old is null then 'do 0'
+    when @has_new > 0 then concat('alter table users drop index `', @old, '`')
+    else concat('alter table users rename index `', @old, '` to uk_users_email')
+end;
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
@@ -0,0 +1,27 @@
+-- 日历读模型。新建的表为空，启动时由 CalendarRebuildRunner（app.calendar.rebuild-if-empty）全量重建；
+-- 与 V1_1 相同，已由 ddl-auto=update 建好的表、索引不重复创建。
+
+create table if not exists calendar_entries (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    entry_day date not null,
+    task_id bigint not null,
+    title varchar(200) not null,
+    description longtext,
+    course_name varchar(100),
+    task_type enum ('PERSONAL','CLASS') not null,
+    deadline datetime(6),
+    task_created_at datetime(6) not null,
+    class_name varchar(255),
+    personal_status enum ('TODO','IN_PROGRESS','DONE'),
+    personal_deadline datetime(6),
+    primary key (id),
+    constraint uk_calendar_entries_user_day_task unique (user_id, entry_day, task_id)
+) engine=InnoDB;
+
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'calendar_entries' and index_name = 'idx_calendar_entries_task_id') = 0,
+    'create index idx_calendar_entries_task_id on calendar_entries (task_id)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
@@ -0,0 +1,106 @@
+-- 基线表结构：与基线版本（ddl-auto=update 建表时期）的实体一致，列类型按 Hibernate 的 MySQL 映射。
+-- 已有数据库由 spring.flyway.baseline-on-migrate 直接标记为版本1，不会执行本脚本，之后新增的表、列和索引
+-- 都放在后续版本的迁移中；已有数据库中约束名由 Hibernate 生成，后续迁移不按名称引用这些约束（users 的唯一约束见 V1_3）。
+
+create table users (
+    id bigint not null auto_increment,
+    username varchar(50) not null,
+    email varchar(100) not null,
+    password varchar(255) not null,
+    name varchar(255) not null,
+    avatar_url varchar(255),
+    phone varchar(255) not null,
+    language varchar(255),
+    email_verified bit not null,
+    last_login_at datetime(6),
+    notification_settings bit not null,
+    verification_token varchar(255),
+    verification_token_expiry datetime(6),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+create table classes (
+    id bigint not null auto_increment,
+    name varchar(100) not null,
+    description longtext,
+    invite_code varchar(20) not null,
+    is_public bit not null,
+    join_approval bit not null,
+    status enum ('ACTIVE','ARCHIVED') not null,
+    owner_id bigint not null,
+    created_at datetime(6) not null,
+    updated_at datetime(6) not null,
+    primary key (id),
+    constraint uk_classes_invite_code unique (invite_code),
+    constraint fk_classes_owner foreign key (owner_id) references users (id)
+) engine=InnoDB;
+
+create table user_class_relations (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    class_id bigint not null,
+    role enum ('OWNER','ADMIN','MEMBER') not null,
+    status enum ('PENDING','APPROVED','REJECTED','REMOVED') not null,
+    join_reason varchar(500),
+    approved_by bigint,
+    approved_at datetime(6),
+    joined_at datetime(6),
+    created_at datetime(6) not null,
+    updated_at datetime(6) not null,
+    primary key (id),
+    constraint uk_ucr_user_class unique (user_id, class_id),
+    constraint fk_ucr_user foreign key (user_id) references users (id),
+    constraint fk_ucr_class foreign key (class_id) references classes (id),
+    constraint fk_ucr_approved_by foreign key (approved_by) references users (id)
+) engine=InnoDB;
+
+create table tasks (
+    id bigint not null auto_increment,
+    title varchar(200) not null,
+    description longtext,
+    course_name varchar(100),
+    task_type enum ('PERSONAL','CLASS') not null,
+    is_deleted bit not null,
+    deadline datetime(6),
+    creator_id bigint not null,
+    class_id bigint,
+    created_at datetime(6) not null,
+    updated_at datetime(6) not null,
+    primary key (id),
+    constraint fk_tasks_creator foreign key (creator_id) references users (id),
+    constraint fk_tasks_class foreign key (class_id) references classes (id)
+) engine=InnoDB;
+
+create table user_task_relations (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    task_id bigint not null,
+    status enum ('TODO','IN_PROGRESS','DONE') not null,
+    personal_deadline datetime(6),
+    personal_notes longtext,
+    completed_at datetime(6),
+    created_at datetime(6) not null,
+    updated_at datetime(6) not null,
+    primary key (id),
+    constraint uk_utr_user_task unique (user_id, task_id),
+    constraint fk_utr_user foreign key (user_id) references users (id),
+    constraint fk_utr_task foreign key (task_id) references tasks (id)
+) engine=InnoDB;
+
+create table action_logs (
+    id bigint not null auto_increment,
+    user_id bigint,
+    action varchar(50) not null,
+    entity_type varchar(50),
+    entity_id bigint,
+    details longtext,
+    ip_address varchar(45),
+    user_agent varchar(500),
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint fk_action_logs_user foreign key (user_id) references users (id)
+) engine=InnoDB;
@@ -0,0 +1,116 @@
+-- 按查询选定的索引。每个索引注明服务的 Repository 方法；
+-- InnoDB 二级索引隐含主键列，(…, deadline) 等索引可直接支撑 ORDER BY …, id 的键集分页。
+-- 实体上的 @Index 与这里同名，ddl-auto=update 时期可能已经建过，因此按索引名判断后再建（写法同 V1_1）。
+
+-- users.existsByPhone（注册时校验手机号）
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'users' and index_name = 'idx_users_phone') = 0,
+    'create index idx_users_phone on users (phone)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- TaskRepository
+--   findByClassEntityIdAndIsDeletedFalseOrderByDeadlineAscIdAsc / findClassTasksWith(out)DeadlineAfter
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tasks' and index_name = 'idx_tasks_class_deleted_deadline') = 0,
+    'create index idx_tasks_class_deleted_deadline on tasks (class_id, is_deleted, deadline)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+--   findByCreatorIdAndTaskTypeAndIsDeletedFalseOrderByDeadlineAscIdAsc / findPersonalTasksWith(out)DeadlineAfter
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tasks' and index_name = 'idx_tasks_creator_type_deleted_deadline') = 0,
+    'create index idx_tasks_creator_type_deleted_deadline on tasks (creator_id, task_type, is_deleted, deadline)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+--   findTaskIdsByClassIdAndCreatedAtAfter（同步班级任务）
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tasks' and index_name = 'idx_tasks_class_created') = 0,
+    'create index idx_tasks_class_created on tasks (class_id, created_at)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- UserClassRelationRepository
+--   findByClassEntity_IdAndStatus / findByClassAndStatusAfterJoinedAt（成员列表）
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'user_class_relations' and index_name = 'idx_ucr_class_status_joined') = 0,
+    'create index idx_ucr_class_status_joined on user_class_relations (class_id, status, joined_at)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+--   findByClassEntityAndStatus / findByClassAndStatusAfterCreatedAt（班级入班申请），
+--   以及待审批查询中按 (class_id, status) 的半连接
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'user_class_relations' and index_name = 'idx_ucr_class_status_created') = 0,
+    'create index idx_ucr_class_status_created on user_class_relations (class_id, status, created_at)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+--   findPendingApprovalsForManager(Before)：按申请时间倒序扫描待审批记录
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'user_class_relations' and index_name = 'idx_ucr_status_created') = 0,
+    'create index idx_ucr_status_created on user_class_relations (status, created_at)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+--   findByUserAndStatus（我的班级，按加入时间排序）
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'user_class_relations' and index_name = 'idx_ucr_user_status_joined') = 0,
+    'create index idx_ucr_user_status_joined on user_class_relations (user_id, status, joined_at)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- RefreshTokenRepository.revokeAllByUserId
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'refresh_tokens' and index_name = 'idx_refresh_tokens_user_revoked') = 0,
+    'create index idx_refresh_tokens_user_revoked on refresh_tokens (user_id, revoked)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- 早期版本的日期范围查询用过的索引，ddl-auto=update 时期可能已经建过；查询已删除（日历改用 calendar_entries），索引一并删除
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tasks' and index_name = 'idx_tasks_creator_type_deleted_created') = 0,
+    'do 0', 'drop index idx_tasks_creator_type_deleted_created on tasks');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tasks' and index_name = 'idx_tasks_type_deleted_created') = 0,
+    'do 0', 'drop index idx_tasks_type_deleted_created on tasks');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'tasks' and index_name = 'idx_tasks_type_deleted_deadline') = 0,
+    'do 0', 'drop index idx_tasks_type_deleted_deadline on tasks');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+-- InnoDB 在出现可用于外键的新索引后会删除外键自动建的 task_id 索引，删除前先确认外键 fk_utr_task 仍有索引可用
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'user_task_relations'
+                 and column_name = 'task_id' and seq_in_index = 1 and index_name <> 'idx_utr_task_user') = 0,
+    'create index fk_utr_task on user_task_relations (task_id)', 'do 0');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
+
+set @ddl = if((select count(*) from information_schema.statistics
+               where table_schema = database() and table_name = 'user_task_relations' and index_name = 'idx_utr_task_user') = 0,
+    'do 0', 'drop index idx_utr_task_user on user_task_relations');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
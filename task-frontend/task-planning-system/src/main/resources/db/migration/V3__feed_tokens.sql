@@ -0,0 +1,12 @@
+-- 日历订阅令牌：每个用户最多一个，只保存令牌的SHA-256摘要
+
+create table feed_tokens (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    token_hash varchar(64) not null,
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint uk_feed_tokens_user_id unique (user_id),
+    constraint uk_feed_tokens_token_hash unique (token_hash),
+    constraint fk_feed_tokens_user foreign key (user_id) references users (id)
+) engine=InnoDB;
@@ -0,0 +1,35 @@
+-- 号段分配主键：MySQL 没有序列，Hibernate 用单行表 next_val 模拟，每次取一个号段（allocationSize = 50）。
+-- pooled 优化器把取到的值 V 当作号段上界，实际分配 [V-49, V]，因此初始值取现有最大ID + 50，
+-- 保证新号段从最大ID之后开始。
+-- 最后去掉这四张表 id 列的 AUTO_INCREMENT：自增值取 MAX(id)+1，可能落在某个实例已取走但尚未用完的号段里，
+-- 之后该实例插入时主键冲突。直接用 SQL 插入时须先从 *_id_seq 预留主键：
+--   update task_id_seq set next_val = last_insert_id(next_val + n);
+-- 设 last_insert_id() 返回 V，则 [V - n - 49, V - 50] 这 n 个ID归本次插入使用（下一个号段从 V - 49 开始）。
+
+create table task_id_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into task_id_seq select coalesce(max(id), 0) + 50 from tasks;
+
+create table user_task_relation_id_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into user_task_relation_id_seq select coalesce(max(id), 0) + 50 from user_task_relations;
+
+create table user_class_relation_id_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into user_class_relation_id_seq select coalesce(max(id), 0) + 50 from user_class_relations;
+
+create table action_log_id_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into action_log_id_seq select coalesce(max(id), 0) + 50 from action_logs;
+
+alter table user_task_relations modify id bigint not null;
+alter table user_class_relations modify id bigint not null;
+alter table action_logs modify id bigint not null;
+-- tasks.id 被 user_task_relations.task_id 的外键引用，修改列定义时需暂时关闭外键检查
+set foreign_key_checks = 0;
+alter table tasks modify id bigint not null;
+set foreign_key_checks = 1;
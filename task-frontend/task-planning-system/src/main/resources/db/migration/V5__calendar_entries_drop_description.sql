@@ -0,0 +1,9 @@
+-- 日历读模型不再冗余任务描述（长文本在每个用户、每个日期的记录里各存一份），读取时按 task_id 关联 tasks 取回。
+-- 与 V1_4 相同，ddl-auto=update 时期可能没有这一列，按 information_schema 判断后再删除。
+
+set @ddl = if((select count(*) from information_schema.columns
+               where table_schema = database() and table_name = 'calendar_entries' and column_name = 'description') = 0,
+    'do 0', 'alter table calendar_entries drop column description');
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
@@ -0,0 +1,10 @@
+-- 视图版本号（条件GET的ETag / Last-Modified），由 ViewVersionService 在写操作提交后递增。
+-- 此前版本号只在各实例内存中，多实例部署时请求落到其他实例会返回错误的304；改为所有实例共用这张表。
+
+create table if not exists view_versions (
+    scope enum ('USER','CLASS') not null,
+    scope_id bigint not null,
+    version bigint not null,
+    modified_at datetime(6) not null,
+    primary key (scope, scope_id)
+) engine=InnoDB;
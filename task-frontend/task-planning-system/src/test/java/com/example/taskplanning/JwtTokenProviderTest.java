@@ -0,0 +1,106 @@
+package com.example.taskplanning;
+
+import com.example.taskplanning.config.CustomUserDetails;
+import com.example.taskplanning.event.TokenVersionChangedEvent;
+import com.example.taskplanning.repository.RefreshTokenRepository;
+import com.example.taskplanning.repository.UserRepository;
+import com.example.taskplanning.service.MetricsService;
+import com.example.taskplanning.service.TokenVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Token版本号测试：版本号递增并提交后，携带旧 ver 的访问令牌被 getUserDetailsFromClaims 拒绝
+ */
+class JwtTokenProviderTest {
+
+    private static final Long USER_ID = 7L;
+    private static final String SECRET =
+            "dGhpc0lzQVNlY3JldEtleUZvckpXVFNpZ25pbmdQdXJwb3NlT25seUZvckRldmVsb3BtZW50VXNlT25seQ==";
+
+    private UserRepository userRepository;
+    private RefreshTokenRepository refreshTokenRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private TokenVersionService tokenVersionService;
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(userRepository.findNonDefaultTokenVersions()).thenReturn(List.of());
+
+        tokenVersionService = new TokenVersionService(userRepository, refreshTokenRepository, eventPublisher);
+        tokenVersionService.load();
+
+        jwtTokenProvider = new JwtTokenProvider(mock(MetricsService.class), tokenVersionService);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationInMs", 900_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheMaxSize", 100);
+        jwtTokenProvider.init();
+    }
+
+    @Test
+    void staleTokenVersionIsRejectedAfterCommit() {
+        String oldToken = jwtTokenProvider.generateToken(user());
+        assertNotNull(userDetails(oldToken));
+
+        when(userRepository.findTokenVersionById(USER_ID)).thenReturn(Optional.of(1));
+        tokenVersionService.invalidateAllTokens(USER_ID);
+        verify(userRepository).incrementTokenVersion(USER_ID);
+        verify(refreshTokenRepository).revokeAllByUserId(USER_ID);
+
+        // 事务提交前内存中的版本表不变，旧令牌仍然有效
+        assertNotNull(userDetails(oldToken));
+
+        ArgumentCaptor<TokenVersionChangedEvent> event = ArgumentCaptor.forClass(TokenVersionChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        tokenVersionService.onTokenVersionChanged(event.getValue());
+
+        assertNull(userDetails(oldToken));
+        String newToken = jwtTokenProvider.generateToken(user());
+        CustomUserDetails details = userDetails(newToken);
+        assertNotNull(details);
+        assertEquals(USER_ID, details.getId());
+    }
+
+    @Test
+    void versionBumpedOnAnotherInstanceIsPickedUpByReload() {
+        String oldToken = jwtTokenProvider.generateToken(user());
+
+        List<Object[]> rows = List.<Object[]>of(new Object[]{USER_ID, 2});
+        when(userRepository.findNonDefaultTokenVersions()).thenReturn(rows);
+        tokenVersionService.reload();
+
+        assertNull(userDetails(oldToken));
+        assertEquals(2, tokenVersionService.currentVersion(USER_ID));
+
+        // 重新加载读到较旧的快照时不回退本实例已提交的版本号
+        tokenVersionService.onTokenVersionChanged(new TokenVersionChangedEvent(USER_ID, 3));
+        tokenVersionService.reload();
+        assertEquals(3, tokenVersionService.currentVersion(USER_ID));
+    }
+
+    private CustomUserDetails userDetails(String token) {
+        return jwtTokenProvider.getUserDetailsFromClaims(jwtTokenProvider.resolveClaims(token));
+    }
+
+    private static CustomUserDetails user() {
+        return new CustomUserDetails(USER_ID, "alice", null, List.of(new SimpleGrantedAuthority("USER")));
+    }
+}
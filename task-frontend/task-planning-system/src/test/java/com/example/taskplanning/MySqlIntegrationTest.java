@@ -0,0 +1,181 @@
+package com.example.taskplanning;
+
+import com.example.taskplanning.entity.IdGeneration;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 需要真实 MySQL 的集成测试基类（按需启用）
+ * 连接一个可丢弃的 MySQL 兼容数据库，上下文启动时清空并执行 Flyway 迁移，再以 ddl-auto=validate 校验实体；
+ * 开启 Hibernate Statistics 供子类统计语句条数，并可用 SqlCapture 记录实际执行的SQL、用 assertIndexScan 检查执行计划。子类实现 seed()，每个测试类只写入一次测试数据：
+ *   mvn test -Dtest.mysql.url=jdbc:mysql://localhost:3306/plan_test -Dtest.mysql.username=root -Dtest.mysql.password=xxx
+ * 未提供 test.mysql.url 时跳过
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "test.mysql.url", matches = ".+")
+@Import(MySqlIntegrationTest.CleanMigrateConfig.class)
+public abstract class MySqlIntegrationTest {
+
+    private static final Set<Class<?>> SEEDED = ConcurrentHashMap.newKeySet();
+
+    @DynamicPropertySource
+    static void mysql(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("test.mysql.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("test.mysql.username", "root"));
+        registry.add("spring.datasource.password", () -> System.getProperty("test.mysql.password", ""));
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.flyway.clean-disabled", () -> "false");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector", SqlCapture.class::getName);
+    }
+
+    @TestConfiguration
+    static class CleanMigrateConfig {
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedOnce() {
+        if (!SEEDED.contains(getClass())) {
+            seed();
+            SEEDED.add(getClass());
+        }
+    }
+
+    @AfterEach
+    void stopSqlCapture() {
+        SqlCapture.stop();
+    }
+
+    /**
+     * 写入本测试类使用的数据（每个测试类只执行一次，在子类的 @BeforeEach 之前）
+     */
+    protected abstract void seed();
+
+    /**
+     * 为直接用 SQL 插入的行预留连续主键（号段分配主键的表没有自增列，见 IdGeneration 和迁移 V4）
+     * @param sequenceTable 号段表，如 task_id_seq
+     * @param count 行数
+     * @return 预留的第一个ID，本次可使用 [返回值, 返回值 + count)
+     */
+    protected long reserveIds(String sequenceTable, int count) {
+        // last_insert_id() 是连接级的，更新和读取必须在同一连接上执行
+        long upper = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("UPDATE " + sequenceTable + " SET next_val = LAST_INSERT_ID(next_val + " + count + ")");
+                try (ResultSet rs = statement.executeQuery("SELECT LAST_INSERT_ID()")) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        });
+        return upper - count - (IdGeneration.ALLOCATION_SIZE - 1);
+    }
+
+    /**
+     * 对SQL执行 EXPLAIN：必须有一行使用 expectedKey 索引做范围/等值查找，且任何基表都不能做全表扫描（type=ALL）
+     * 或全索引扫描（type=index）。SQL 通常取自业务代码（常量或 SqlCapture 记录的 Hibernate SQL）
+     * @param args 按 ? 出现的顺序绑定，个数必须与SQL中的占位符一致
+     * @return 执行计划
+     */
+    protected List<Map<String, Object>> assertIndexScan(String name, String sql, String expectedKey, Object... args) {
+        long placeholders = sql.chars().filter(c -> c == '?').count();
+        assertEquals(placeholders, args.length, () -> name + " 的参数个数与占位符不一致: " + sql);
+
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        for (Map<String, Object> row : plan) {
+            String table = String.valueOf(row.get("table"));
+            if (table.startsWith("<")) {
+                continue; // <derivedN> / <unionM,N> 是中间结果，不是基表
+            }
+            String type = String.valueOf(row.get("type"));
+            assertFalse("ALL".equals(type) || "index".equals(type),
+                    () -> name + " 对 " + table + " 执行了全表/全索引扫描 (type=" + type + ")，执行计划: " + plan);
+        }
+        assertTrue(plan.stream().anyMatch(row -> expectedKey.equals(row.get("key"))
+                        && Set.of("range", "ref", "eq_ref", "const").contains(String.valueOf(row.get("type")))),
+                () -> name + " 没有使用索引 " + expectedKey + "，执行计划: " + plan);
+        return plan;
+    }
+
+    /**
+     * 在每行参数前补上从号段表预留的主键（对应 INSERT 语句的第一列 id）
+     */
+    protected List<Object[]> withIds(String sequenceTable, List<Object[]> rows) {
+        long firstId = reserveIds(sequenceTable, rows.size());
+        List<Object[]> result = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            Object[] withId = new Object[row.length + 1];
+            withId[0] = firstId + i;
+            System.arraycopy(row, 0, withId, 1, row.length);
+            result.add(withId);
+        }
+        return result;
+    }
+
+    /**
+     * 记录当前线程在 start() 之后由 Hibernate 执行的SQL，用于断言实际取回了哪些列
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+        public static void start() {
+            CAPTURED.set(new ArrayList<>());
+        }
+
+        /**
+         * @return start() 之后记录的SQL，并停止记录
+         */
+        public static List<String> stop() {
+            List<String> captured = CAPTURED.get();
+            CAPTURED.remove();
+            return captured == null ? List.of() : Collections.unmodifiableList(captured);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> captured = CAPTURED.get();
+            if (captured != null) {
+                captured.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.taskplanning.controller;
+
+import com.example.taskplanning.service.CalendarFeedService;
+import com.example.taskplanning.service.FeedTokenService;
+import com.example.taskplanning.service.ViewVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 日历订阅的条件GET：订阅窗口每天移动，ETag 带窗口起始日期，Last-Modified 不早于当天零点，
+ * 视图版本号不变时跨天后的第一次轮询也返回新内容
+ */
+class CalendarFeedControllerTest {
+
+    private static final Long USER_ID = 7L;
+    private static final String FEED = "/api/calendar/feed/token.ics";
+    private static final int PAST_DAYS = 30;
+
+    private ViewVersionService viewVersionService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        FeedTokenService feedTokenService = mock(FeedTokenService.class);
+        CalendarFeedService calendarFeedService = mock(CalendarFeedService.class);
+        viewVersionService = mock(ViewVersionService.class);
+
+        when(feedTokenService.resolveUserId("token")).thenReturn(USER_ID);
+        when(calendarFeedService.windowStart(any())).thenAnswer(
+                invocation -> invocation.<LocalDate>getArgument(0).minusDays(PAST_DAYS));
+        when(viewVersionService.userEtag(anyString(), anyLong())).thenAnswer(
+                invocation -> "\"" + invocation.getArgument(0) + "-u" + invocation.getArgument(1) + ".3\"");
+
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new CalendarFeedController(feedTokenService, calendarFeedService, viewVersionService)).build();
+    }
+
+    @Test
+    void etagCarriesWindowStartDate() throws Exception {
+        when(viewVersionService.userLastModified(USER_ID)).thenReturn(startOfToday());
+
+        MvcResult result = mockMvc.perform(get(FEED)).andReturn();
+
+        String windowStart = LocalDate.now().minusDays(PAST_DAYS).toString();
+        assertEquals("\"ics-" + windowStart + "-u" + USER_ID + ".3\"", result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void etagFromPreviousDayIsNotMatched() throws Exception {
+        when(viewVersionService.userLastModified(USER_ID)).thenReturn(startOfToday());
+        String yesterdaysEtag = "\"ics-" + LocalDate.now().minusDays(PAST_DAYS + 1) + "-u" + USER_ID + ".3\"";
+
+        mockMvc.perform(get(FEED).header(HttpHeaders.IF_NONE_MATCH, yesterdaysEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void lastModifiedIsNotEarlierThanStartOfToday() throws Exception {
+        // 视图一周前最后一次变化
+        long weekAgo = startOfToday() - 7L * 24 * 3600 * 1000;
+        when(viewVersionService.userLastModified(USER_ID)).thenReturn(weekAgo);
+
+        MvcResult result = mockMvc.perform(get(FEED)).andReturn();
+        assertEquals(startOfToday(), result.getResponse().getDateHeader(HttpHeaders.LAST_MODIFIED));
+
+        // 昨天拿到的副本（If-Modified-Since 为昨天）已过期，窗口移动后需要返回新内容
+        String yesterday = httpDate(startOfToday() - 3600 * 1000);
+        mockMvc.perform(get(FEED).header(HttpHeaders.IF_MODIFIED_SINCE, yesterday))
+                .andExpect(status().isOk());
+
+        // 今天拿到的副本仍然有效
+        mockMvc.perform(get(FEED).header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(startOfToday())))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void laterViewChangeWinsOverStartOfToday() throws Exception {
+        long changedAt = System.currentTimeMillis() / 1000 * 1000;
+        when(viewVersionService.userLastModified(USER_ID)).thenReturn(changedAt);
+
+        MvcResult result = mockMvc.perform(get(FEED)).andReturn();
+        assertTrue(changedAt >= startOfToday());
+        assertEquals(changedAt, result.getResponse().getDateHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    private static long startOfToday() {
+        return LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String httpDate(long epochMillis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.of("GMT")));
+    }
+}
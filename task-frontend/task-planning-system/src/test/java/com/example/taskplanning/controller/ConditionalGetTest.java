@@ -0,0 +1,173 @@
+package com.example.taskplanning.controller;
+
+import com.example.taskplanning.JwtTokenProvider;
+import com.example.taskplanning.MySqlIntegrationTest;
+import com.example.taskplanning.config.CustomUserDetails;
+import com.example.taskplanning.repository.UserTaskRelationRepository;
+import com.example.taskplanning.service.MetricsService;
+import com.example.taskplanning.service.ViewVersionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 条件GET测试：ETag 未变时返回304，任务修改后创建者和所有关联了该任务的用户都拿到新的ETag（200），
+ * 未关联的用户仍是304；版本号存放在数据库中，另一个实例（新建的 ViewVersionService）看到同一个ETag。
+ * 需要 MySQL，启用方式见 MySqlIntegrationTest
+ */
+@AutoConfigureMockMvc
+class ConditionalGetTest extends MySqlIntegrationTest {
+
+    private static final String CALENDAR = "/api/calendar?year=2030&month=1";
+
+    private static Long ownerId;
+    private static Long linkedId;
+    private static Long otherLinkedId;
+    private static Long unlinkedId;
+    private static Long classTaskId;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private ViewVersionService viewVersionService;
+    @Autowired
+    private UserTaskRelationRepository userTaskRelationRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void unchangedViewReturns304() throws Exception {
+        String etag = fetch(linkedId, CALENDAR);
+
+        mockMvc.perform(get(CALENDAR).header(HttpHeaders.AUTHORIZATION, bearer(linkedId))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void taskEditBumpsEveryLinkedUser() throws Exception {
+        String ownerEtag = fetch(ownerId, CALENDAR);
+        String linkedEtag = fetch(linkedId, CALENDAR);
+        String otherLinkedEtag = fetch(otherLinkedId, CALENDAR);
+        String unlinkedEtag = fetch(unlinkedId, CALENDAR);
+
+        mockMvc.perform(put("/api/tasks/{taskId}", classTaskId)
+                        .header(HttpHeaders.AUTHORIZATION, bearer(ownerId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"edited\",\"courseName\":\"course\",\"deadline\":\"2030-01-15T08:00:00\"}"))
+                .andExpect(status().isOk());
+
+        assertNotEquals(ownerEtag, revalidate(ownerId, ownerEtag, 200));
+        assertNotEquals(linkedEtag, revalidate(linkedId, linkedEtag, 200));
+        assertNotEquals(otherLinkedEtag, revalidate(otherLinkedId, otherLinkedEtag, 200));
+        revalidate(unlinkedId, unlinkedEtag, 304);
+    }
+
+    @Test
+    void versionsAreSharedBetweenInstances() {
+        ViewVersionService otherInstance = new ViewVersionService(userTaskRelationRepository, jdbcTemplate,
+                transactionManager, mock(MetricsService.class));
+
+        viewVersionService.bumpUser(linkedId);
+
+        assertEquals(viewVersionService.userEtag("calendar", linkedId), otherInstance.userEtag("calendar", linkedId));
+        assertEquals(viewVersionService.userLastModified(linkedId), otherInstance.userLastModified(linkedId));
+    }
+
+    private String fetch(Long userId, String uri) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, bearer(userId)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    /**
+     * 带旧ETag重新请求日历，断言状态码，返回响应中的ETag（304时为原ETag）
+     */
+    private String revalidate(Long userId, String etag, int expectedStatus) throws Exception {
+        MvcResult result = mockMvc.perform(get(CALENDAR).header(HttpHeaders.AUTHORIZATION, bearer(userId))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn();
+        assertEquals(expectedStatus, result.getResponse().getStatus(), "userId=" + userId);
+        return result.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String bearer(Long userId) {
+        CustomUserDetails principal = new CustomUserDetails(userId, "etag_user_" + userId, null,
+                List.of(new SimpleGrantedAuthority("USER")));
+        return "Bearer " + jwtTokenProvider.generateToken(principal);
+    }
+
+    /**
+     * 班级创建者发布一个班级任务，两个成员已关联（同步）该任务，一个成员未关联
+     */
+    @Override
+    protected void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> userRows = new ArrayList<>();
+        for (String name : List.of("etag_owner", "etag_linked", "etag_other_linked", "etag_unlinked")) {
+            userRows.add(new Object[]{name, name + "@example.com", name, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, name, phone, email_verified, "
+                + "notification_settings, token_version, created_at, updated_at) VALUES (?, ?, 'x', ?, '000', true, true, 0, ?, ?)",
+                userRows);
+        ownerId = userId("etag_owner");
+        linkedId = userId("etag_linked");
+        otherLinkedId = userId("etag_other_linked");
+        unlinkedId = userId("etag_unlinked");
+
+        jdbcTemplate.update("INSERT INTO classes (name, invite_code, is_public, join_approval, status, owner_id, "
+                + "created_at, updated_at) VALUES ('etag_class', 'ETAG0001', true, true, 'ACTIVE', ?, ?, ?)", ownerId, now, now);
+        Long classId = jdbcTemplate.queryForObject("SELECT id FROM classes WHERE invite_code = 'ETAG0001'", Long.class);
+
+        List<Object[]> memberRows = new ArrayList<>();
+        memberRows.add(new Object[]{ownerId, classId, "OWNER", now, now, now});
+        for (Long memberId : List.of(linkedId, otherLinkedId, unlinkedId)) {
+            memberRows.add(new Object[]{memberId, classId, "MEMBER", now, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_class_relations (id, user_id, class_id, role, status, joined_at, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, 'APPROVED', ?, ?, ?)",
+                withIds("user_class_relation_id_seq", memberRows));
+
+        List<Object[]> taskRows = new ArrayList<>();
+        taskRows.add(new Object[]{ownerId, classId, now, now, Timestamp.valueOf(LocalDateTime.of(2030, 1, 10, 8, 0))});
+        List<Object[]> tasks = withIds("task_id_seq", taskRows);
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, title, course_name, task_type, is_deleted, creator_id, class_id, "
+                + "created_at, updated_at, deadline) VALUES (?, 'etag task', 'course', 'CLASS', false, ?, ?, ?, ?, ?)", tasks);
+        classTaskId = (Long) tasks.get(0)[0];
+
+        List<Object[]> linkRows = new ArrayList<>();
+        for (Long memberId : List.of(linkedId, otherLinkedId)) {
+            linkRows.add(new Object[]{memberId, classTaskId, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_task_relations (id, user_id, task_id, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, 'TODO', ?, ?)", withIds("user_task_relation_id_seq", linkRows));
+    }
+
+    private Long userId(String username) {
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+}
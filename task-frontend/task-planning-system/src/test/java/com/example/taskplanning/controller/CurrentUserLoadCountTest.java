@@ -0,0 +1,118 @@
+package com.example.taskplanning.controller;
+
+import com.example.taskplanning.JwtTokenProvider;
+import com.example.taskplanning.MySqlIntegrationTest;
+import com.example.taskplanning.config.CustomUserDetails;
+import com.example.taskplanning.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 查询计数测试：经过完整请求链路（JWT 过滤器 -> 权限表达式 -> Controller -> Service -> 日志切面），
+ * 当前用户实体在一个请求内最多被加载一次。用 Hibernate Statistics 统计 User 实体的加载次数。
+ * 需要 MySQL，启用方式见 MySqlIntegrationTest
+ */
+@AutoConfigureMockMvc
+class CurrentUserLoadCountTest extends MySqlIntegrationTest {
+
+    private static Long userId;
+    private static Long classId;
+    private static Long personalTaskId;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        CustomUserDetails principal = new CustomUserDetails(userId, "load_user", null,
+                List.of(new SimpleGrantedAuthority("USER")));
+        bearer = "Bearer " + jwtTokenProvider.generateToken(principal);
+    }
+
+    @Test
+    void createClassTask() throws Exception {
+        // 权限检查（canManageClass）+ 创建任务（需要完整的创建者实体）+ 日志切面（引用代理）
+        long loads = userLoads(post("/api/classes/{classId}/tasks", classId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"load task\",\"courseName\":\"course\",\"deadline\":\"2030-01-01T08:00:00\"}"));
+        assertTrue(loads <= 1, "User 加载次数 " + loads);
+    }
+
+    @Test
+    void updateTaskStatus() throws Exception {
+        long loads = userLoads(put("/api/tasks/{taskId}/status", personalTaskId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"IN_PROGRESS\"}"));
+        assertTrue(loads <= 1, "User 加载次数 " + loads);
+    }
+
+    @Test
+    void currentUserProfile() throws Exception {
+        assertEquals(1, userLoads(get("/api/users/me")));
+    }
+
+    private long userLoads(MockHttpServletRequestBuilder request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().is2xxSuccessful());
+        return statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+    }
+
+    /**
+     * 一个用户，创建并管理一个班级，另有一个个人任务
+     */
+    @Override
+    protected void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO users (username, email, password, name, phone, email_verified, "
+                + "notification_settings, token_version, created_at, updated_at) "
+                + "VALUES ('load_user', 'load_user@example.com', 'x', 'load', '000', true, true, 0, ?, ?)", now, now);
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'load_user'", Long.class);
+
+        jdbcTemplate.update("INSERT INTO classes (name, invite_code, is_public, join_approval, status, owner_id, "
+                + "created_at, updated_at) VALUES ('load_class', 'LOAD00001', true, true, 'ACTIVE', ?, ?, ?)", userId, now, now);
+        classId = jdbcTemplate.queryForObject("SELECT id FROM classes WHERE invite_code = 'LOAD00001'", Long.class);
+
+        List<Object[]> relationRows = new ArrayList<>();
+        relationRows.add(new Object[]{userId, classId, now, now, now});
+        jdbcTemplate.batchUpdate("INSERT INTO user_class_relations (id, user_id, class_id, role, status, joined_at, "
+                + "created_at, updated_at) VALUES (?, ?, ?, 'OWNER', 'APPROVED', ?, ?, ?)",
+                withIds("user_class_relation_id_seq", relationRows));
+
+        List<Object[]> taskRows = new ArrayList<>();
+        taskRows.add(new Object[]{userId, now, now});
+        List<Object[]> taskRowsWithIds = withIds("task_id_seq", taskRows);
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, title, task_type, is_deleted, creator_id, created_at, updated_at) "
+                + "VALUES (?, 'load personal', 'PERSONAL', false, ?, ?, ?)", taskRowsWithIds);
+        personalTaskId = (Long) taskRowsWithIds.get(0)[0];
+    }
+}
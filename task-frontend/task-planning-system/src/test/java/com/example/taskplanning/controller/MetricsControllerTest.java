@@ -0,0 +1,78 @@
+package com.example.taskplanning.controller;
+
+import com.example.taskplanning.config.CustomUserDetails;
+import com.example.taskplanning.service.MetricsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 运行时指标接口的权限：普通登录用户被拒绝，只有 ADMIN 可以读取
+ */
+class MetricsControllerTest {
+
+    private AnnotationConfigApplicationContext context;
+    private MetricsController controller;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(Config.class);
+        controller = context.getBean(MetricsController.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Test
+    void regularUserIsDenied() {
+        authenticate("USER");
+
+        assertThrows(AccessDeniedException.class, () -> controller.getMetrics());
+    }
+
+    @Test
+    void adminCanReadMetrics() {
+        authenticate("USER", "ADMIN");
+
+        assertEquals(200, controller.getMetrics().getStatusCode().value());
+    }
+
+    private static void authenticate(String... authorities) {
+        List<SimpleGrantedAuthority> granted = Arrays.stream(authorities).map(SimpleGrantedAuthority::new).toList();
+        CustomUserDetails principal = new CustomUserDetails(7L, "alice", null, granted);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, granted));
+    }
+
+    @Configuration
+    @EnableMethodSecurity(prePostEnabled = true)
+    static class Config {
+
+        @Bean
+        MetricsController metricsController() {
+            MetricsService metricsService = mock(MetricsService.class);
+            when(metricsService.snapshot()).thenReturn(Map.of());
+            return new MetricsController(metricsService);
+        }
+    }
+}
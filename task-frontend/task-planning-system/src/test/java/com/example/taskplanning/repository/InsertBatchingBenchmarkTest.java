@@ -0,0 +1,146 @@
+package com.example.taskplanning.repository;
+
+import com.example.taskplanning.MySqlIntegrationTest;
+import com.example.taskplanning.entity.IdGeneration;
+import com.example.taskplanning.entity.UserTaskRelation;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量插入基准：以生产配置（prod 配置文件中的 batch_size / order_inserts / rewriteBatchedStatements）
+ * 对比逐行插入并回填自增主键（IDENTITY 主键下 Hibernate 的做法）与号段主键下 saveAll 的批量插入，
+ * 输出两者的吞吐，并断言批量插入的语句数只随批次数增长。
+ * user_task_relations 已没有自增列，逐行插入写入一张结构相同、id 为 AUTO_INCREMENT 的临时对照表。
+ * 需要 MySQL，启用方式见 MySqlIntegrationTest
+ */
+@ActiveProfiles("prod")
+class InsertBatchingBenchmarkTest extends MySqlIntegrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsertBatchingBenchmarkTest.class);
+
+    private static final int ROWS = 2000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private static Long identityUserId;
+    private static Long pooledUserId;
+    private static List<Long> taskIds;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserTaskRelationRepository userTaskRelationRepository;
+
+    @Override
+    protected void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> userRows = List.of(
+                new Object[]{"bench_identity", "bench_identity@example.com", now, now},
+                new Object[]{"bench_pooled", "bench_pooled@example.com", now, now});
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, name, phone, email_verified, "
+                + "notification_settings, token_version, created_at, updated_at) VALUES (?, ?, 'x', 'bench', '000', true, true, 0, ?, ?)",
+                userRows);
+        identityUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'bench_identity'", Long.class);
+        pooledUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'bench_pooled'", Long.class);
+
+        List<Object[]> taskRows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Timestamp createdAt = Timestamp.valueOf(BASE.plusHours(i));
+            taskRows.add(new Object[]{"bench " + i, identityUserId, createdAt, createdAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, title, task_type, is_deleted, creator_id, created_at, updated_at) "
+                + "VALUES (?, ?, 'PERSONAL', false, ?, ?, ?)", withIds("task_id_seq", taskRows));
+        taskIds = jdbcTemplate.queryForList("SELECT id FROM tasks WHERE title LIKE 'bench %' ORDER BY id", Long.class);
+    }
+
+    @Test
+    void pooledIdsBatchInserts() {
+        // 改动后：号段主键，saveAll 在提交时按 batch_size 批量插入
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long pooledNanos = time(() -> transactionTemplate.executeWithoutResult(status -> {
+            List<UserTaskRelation> relations = new ArrayList<>(ROWS);
+            for (Long taskId : taskIds) {
+                UserTaskRelation relation = new UserTaskRelation();
+                relation.setUser(userRepository.getReferenceById(pooledUserId));
+                relation.setTask(taskRepository.getReferenceById(taskId));
+                relation.setStatus(UserTaskRelation.TaskStatus.TODO);
+                relations.add(relation);
+            }
+            userTaskRelationRepository.saveAll(relations);
+        }));
+        long statements = statistics.getPrepareStatementCount();
+
+        // 改动前：每行一条 INSERT，并取回自增主键（写入对照表，CREATE TABLE ... LIKE 复制列和索引）
+        jdbcTemplate.execute("CREATE TABLE bench_identity_utr LIKE user_task_relations");
+        jdbcTemplate.execute("ALTER TABLE bench_identity_utr MODIFY id bigint NOT NULL AUTO_INCREMENT");
+        long identityNanos;
+        try {
+            identityNanos = time(() -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (Long taskId : taskIds) {
+                    jdbcTemplate.update(connection -> {
+                        PreparedStatement ps = connection.prepareStatement(
+                                "INSERT INTO bench_identity_utr (user_id, task_id, status, created_at, updated_at) "
+                                        + "VALUES (?, ?, 'TODO', ?, ?)", Statement.RETURN_GENERATED_KEYS);
+                        ps.setLong(1, identityUserId);
+                        ps.setLong(2, taskId);
+                        ps.setTimestamp(3, now);
+                        ps.setTimestamp(4, now);
+                        return ps;
+                    }, new GeneratedKeyHolder());
+                }
+            });
+        } finally {
+            jdbcTemplate.execute("DROP TABLE bench_identity_utr");
+        }
+
+        logger.info("insert {} user_task_relations: row-by-row identity {} rows/s, pooled batch {} rows/s, {} statements",
+                ROWS, rowsPerSecond(identityNanos), rowsPerSecond(pooledNanos), statements);
+
+        // 每批一条 INSERT，每个号段一次取号（查询 + 更新），另留少量余量
+        int batches = (ROWS + IdGeneration.ALLOCATION_SIZE - 1) / IdGeneration.ALLOCATION_SIZE;
+        assertTrue(statements <= batches * 3L + 5, "批量插入语句数 " + statements);
+
+        Set<Long> ids = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM user_task_relations WHERE user_id = ?", Long.class, pooledUserId));
+        assertEquals(ROWS, ids.size());
+    }
+
+    private static long time(Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        return System.nanoTime() - start;
+    }
+
+    private static long rowsPerSecond(long nanos) {
+        return ROWS * 1_000_000_000L / Math.max(nanos, 1);
+    }
+}
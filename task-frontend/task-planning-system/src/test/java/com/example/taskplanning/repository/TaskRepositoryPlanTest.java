@@ -0,0 +1,124 @@
+package com.example.taskplanning.repository;
+
+import com.example.taskplanning.MySqlIntegrationTest;
+import com.example.taskplanning.entity.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 执行计划回归测试：任务列表的键集分页查询（TaskService.findTaskSliceByDeadline 使用的四个查询）必须是
+ * (class_id, is_deleted, deadline) / (creator_id, task_type, is_deleted, deadline) 索引上的范围扫描。
+ * 执行的是 Hibernate 为这些 JPQL 实际生成的SQL（SqlCapture 记录），参数按占位符顺序重新绑定。
+ * 需要 MySQL，启用方式见 MySqlIntegrationTest
+ */
+class TaskRepositoryPlanTest extends MySqlIntegrationTest {
+
+    private static final int USERS = 50;
+    private static final int PERSONAL_TASKS_PER_USER = 200;
+    private static final int CLASS_TASKS = 2000;
+    private static final int PAGE = 20;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final LocalDateTime AFTER_DEADLINE = BASE.plusMonths(6);
+    private static final long AFTER_ID = 100L;
+
+    private static Long userId;
+    private static Long classId;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Test
+    void classTasksWithoutDeadlineSeekOnIndex() {
+        assertIndexScan("findClassTasksWithoutDeadlineAfter",
+                captureSql(() -> taskRepository.findClassTasksWithoutDeadlineAfter(classId, AFTER_ID, PageRequest.of(0, PAGE))),
+                "idx_tasks_class_deleted_deadline", classId, AFTER_ID, PAGE);
+    }
+
+    @Test
+    void classTasksWithDeadlineSeekOnIndex() {
+        Timestamp after = Timestamp.valueOf(AFTER_DEADLINE);
+        assertIndexScan("findClassTasksWithDeadlineAfter",
+                captureSql(() -> taskRepository.findClassTasksWithDeadlineAfter(
+                        classId, AFTER_DEADLINE, AFTER_ID, PageRequest.of(0, PAGE))),
+                "idx_tasks_class_deleted_deadline", classId, after, after, after, AFTER_ID, PAGE);
+    }
+
+    @Test
+    void personalTasksWithoutDeadlineSeekOnIndex() {
+        assertIndexScan("findPersonalTasksWithoutDeadlineAfter",
+                captureSql(() -> taskRepository.findPersonalTasksWithoutDeadlineAfter(userId, AFTER_ID, PageRequest.of(0, PAGE))),
+                "idx_tasks_creator_type_deleted_deadline", userId, AFTER_ID, PAGE);
+    }
+
+    @Test
+    void personalTasksWithDeadlineSeekOnIndex() {
+        Timestamp after = Timestamp.valueOf(AFTER_DEADLINE);
+        assertIndexScan("findPersonalTasksWithDeadlineAfter",
+                captureSql(() -> taskRepository.findPersonalTasksWithDeadlineAfter(
+                        userId, AFTER_DEADLINE, AFTER_ID, PageRequest.of(0, PAGE))),
+                "idx_tasks_creator_type_deleted_deadline", userId, after, after, after, AFTER_ID, PAGE);
+    }
+
+    /**
+     * 执行查询并返回它发出的唯一一条SQL
+     */
+    private String captureSql(Supplier<List<Task>> query) {
+        SqlCapture.start();
+        List<Task> tasks = query.get();
+        List<String> sql = SqlCapture.stop();
+        assertFalse(tasks.isEmpty(), "测试数据应覆盖被检查的查询");
+        assertEquals(1, sql.size(), () -> "应只执行一条查询: " + sql);
+        return sql.get(0);
+    }
+
+    /**
+     * USERS 个用户各有 PERSONAL_TASKS_PER_USER 个个人任务，一个班级有 CLASS_TASKS 个任务，每10个任务中有一个没有截止时间
+     */
+    @Override
+    protected void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userRows.add(new Object[]{"plan_user_" + i, "plan_user_" + i + "@example.com", "plan_user_" + i, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, name, phone, email_verified, "
+                + "notification_settings, token_version, created_at, updated_at) VALUES (?, ?, 'x', ?, '000', true, true, 0, ?, ?)",
+                userRows);
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'plan_user_%' ORDER BY id", Long.class);
+        userId = userIds.get(0);
+
+        jdbcTemplate.update("INSERT INTO classes (name, invite_code, is_public, join_approval, status, owner_id, "
+                + "created_at, updated_at) VALUES ('plan_class', 'PLAN0001', true, true, 'ACTIVE', ?, ?, ?)", userId, now, now);
+        classId = jdbcTemplate.queryForObject("SELECT id FROM classes WHERE invite_code = 'PLAN0001'", Long.class);
+
+        List<Object[]> taskRows = new ArrayList<>();
+        for (Long creatorId : userIds) {
+            for (int i = 0; i < PERSONAL_TASKS_PER_USER; i++) {
+                taskRows.add(taskRow("personal " + i, "PERSONAL", creatorId, null, BASE.plusDays(i * 7L / 2), i));
+            }
+        }
+        for (int i = 0; i < CLASS_TASKS; i++) {
+            taskRows.add(taskRow("class " + i, "CLASS", userId, classId, BASE.plusHours(i * 9L), i));
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, title, task_type, is_deleted, creator_id, class_id, created_at, "
+                + "updated_at, deadline) VALUES (?, ?, ?, false, ?, ?, ?, ?, ?)", withIds("task_id_seq", taskRows));
+
+        jdbcTemplate.execute("ANALYZE TABLE tasks");
+    }
+
+    private Object[] taskRow(String title, String type, Long creatorId, Long classId, LocalDateTime createdAt, int i) {
+        Timestamp deadline = i % 10 == 0 ? null : Timestamp.valueOf(createdAt.plusDays(20));
+        return new Object[]{title, type, creatorId, classId, Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt), deadline};
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 认证接口限流测试：按IP和按账号两个维度，超出限额返回429
+ * 补充速率取每分钟1个，测试在毫秒内完成，期间不会补充令牌
+ */
+class AuthRateLimitServiceTest {
+
+    private AuthRateLimitService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AuthRateLimitService(mock(MetricsService.class), 3, 1, 2, 1, 1000);
+    }
+
+    @Test
+    void sameAccountFromManyAddressesIsLimited() {
+        service.checkLogin("10.0.0.1", "alice");
+        service.checkLogin("10.0.0.2", "Alice ");
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.checkLogin("10.0.0.3", "ALICE"));
+        assertEquals("TOO_MANY_REQUESTS", e.getErrorCode());
+        assertEquals(429, e.getHttpStatus());
+    }
+
+    @Test
+    void sameAddressForManyAccountsIsLimited() {
+        service.checkLogin("10.0.0.1", "a");
+        service.checkLogin("10.0.0.1", "b");
+        service.checkLogin("10.0.0.1", "c");
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.checkLogin("10.0.0.1", "d"));
+        assertEquals(429, e.getHttpStatus());
+        // 其他地址不受影响
+        service.checkLogin("10.0.0.2", "d");
+    }
+
+    @Test
+    void scopesHaveSeparateBuckets() {
+        service.checkLogin("10.0.0.1", "alice");
+        service.checkLogin("10.0.0.1", "alice");
+
+        service.checkResendVerification("10.0.0.1", "alice");
+        service.checkResendVerification("10.0.0.1", "alice");
+        assertThrows(BusinessException.class, () -> service.checkResendVerification("10.0.0.1", "alice"));
+    }
+}
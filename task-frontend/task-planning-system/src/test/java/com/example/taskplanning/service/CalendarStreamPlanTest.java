@@ -0,0 +1,78 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 执行计划回归测试：日历区间接口的三种分组SQL（CalendarStreamService.Grouping.sql()）
+ * 都必须是 calendar_entries 上 (user_id, entry_day) 唯一索引的范围扫描，不随其他用户的数据量增长。
+ * 需要 MySQL，启用方式见 MySqlIntegrationTest
+ */
+class CalendarStreamPlanTest extends MySqlIntegrationTest {
+
+    private static final int USERS = 50;
+    private static final int TASKS_PER_USER = 200;
+    private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FROM = BASE.plusMonths(6);
+    private static final LocalDate TO = FROM.plusMonths(1).minusDays(1);
+
+    private static Long userId;
+
+    @Test
+    void rangeQueriesScanUserDayIndex() {
+        for (CalendarStreamService.Grouping grouping : CalendarStreamService.Grouping.values()) {
+            assertIndexScan("calendar range " + grouping, grouping.sql(), "uk_calendar_entries_user_day_task",
+                    userId, Date.valueOf(FROM), Date.valueOf(TO));
+        }
+    }
+
+    /**
+     * USERS 个用户，每人 TASKS_PER_USER 个个人任务，每个任务在创建日和截止日各有一条日历记录
+     */
+    @Override
+    protected void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userRows.add(new Object[]{"cal_plan_user_" + i, "cal_plan_user_" + i + "@example.com", "cal_plan_user_" + i, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, name, phone, email_verified, "
+                + "notification_settings, token_version, created_at, updated_at) VALUES (?, ?, 'x', ?, '000', true, true, 0, ?, ?)",
+                userRows);
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'cal_plan_user_%' ORDER BY id", Long.class);
+        userId = userIds.get(0);
+
+        List<Object[]> taskRows = new ArrayList<>();
+        for (Long creatorId : userIds) {
+            for (int i = 0; i < TASKS_PER_USER; i++) {
+                LocalDateTime createdAt = BASE.plusDays(i * 7L / 2).atTime(8, 0);
+                taskRows.add(new Object[]{"task " + i, creatorId, Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt),
+                        Timestamp.valueOf(createdAt.plusDays(20))});
+            }
+        }
+        List<Object[]> tasks = withIds("task_id_seq", taskRows);
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, title, task_type, is_deleted, creator_id, created_at, updated_at, "
+                + "deadline) VALUES (?, ?, 'PERSONAL', false, ?, ?, ?, ?)", tasks);
+
+        List<Object[]> entryRows = new ArrayList<>();
+        for (Object[] task : tasks) {
+            LocalDateTime createdAt = ((Timestamp) task[3]).toLocalDateTime();
+            LocalDateTime deadline = ((Timestamp) task[5]).toLocalDateTime();
+            for (LocalDate day : List.of(createdAt.toLocalDate(), deadline.toLocalDate())) {
+                entryRows.add(new Object[]{task[2], Date.valueOf(day), task[0], task[1], task[5], task[3]});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO calendar_entries (user_id, entry_day, task_id, title, task_type, deadline, "
+                + "task_created_at) VALUES (?, ?, ?, ?, 'PERSONAL', ?, ?)", entryRows);
+
+        jdbcTemplate.execute("ANALYZE TABLE tasks, calendar_entries");
+    }
+}
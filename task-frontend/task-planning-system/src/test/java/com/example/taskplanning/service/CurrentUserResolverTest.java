@@ -0,0 +1,96 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.config.CustomUserDetails;
+import com.example.taskplanning.entity.User;
+import com.example.taskplanning.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 查询计数测试：一个请求内（权限检查 -> Service -> 日志切面）当前用户最多被加载一次
+ */
+class CurrentUserResolverTest {
+
+    private static final Long USER_ID = 42L;
+
+    private UserRepository userRepository;
+    private CurrentUserResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        resolver = new CurrentUserResolver(userRepository);
+
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername("alice");
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(user);
+
+        CustomUserDetails principal = new CustomUserDetails(USER_ID, "alice", null,
+                List.of(new SimpleGrantedAuthority("USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void idAndReferenceDoNotLoadUser() {
+        // 权限检查 (SecurityService) 与列表查询只需要ID，日志切面只需要引用
+        assertEquals(USER_ID, resolver.getCurrentUserId());
+        assertEquals(USER_ID, resolver.getCurrentUserId());
+        resolver.getCurrentUserReference();
+
+        verify(userRepository, never()).findById(USER_ID);
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void fullEntityIsLoadedAtMostOncePerRequest() {
+        // 模拟 PUT /api/tasks/{id}/status：SecurityService、TaskService、LoggingAspect 依次解析当前用户
+        resolver.getCurrentUserId();
+        User first = resolver.getCurrentUser();
+        User second = resolver.getCurrentUser();
+        resolver.getCurrentUserReference();
+
+        assertSame(first, second);
+        verify(userRepository, times(1)).findById(USER_ID);
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void eachRequestLoadsItsOwnCopy() {
+        resolver.getCurrentUser();
+
+        // 新请求
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        resolver.getCurrentUser();
+
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+}
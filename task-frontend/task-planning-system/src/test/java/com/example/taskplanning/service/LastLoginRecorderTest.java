@@ -0,0 +1,169 @@
+package com.example.taskplanning.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 最后登录时间批量写入测试：一批用户合并成一条 CASE UPDATE，参数与 WHEN/IN 占位符一一对应；
+ * 同一用户只写最后一次登录时间，写入失败的记录在下一次刷新时重试
+ */
+class LastLoginRecorderTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    private RecordingJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new RecordingJdbcTemplate();
+    }
+
+    @Test
+    void flushWritesOneCaseUpdateForTheWholeBatch() {
+        LastLoginRecorder recorder = recorder(500);
+        recorder.record(1L, T0);
+        recorder.record(2L, T0.plusMinutes(1));
+
+        recorder.flush();
+
+        assertEquals(1, jdbcTemplate.statements.size());
+        Statement statement = jdbcTemplate.statements.get(0);
+        assertEquals("UPDATE users SET last_login_at = CASE id WHEN ? THEN ? WHEN ? THEN ? END WHERE id IN (?,?)",
+                statement.sql());
+        assertEquals(6, statement.args().length);
+        assertEquals(Map.of(1L, T0, 2L, T0.plusMinutes(1)), jdbcTemplate.lastLoginAt);
+    }
+
+    @Test
+    void repeatedLoginsKeepTheLatestTime() {
+        LastLoginRecorder recorder = recorder(500);
+        recorder.record(1L, T0.plusMinutes(5));
+        recorder.record(1L, T0);
+        recorder.record(1L, T0.plusMinutes(3));
+
+        recorder.flush();
+
+        assertEquals(1, jdbcTemplate.statements.size());
+        assertEquals(Map.of(1L, T0.plusMinutes(5)), jdbcTemplate.lastLoginAt);
+    }
+
+    @Test
+    void largeBufferIsSplitIntoBatches() {
+        LastLoginRecorder recorder = recorder(2);
+        for (long userId = 1; userId <= 5; userId++) {
+            recorder.record(userId, T0.plusMinutes(userId));
+        }
+
+        recorder.flush();
+
+        assertEquals(List.of(2, 2, 1), jdbcTemplate.statements.stream().map(Statement::rows).toList());
+        assertEquals(5, jdbcTemplate.lastLoginAt.size());
+        for (long userId = 1; userId <= 5; userId++) {
+            assertEquals(T0.plusMinutes(userId), jdbcTemplate.lastLoginAt.get(userId));
+        }
+    }
+
+    @Test
+    void emptyBufferIssuesNoStatement() {
+        recorder(500).flush();
+
+        assertTrue(jdbcTemplate.statements.isEmpty());
+    }
+
+    @Test
+    void failedBatchIsRetriedAndNewerLoginWins() {
+        LastLoginRecorder recorder = recorder(500);
+        recorder.record(1L, T0);
+        recorder.record(2L, T0);
+
+        jdbcTemplate.failNext = true;
+        recorder.flush();
+        assertTrue(jdbcTemplate.lastLoginAt.isEmpty());
+
+        // 失败后到下次刷新之间用户1再次登录
+        recorder.record(1L, T0.plusMinutes(10));
+        recorder.flush();
+
+        assertEquals(Map.of(1L, T0.plusMinutes(10), 2L, T0), jdbcTemplate.lastLoginAt);
+
+        // 已写入的记录不会再次写入
+        int statements = jdbcTemplate.statements.size();
+        recorder.flush();
+        assertEquals(statements, jdbcTemplate.statements.size());
+    }
+
+    @Test
+    void drainFlushesRemainingRecords() {
+        LastLoginRecorder recorder = recorder(500);
+        recorder.record(3L, T0);
+
+        recorder.drain();
+
+        assertEquals(Map.of(3L, T0), jdbcTemplate.lastLoginAt);
+    }
+
+    private LastLoginRecorder recorder(int batchSize) {
+        return new LastLoginRecorder(jdbcTemplate, batchSize, mock(MetricsService.class));
+    }
+
+    private record Statement(String sql, Object[] args) {
+
+        int rows() {
+            return args.length / 3;
+        }
+    }
+
+    /**
+     * 记录执行的语句，并按 CASE id WHEN ? THEN ? ... END WHERE id IN (...) 的语义更新内存中的 users.last_login_at：
+     * 只有同时出现在 IN 列表中的 WHEN 分支才会生效
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<Statement> statements = new ArrayList<>();
+        private final Map<Long, LocalDateTime> lastLoginAt = new HashMap<>();
+        private boolean failNext;
+
+        @Override
+        public int update(String sql, Object... args) {
+            statements.add(new Statement(sql, args));
+            if (failNext) {
+                failNext = false;
+                throw new QueryTimeoutException("simulated");
+            }
+
+            int rows = args.length / 3;
+            assertEquals(rows, countOccurrences(sql, "WHEN ? THEN ?"));
+            Map<Long, LocalDateTime> cases = new HashMap<>();
+            for (int i = 0; i < rows; i++) {
+                cases.put((Long) args[2 * i], ((Timestamp) args[2 * i + 1]).toLocalDateTime());
+            }
+            for (int i = 2 * rows; i < args.length; i++) {
+                Long id = (Long) args[i];
+                assertTrue(cases.containsKey(id), "id " + id + " has no WHEN branch");
+                lastLoginAt.put(id, cases.get(id));
+            }
+            return rows;
+        }
+
+        private static int countOccurrences(String text, String token) {
+            int count = 0;
+            for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + token.length())) {
+                count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.MySqlIntegrationTest;
+import com.example.taskplanning.config.CustomUserDetails;
+import com.example.taskplanning.dto.TaskResponseDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 查询计数测试：每个列表接口的SQL条数是固定值，与页大小无关（关联的用户、班级、班级创建者由实体图一并取回，没有逐行懒加载）
+ * 数据中每行的创建者/申请人/班级都不相同，出现N+1时页越大语句越多。
+ * 用 Hibernate Statistics 统计预编译语句条数；权限缓存先预热一次，再分别以两种页大小计数。
+ * 需要 MySQL，启用方式见 MySqlIntegrationTest
+ */
+class ListQueryCountTest extends MySqlIntegrationTest {
+
+    private static final int MEMBERS = 30;
+    private static final int OTHER_CLASSES = 25;
+    private static final int APPLICANTS = 30;
+    private static final int TASKS = 30;
+    private static final int SMALL_PAGE = 5;
+    private static final int LARGE_PAGE = 20;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final Pattern LARGE_TEXT_COLUMN = Pattern.compile("\\b(description|personal_notes)\\b");
+
+    private static Long managerId;
+    private static Long classId;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private ClassService classService;
+    @Autowired
+    private ApprovalService approvalService;
+
+    @BeforeEach
+    void setUp() {
+        CustomUserDetails principal = new CustomUserDetails(managerId, "count_user_0", null,
+                List.of(new SimpleGrantedAuthority("USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void classTasks() {
+        // 任务页 + 总数 + 当前用户的任务关系
+        assertQueryCount("getClassTasks", 3,
+                size -> taskService.getClassTasks(classId, PageRequest.of(0, size)));
+        // 无截止时间段 + 有截止时间段 + 当前用户的任务关系
+        assertQueryCount("getClassTaskSlice", 3,
+                size -> taskService.getClassTaskSlice(classId, null, size));
+        // slice模式：任务页（多查一条） + 当前用户的任务关系，不执行COUNT
+        assertQueryCount("getClassTaskSlice(slice)", 2,
+                size -> taskService.getClassTaskSlice(classId, PageRequest.of(0, size), false));
+    }
+
+    @Test
+    void personalTasks() {
+        assertQueryCount("getPersonalTasks", 3,
+                size -> taskService.getPersonalTasks(PageRequest.of(0, size)));
+        assertQueryCount("getPersonalTaskSlice", 3,
+                size -> taskService.getPersonalTaskSlice(null, size));
+        assertQueryCount("getPersonalTaskSlice(slice)", 2,
+                size -> taskService.getPersonalTaskSlice(PageRequest.of(0, size), false));
+    }
+
+    @Test
+    void classMembersAndApprovals() {
+        // 成员页 + 总数
+        assertQueryCount("getMemberList", 2,
+                size -> classService.getMemberList(classId, PageRequest.of(0, size, Sort.by("joinedAt", "id"))));
+        assertQueryCount("getMemberSlice", 1,
+                size -> classService.getMemberSlice(classId, null, size));
+        assertQueryCount("getMemberSlice(slice)", 1,
+                size -> classService.getMemberSlice(classId, PageRequest.of(0, size, Sort.by("joinedAt", "id")), false));
+        // 班级 + 申请页 + 总数
+        assertQueryCount("getApprovalList", 3,
+                size -> classService.getApprovalList(classId, PageRequest.of(0, size, Sort.by("createdAt", "id"))));
+        // 班级是否存在 + 申请页
+        assertQueryCount("getApprovalSlice", 2,
+                size -> classService.getApprovalSlice(classId, null, size));
+        assertQueryCount("getApprovalSlice(slice)", 2,
+                size -> classService.getApprovalSlice(classId, PageRequest.of(0, size, Sort.by("createdAt", "id")), false));
+    }
+
+    @Test
+    void myClasses() {
+        // 关系页（含班级及其创建者） + 总数
+        assertQueryCount("getMyClasses", 2,
+                size -> classService.getMyClasses(PageRequest.of(0, size, Sort.by("joinedAt", "id"))));
+        assertQueryCount("getMyClassSlice", 1,
+                size -> classService.getMyClassSlice(PageRequest.of(0, size, Sort.by("joinedAt", "id")), false));
+    }
+
+    @Test
+    void globalPendingApprovals() {
+        assertQueryCount("getGlobalPendingApprovals", 2,
+                size -> approvalService.getGlobalPendingApprovals(PageRequest.of(0, size)));
+        assertQueryCount("getGlobalPendingApprovalSlice", 1,
+                size -> approvalService.getGlobalPendingApprovalSlice(null, size));
+        assertQueryCount("getGlobalPendingApprovalSlice(slice)", 1,
+                size -> approvalService.getGlobalPendingApprovalSlice(PageRequest.of(0, size), false));
+    }
+
+    @Test
+    void largeTextOnlyInDetail() {
+        // 列表SQL不选择描述和个人备注列（不只是DTO里为空），详情接口单独取回
+        SqlCapture.start();
+        TaskResponseDto listed = taskService.getPersonalTasks(PageRequest.of(0, SMALL_PAGE)).getContent().get(0);
+        List<String> listSql = SqlCapture.stop();
+        assertFalse(listSql.isEmpty());
+        listSql.forEach(sql -> assertFalse(LARGE_TEXT_COLUMN.matcher(sql).find(), "列表SQL选择了大文本列: " + sql));
+        assertNull(listed.getDescription());
+
+        SqlCapture.start();
+        assertEquals(8000, taskService.getTaskDetail(listed.getId()).getDescription().length());
+        assertTrue(SqlCapture.stop().stream().anyMatch(sql -> LARGE_TEXT_COLUMN.matcher(sql).find()));
+    }
+
+    private void assertQueryCount(String name, long expected, IntConsumer call) {
+        // 预热权限缓存等与页大小无关的缓存
+        call.accept(SMALL_PAGE);
+        assertEquals(expected, countStatements(call, SMALL_PAGE), name + " 页大小 " + SMALL_PAGE);
+        assertEquals(expected, countStatements(call, LARGE_PAGE), name + " 页大小 " + LARGE_PAGE);
+    }
+
+    private long countStatements(IntConsumer call, int size) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        call.accept(size);
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * 用户0 是主班级的创建者，另外以管理员身份加入 OTHER_CLASSES 个由不同用户创建的班级；
+     * 主班级有 MEMBERS-1 个成员、APPLICANTS 个待审批申请，其他班级各有若干待审批申请；
+     * 主班级的任务由不同成员创建，用户0 另有 TASKS 个个人任务。各数量都大于最大页大小，保证每页都是满的。
+     */
+    @Override
+    protected void seed() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 0; i < MEMBERS + APPLICANTS; i++) {
+            userRows.add(new Object[]{"count_user_" + i, "count_user_" + i + "@example.com", "count_user_" + i, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, name, phone, email_verified, "
+                + "notification_settings, token_version, created_at, updated_at) VALUES (?, ?, 'x', ?, '000', true, true, 0, ?, ?)",
+                userRows);
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'count_user_%' ORDER BY id", Long.class);
+        managerId = userIds.get(0);
+
+        // 班级0 由用户0 创建，班级 i 由用户 i 创建
+        List<Object[]> classRows = new ArrayList<>();
+        for (int i = 0; i <= OTHER_CLASSES; i++) {
+            classRows.add(new Object[]{"count_class_" + i, "CNT" + String.format("%05d", i), userIds.get(i), now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO classes (name, invite_code, is_public, join_approval, status, owner_id, "
+                + "created_at, updated_at) VALUES (?, ?, true, true, 'ACTIVE', ?, ?, ?)", classRows);
+        List<Long> classIds = jdbcTemplate.queryForList(
+                "SELECT id FROM classes WHERE name LIKE 'count_class_%' ORDER BY id", Long.class);
+        classId = classIds.get(0);
+
+        List<Object[]> relationRows = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            relationRows.add(relationRow(userIds.get(i), classId, i == 0 ? "OWNER" : "MEMBER", "APPROVED", i));
+        }
+        for (int i = 1; i <= OTHER_CLASSES; i++) {
+            relationRows.add(relationRow(userIds.get(i), classIds.get(i), "OWNER", "APPROVED", i));
+            relationRows.add(relationRow(managerId, classIds.get(i), "ADMIN", "APPROVED", i));
+        }
+        for (int i = 0; i < APPLICANTS; i++) {
+            Long applicantId = userIds.get(MEMBERS + i);
+            relationRows.add(relationRow(applicantId, classId, "MEMBER", "PENDING", i));
+            relationRows.add(relationRow(applicantId, classIds.get(1 + i % OTHER_CLASSES), "MEMBER", "PENDING", i));
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_class_relations (id, user_id, class_id, role, status, joined_at, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", withIds("user_class_relation_id_seq", relationRows));
+
+        List<Object[]> taskRows = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Timestamp createdAt = Timestamp.valueOf(BASE.plusDays(i));
+            Timestamp deadline = Timestamp.valueOf(BASE.plusDays(i + 7));
+            taskRows.add(new Object[]{"class " + i, "CLASS", userIds.get(i % MEMBERS), classId, createdAt, createdAt, deadline});
+            taskRows.add(new Object[]{"personal " + i, "PERSONAL", managerId, null, createdAt, createdAt, deadline});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, title, task_type, is_deleted, creator_id, class_id, created_at, "
+                + "updated_at, deadline, description) VALUES (?, ?, ?, false, ?, ?, ?, ?, ?, REPEAT('d', 8000))",
+                withIds("task_id_seq", taskRows));
+
+        // 用户0 关联一半的班级任务和全部个人任务
+        List<Long> linkedTaskIds = jdbcTemplate.queryForList("SELECT id FROM tasks "
+                + "WHERE (task_type = 'CLASS' AND class_id = ? AND MOD(id, 2) = 0) OR (task_type = 'PERSONAL' AND creator_id = ?)",
+                Long.class, classId, managerId);
+        List<Object[]> linkRows = new ArrayList<>();
+        for (Long taskId : linkedTaskIds) {
+            linkRows.add(new Object[]{managerId, taskId, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_task_relations (id, user_id, task_id, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, 'TODO', ?, ?)", withIds("user_task_relation_id_seq", linkRows));
+    }
+
+    private Object[] relationRow(Long userId, Long classId, String role, String status, int order) {
+        Timestamp at = Timestamp.valueOf(BASE.plusHours(order));
+        return new Object[]{userId, classId, role, status, "APPROVED".equals(status) ? at : null, at, at};
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.entity.RefreshToken;
+import com.example.taskplanning.entity.User;
+import com.example.taskplanning.event.TokenVersionChangedEvent;
+import com.example.taskplanning.exception.BusinessException;
+import com.example.taskplanning.repository.RefreshTokenRepository;
+import com.example.taskplanning.repository.UserRepository;
+import com.example.taskplanning.util.TokenDigests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 刷新令牌轮换测试：已使用过的刷新令牌被再次出示时，吊销该用户的全部令牌并返回错误
+ */
+class RefreshTokenServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final String RAW_TOKEN = "raw-refresh-token";
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private RefreshTokenService refreshTokenService;
+    private RefreshToken stored;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        userRepository = mock(UserRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(userRepository.findNonDefaultTokenVersions()).thenReturn(List.of());
+        TokenVersionService tokenVersionService = new TokenVersionService(userRepository, refreshTokenRepository, eventPublisher);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, tokenVersionService);
+
+        User user = new User();
+        user.setId(USER_ID);
+        stored = new RefreshToken();
+        stored.setUser(user);
+        stored.setTokenHash(TokenDigests.sha256Hex(RAW_TOKEN));
+        stored.setExpiresAt(LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+    }
+
+    @Test
+    void firstUseConsumesTheToken() {
+        when(refreshTokenRepository.revokeIfActive(stored.getTokenHash())).thenReturn(1);
+
+        assertSame(stored, refreshTokenService.consume(RAW_TOKEN));
+        verify(refreshTokenRepository, never()).revokeAllByUserId(any());
+        verify(userRepository, never()).incrementTokenVersion(any());
+    }
+
+    @Test
+    void replayRevokesAllTokensOfTheUser() {
+        // 第一次使用成功，条件更新作废了令牌；同一令牌再次出示时更新0行
+        when(refreshTokenRepository.revokeIfActive(stored.getTokenHash())).thenReturn(1, 0);
+        when(userRepository.findTokenVersionById(USER_ID)).thenReturn(Optional.of(1));
+        refreshTokenService.consume(RAW_TOKEN);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> refreshTokenService.consume(RAW_TOKEN));
+
+        assertEquals("INVALID_REFRESH_TOKEN", e.getErrorCode());
+        assertEquals(401, e.getHttpStatus());
+        verify(refreshTokenRepository).revokeAllByUserId(USER_ID);
+        // 已签发的访问令牌同样作废：版本号递增，提交后更新内存版本表
+        verify(userRepository).incrementTokenVersion(USER_ID);
+        verify(eventPublisher).publishEvent(new TokenVersionChangedEvent(USER_ID, 1));
+    }
+
+    @Test
+    void unknownTokenIsRejectedWithoutRevokingAnything() {
+        BusinessException e = assertThrows(BusinessException.class, () -> refreshTokenService.consume("unknown"));
+
+        assertEquals("INVALID_REFRESH_TOKEN", e.getErrorCode());
+        verify(refreshTokenRepository, never()).revokeIfActive(any());
+        verify(refreshTokenRepository, never()).revokeAllByUserId(any());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.dto.SliceResponseDto;
+import com.example.taskplanning.dto.TaskResponseDto;
+import com.example.taskplanning.entity.Task;
+import com.example.taskplanning.entity.User;
+import com.example.taskplanning.repository.ClassRepository;
+import com.example.taskplanning.repository.TaskRepository;
+import com.example.taskplanning.repository.UserClassRelationRepository;
+import com.example.taskplanning.repository.UserTaskRelationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 键集分页顺序测试：没有截止时间的任务按ID排在最前，之后按 (deadline, id) 升序；
+ * 任意每页条数下逐页翻完，结果与整体排序一致，不重复也不遗漏（包括截止时间相同的任务跨页）
+ */
+class TaskKeysetPagingTest {
+
+    private static final Long USER_ID = 7L;
+    private static final LocalDateTime D1 = LocalDateTime.of(2030, 1, 1, 8, 0);
+    private static final LocalDateTime D2 = LocalDateTime.of(2030, 1, 2, 8, 0);
+    private static final LocalDateTime D3 = LocalDateTime.of(2030, 1, 3, 8, 0);
+
+    /** 期望的翻页顺序 */
+    private static final List<Long> EXPECTED = List.of(3L, 8L, 12L, 2L, 9L, 1L, 5L, 6L, 4L);
+
+    private final List<Task> tasks = new ArrayList<>();
+    private TaskRepository taskRepository;
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        // 故意打乱插入顺序，顺序只能来自查询条件和排序
+        tasks.add(task(6L, D2));
+        tasks.add(task(12L, null));
+        tasks.add(task(1L, D2));
+        tasks.add(task(9L, D1));
+        tasks.add(task(3L, null));
+        tasks.add(task(4L, D3));
+        tasks.add(task(5L, D2));
+        tasks.add(task(8L, null));
+        tasks.add(task(2L, D1));
+
+        taskRepository = mock(TaskRepository.class);
+        CurrentUserResolver currentUserResolver = mock(CurrentUserResolver.class);
+        when(currentUserResolver.getCurrentUserId()).thenReturn(USER_ID);
+
+        // 按仓库方法上的JPQL语义在内存中模拟两段查询
+        when(taskRepository.findPersonalTasksWithoutDeadlineAfter(eq(USER_ID), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    Long afterId = inv.getArgument(1);
+                    Pageable pageable = inv.getArgument(2);
+                    return tasks.stream()
+                            .filter(task -> task.getDeadline() == null && task.getId() > afterId)
+                            .sorted(Comparator.comparing(Task::getId))
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+        when(taskRepository.findPersonalTasksWithDeadlineAfter(eq(USER_ID), any(), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    LocalDateTime afterDeadline = inv.getArgument(1);
+                    Long afterId = inv.getArgument(2);
+                    Pageable pageable = inv.getArgument(3);
+                    return tasks.stream()
+                            .filter(task -> task.getDeadline() != null)
+                            .filter(task -> afterDeadline == null || task.getDeadline().isAfter(afterDeadline)
+                                    || (task.getDeadline().isEqual(afterDeadline) && task.getId() > afterId))
+                            .sorted(Comparator.comparing(Task::getDeadline).thenComparing(Task::getId))
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+
+        taskService = new TaskService(taskRepository, mock(UserTaskRelationRepository.class),
+                mock(UserClassRelationRepository.class), mock(ClassRepository.class), currentUserResolver,
+                mock(MembershipCache.class), mock(TaskAclCache.class), mock(ApplicationEventPublisher.class),
+                mock(CalendarReadModelService.class), mock(ListCountCache.class));
+    }
+
+    @Test
+    void everyPageSizeWalksTheSameOrder() {
+        for (int size = 1; size <= EXPECTED.size() + 1; size++) {
+            List<Long> seen = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                SliceResponseDto<TaskResponseDto> page = taskService.getPersonalTaskSlice(cursor, size);
+                page.getContent().forEach(dto -> seen.add(dto.getId()));
+                assertTrue(page.getContent().size() <= size);
+                cursor = page.isHasNext() ? page.getNextCursor() : null;
+                if (!page.isHasNext()) {
+                    assertNull(page.getNextCursor());
+                }
+                pages++;
+            } while (cursor != null);
+
+            assertEquals(EXPECTED, seen, "size=" + size);
+            assertEquals((EXPECTED.size() + size - 1) / size, pages, "size=" + size);
+        }
+    }
+
+    @Test
+    void pageEndingOnLastNullDeadlineContinuesWithDeadlines() {
+        SliceResponseDto<TaskResponseDto> first = taskService.getPersonalTaskSlice(null, 3);
+        assertEquals(List.of(3L, 8L, 12L), ids(first));
+        assertTrue(first.isHasNext());
+
+        SliceResponseDto<TaskResponseDto> second = taskService.getPersonalTaskSlice(first.getNextCursor(), 3);
+        assertEquals(List.of(2L, 9L, 1L), ids(second));
+    }
+
+    @Test
+    void cursorInsideDeadlineSectionSkipsNullDeadlineQuery() {
+        SliceResponseDto<TaskResponseDto> first = taskService.getPersonalTaskSlice(null, 4);
+        assertEquals(List.of(3L, 8L, 12L, 2L), ids(first));
+        clearInvocations(taskRepository);
+
+        // 游标停在截止时间相同的两个任务之间
+        SliceResponseDto<TaskResponseDto> second = taskService.getPersonalTaskSlice(first.getNextCursor(), 2);
+        assertEquals(List.of(9L, 1L), ids(second));
+        verify(taskRepository, never()).findPersonalTasksWithoutDeadlineAfter(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        SliceResponseDto<TaskResponseDto> all = taskService.getPersonalTaskSlice(null, EXPECTED.size());
+        assertEquals(EXPECTED, ids(all));
+        assertFalse(all.isHasNext());
+        assertNull(all.getNextCursor());
+    }
+
+    private static List<Long> ids(SliceResponseDto<TaskResponseDto> slice) {
+        return slice.getContent().stream().map(TaskResponseDto::getId).toList();
+    }
+
+    private static Task task(Long id, LocalDateTime deadline) {
+        User creator = new User();
+        creator.setId(USER_ID);
+        creator.setName("alice");
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle("task " + id);
+        task.setTaskType(Task.TaskType.PERSONAL);
+        task.setDeadline(deadline);
+        task.setCreator(creator);
+        return task;
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.taskplanning.service;
+
+import com.example.taskplanning.dto.TaskAclDto;
+import com.example.taskplanning.dto.TaskCreateDto;
+import com.example.taskplanning.dto.TaskDetailRow;
+import com.example.taskplanning.dto.TaskPermissionDto;
+import com.example.taskplanning.dto.TaskStatusUpdateDto;
+import com.example.taskplanning.entity.Classes;
+import com.example.taskplanning.entity.Task;
+import com.example.taskplanning.entity.User;
+import com.example.taskplanning.entity.UserClassRelation;
+import com.example.taskplanning.entity.UserTaskRelation;
+import com.example.taskplanning.exception.BusinessException;
+import com.example.taskplanning.repository.ClassRepository;
+import com.example.taskplanning.repository.TaskRepository;
+import com.example.taskplanning.repository.UserClassRelationRepository;
+import com.example.taskplanning.repository.UserTaskRelationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 权限一致性测试：批量权限接口的结果必须与单个任务接口的实际行为一致
+ * 访问：任务详情、更新个人状态、SecurityService.canAccessTask；编辑：修改、删除、SecurityService.canEditTask
+ */
+class TaskPermissionConsistencyTest {
+
+    private static final Long CLASS_ID = 10L;
+    private static final Long CLASS_TASK_ID = 100L;
+    private static final Long PERSONAL_TASK_ID = 200L;
+
+    private static final Long CREATOR = 1L;
+    private static final Long MANAGER = 2L;
+    private static final Long APPROVED_UNLINKED = 3L;
+    private static final Long LINKED = 4L;
+    private static final Long PENDING = 5L;
+    private static final Long NON_MEMBER = 6L;
+
+    /**
+     * 每个用户在班级中的角色/状态，以及是否已关联班级任务
+     */
+    private static final Map<Long, Facts> FACTS = Map.of(
+            CREATOR, new Facts(UserClassRelation.RoleInClass.ADMIN, UserClassRelation.JoinStatus.APPROVED, false),
+            MANAGER, new Facts(UserClassRelation.RoleInClass.OWNER, UserClassRelation.JoinStatus.APPROVED, false),
+            APPROVED_UNLINKED, new Facts(UserClassRelation.RoleInClass.MEMBER, UserClassRelation.JoinStatus.APPROVED, false),
+            LINKED, new Facts(UserClassRelation.RoleInClass.MEMBER, UserClassRelation.JoinStatus.APPROVED, true),
+            PENDING, new Facts(UserClassRelation.RoleInClass.ADMIN, UserClassRelation.JoinStatus.PENDING, true),
+            NON_MEMBER, new Facts(null, null, false));
+
+    private Long currentUserId;
+    private TaskRepository taskRepository;
+    private TaskService taskService;
+    private SecurityService securityService;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        UserTaskRelationRepository userTaskRelationRepository = mock(UserTaskRelationRepository.class);
+        CurrentUserResolver currentUserResolver = mock(CurrentUserResolver.class);
+        MembershipCache membershipCache = mock(MembershipCache.class);
+        TaskAclCache taskAclCache = mock(TaskAclCache.class);
+
+        when(currentUserResolver.getCurrentUserId()).thenAnswer(inv -> currentUserId);
+        when(currentUserResolver.getCurrentUserReference()).thenAnswer(inv -> user(currentUserId));
+        when(membershipCache.canManage(anyLong(), any())).thenAnswer(inv ->
+                CLASS_ID.equals(inv.getArgument(1)) && facts(inv.getArgument(0)).membership().canManage());
+
+        // 每次加载都返回新的实体，删除接口的软删除不影响后续断言
+        when(taskRepository.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(task(inv.getArgument(0))));
+        when(taskAclCache.get(anyLong())).thenAnswer(inv -> acl(task(inv.getArgument(0))));
+        when(taskRepository.findDetailRow(anyLong(), anyLong())).thenAnswer(inv ->
+                Optional.ofNullable(task(inv.getArgument(1))).map(task -> detailRow(inv.getArgument(0), task)));
+        when(taskRepository.findPermissionRows(anyLong(), anyCollection())).thenAnswer(inv -> {
+            Long userId = inv.getArgument(0);
+            List<Object[]> rows = new ArrayList<>();
+            for (Object id : (Iterable<?>) inv.getArgument(1)) {
+                Task task = task((Long) id);
+                if (task == null) {
+                    continue;
+                }
+                Facts facts = task.getClassEntity() != null ? facts(userId) : new Facts(null, null, false);
+                rows.add(new Object[]{task.getId(), task.getTaskType(), task.getCreator().getId(),
+                        task.getClassEntity() != null ? task.getClassEntity().getId() : null,
+                        facts.role(), facts.status(), isLinked(userId, task.getId())});
+            }
+            return rows;
+        });
+        when(taskRepository.save(any(Task.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(taskRepository.markDeleted(anyLong(), any())).thenAnswer(inv -> task(inv.getArgument(0)) == null ? 0 : 1);
+
+        when(userTaskRelationRepository.findByUserIdAndTaskId(anyLong(), anyLong())).thenAnswer(inv -> {
+            Long userId = inv.getArgument(0);
+            Long taskId = inv.getArgument(1);
+            if (!isLinked(userId, taskId)) {
+                return Optional.empty();
+            }
+            UserTaskRelation relation = new UserTaskRelation();
+            relation.setId(1000L + userId);
+            relation.setUser(user(userId));
+            relation.setTask(task(taskId));
+            relation.setStatus(UserTaskRelation.TaskStatus.TODO);
+            return Optional.of(relation);
+        });
+        when(userTaskRelationRepository.existsByUserIdAndTaskId(anyLong(), anyLong()))
+                .thenAnswer(inv -> isLinked(inv.getArgument(0), inv.getArgument(1)));
+        when(userTaskRelationRepository.save(any(UserTaskRelation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        taskService = new TaskService(taskRepository, userTaskRelationRepository,
+                mock(UserClassRelationRepository.class), mock(ClassRepository.class), currentUserResolver,
+                membershipCache, taskAclCache, mock(ApplicationEventPublisher.class), mock(CalendarReadModelService.class),
+                mock(ListCountCache.class));
+        securityService = new SecurityService(currentUserResolver, taskAclCache, membershipCache,
+                userTaskRelationRepository);
+    }
+
+    @Test
+    void classTaskRules() {
+        // 访问需要已关联任务；编辑为创建者或已批准的班级管理员
+        assertPermissions(CLASS_TASK_ID, CREATOR, false, true);
+        assertPermissions(CLASS_TASK_ID, MANAGER, false, true);
+        assertPermissions(CLASS_TASK_ID, APPROVED_UNLINKED, false, false);
+        assertPermissions(CLASS_TASK_ID, LINKED, true, false);
+        assertPermissions(CLASS_TASK_ID, PENDING, true, false);
+        assertPermissions(CLASS_TASK_ID, NON_MEMBER, false, false);
+    }
+
+    @Test
+    void personalTaskRules() {
+        assertPermissions(PERSONAL_TASK_ID, CREATOR, true, true);
+        for (Long userId : List.of(MANAGER, APPROVED_UNLINKED, LINKED, PENDING, NON_MEMBER)) {
+            assertPermissions(PERSONAL_TASK_ID, userId, false, false);
+        }
+    }
+
+    @Test
+    void missingTaskHasNoPermissions() {
+        assertPermissions(999L, CREATOR, false, false);
+    }
+
+    @Test
+    void permissionChecksDoNotLoadTheTask() {
+        // 被拒绝的修改/状态更新和所有删除都只读权限信息缓存，不加载任务实体
+        currentUserId = APPROVED_UNLINKED;
+        succeeds(() -> taskService.updateTask(CLASS_TASK_ID, taskUpdate()));
+        succeeds(() -> taskService.updateTaskStatus(CLASS_TASK_ID, statusUpdate()));
+        currentUserId = MANAGER;
+        taskService.deleteTask(CLASS_TASK_ID);
+        verify(taskRepository, never()).findById(anyLong());
+        verify(taskRepository).markDeleted(eq(CLASS_TASK_ID), any());
+    }
+
+    /**
+     * 批量结果等于期望值，并且每个单任务接口的实际结果都与批量结果一致
+     */
+    private void assertPermissions(Long taskId, Long userId, boolean canAccess, boolean canEdit) {
+        currentUserId = userId;
+        String who = "user " + userId + " task " + taskId;
+
+        TaskPermissionDto bulk = taskService.getTaskPermissions(List.of(taskId)).get(0);
+        assertEquals(canAccess, bulk.isCanAccess(), who + " 批量 canAccess");
+        assertEquals(canEdit, bulk.isCanEdit(), who + " 批量 canEdit");
+
+        assertEquals(bulk.isCanAccess(), succeeds(() -> taskService.getTaskDetail(taskId)), who + " 任务详情");
+        assertEquals(bulk.isCanAccess(), succeeds(() -> taskService.updateTaskStatus(taskId, statusUpdate())), who + " 更新状态");
+        assertEquals(bulk.isCanAccess(), securityService.canAccessTask(taskId), who + " canAccessTask");
+        assertEquals(bulk.isCanAccess(), taskService.canUserAccessTask(userId, taskId), who + " canUserAccessTask");
+
+        assertEquals(bulk.isCanEdit(), succeeds(() -> taskService.updateTask(taskId, taskUpdate())), who + " 修改");
+        assertEquals(bulk.isCanEdit(), succeeds(() -> taskService.deleteTask(taskId)), who + " 删除");
+        assertEquals(bulk.isCanEdit(), securityService.canEditTask(taskId), who + " canEditTask");
+    }
+
+    private static boolean succeeds(Runnable call) {
+        try {
+            call.run();
+            return true;
+        } catch (BusinessException e) {
+            return false;
+        }
+    }
+
+    private static boolean isLinked(Long userId, Long taskId) {
+        return CLASS_TASK_ID.equals(taskId) && facts(userId).linked();
+    }
+
+    private static Facts facts(Long userId) {
+        return FACTS.getOrDefault(userId, new Facts(null, null, false));
+    }
+
+    private static Task task(Long taskId) {
+        Task task = new Task();
+        task.setId(taskId);
+        task.setTitle("task " + taskId);
+        task.setCreator(user(CREATOR));
+        task.setDeadline(LocalDateTime.of(2030, 1, 1, 8, 0));
+        if (CLASS_TASK_ID.equals(taskId)) {
+            Classes classEntity = new Classes();
+            classEntity.setId(CLASS_ID);
+            classEntity.setName("class");
+            task.setTaskType(Task.TaskType.CLASS);
+            task.setClassEntity(classEntity);
+        } else if (PERSONAL_TASK_ID.equals(taskId)) {
+            task.setTaskType(Task.TaskType.PERSONAL);
+        } else {
+            return null;
+        }
+        return task;
+    }
+
+    private static TaskAclDto acl(Task task) {
+        if (task == null) {
+            return null;
+        }
+        Long classId = task.getClassEntity() != null ? task.getClassEntity().getId() : null;
+        return new TaskAclDto(task.getId(), task.getTaskType(), task.getCreator().getId(), classId, task.isDeleted());
+    }
+
+    private static TaskDetailRow detailRow(Long userId, Task task) {
+        Long classId = task.getClassEntity() != null ? task.getClassEntity().getId() : null;
+        Long relationId = isLinked(userId, task.getId()) ? 1000L + userId : null;
+        return new TaskDetailRow(task.getId(), task.getTitle(), null, null, task.getTaskType(), task.getDeadline(),
+                null, null, task.isDeleted(), task.getCreator().getId(), "creator", classId, null,
+                relationId, relationId != null ? UserTaskRelation.TaskStatus.TODO : null, null, null, null);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("user " + id);
+        return user;
+    }
+
+    private static TaskStatusUpdateDto statusUpdate() {
+        TaskStatusUpdateDto dto = new TaskStatusUpdateDto();
+        dto.setStatus(UserTaskRelation.TaskStatus.IN_PROGRESS);
+        return dto;
+    }
+
+    private static TaskCreateDto taskUpdate() {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("renamed");
+        dto.setCourseName("course");
+        dto.setDeadline(LocalDateTime.of(2030, 2, 1, 8, 0));
+        return dto;
+    }
+
+    private record Facts(UserClassRelation.RoleInClass role, UserClassRelation.JoinStatus status, boolean linked) {
+
+        MembershipCache.Membership membership() {
+            return new MembershipCache.Membership(role, status);
+        }
+    }
+}
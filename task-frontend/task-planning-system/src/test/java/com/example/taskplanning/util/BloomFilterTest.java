@@ -0,0 +1,109 @@
+package com.example.taskplanning.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BloomFilter 单元测试：插入过的元素一定判定为可能存在（无漏判），误判率接近设定值
+ */
+class BloomFilterTest {
+
+    @Test
+    void noFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        List<String> inserted = uuids(10_000);
+        inserted.forEach(filter::put);
+
+        for (String value : inserted) {
+            assertTrue(filter.mightContain(value), value);
+        }
+    }
+
+    @Test
+    void noFalseNegativesBeyondExpectedInsertions() {
+        // 超出预计数量时误判率上升，但插入过的元素仍然不会漏判
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        List<String> inserted = uuids(5_000);
+        inserted.forEach(filter::put);
+
+        for (String value : inserted) {
+            assertTrue(filter.mightContain(value), value);
+        }
+    }
+
+    @Test
+    void noFalseNegativesUnderConcurrentPuts() throws Exception {
+        BloomFilter filter = new BloomFilter(40_000, 0.001);
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            batches.add(uuids(5_000));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(batches.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<String> batch : batches) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    batch.forEach(filter::put);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (List<String> batch : batches) {
+            for (String value : batch) {
+                assertTrue(filter.mightContain(value), value);
+            }
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsCloseToConfigured() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        uuids(10_000).forEach(filter::put);
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (String value : uuids(probes)) {
+            if (filter.mightContain(value)) {
+                falsePositives++;
+            }
+        }
+        // 设定1%，留出随机波动的余量
+        assertTrue(falsePositives < probes * 0.02, "误判 " + falsePositives + " / " + probes);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+        for (String value : uuids(1_000)) {
+            assertFalse(filter.mightContain(value));
+        }
+    }
+
+    private static List<String> uuids(int count) {
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(UUID.randomUUID().toString());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.taskplanning.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IcsWriter 单元测试：文本转义和按UTF-8字节折行（RFC 5545 3.1、3.3.11）
+ */
+class IcsWriterTest {
+
+    @Test
+    void escapesTextValues() throws IOException {
+        assertEquals("a\\,b\\;c\\\\d\\ne\\nf", IcsWriter.escape("a,b;c\\d\ne\r\nf"));
+        assertEquals("SUMMARY:周报\\, 第1周\\; 见 C:\\\\docs\r\n",
+                write(writer -> writer.text("SUMMARY", "周报, 第1周; 见 C:\\docs")));
+    }
+
+    @Test
+    void shortLineIsNotFolded() throws IOException {
+        String line = "UID:" + "x".repeat(71);
+        assertEquals(line + "\r\n", write(writer -> writer.property("UID", "x".repeat(71))));
+    }
+
+    @Test
+    void foldsAsciiAt75Octets() throws IOException {
+        String value = "x".repeat(200);
+        List<String> lines = physicalLines(write(writer -> writer.property("DESCRIPTION", value)));
+
+        assertEquals(75, octets(lines.get(0)));
+        assertFoldedCorrectly(lines, "DESCRIPTION:" + value);
+    }
+
+    @Test
+    void foldsMultiByteCharactersWithoutSplittingThem() throws IOException {
+        // 3字节的汉字和4字节的表情（代理对），72字节的前缀加第一个汉字恰好写满75字节
+        String value = "中文描述，含表情😀和逗号".repeat(10);
+        String prefix = "DESCRIPTION:" + "x".repeat(60);
+        List<String> lines = physicalLines(write(writer -> writer.text("DESCRIPTION", "x".repeat(60) + value)));
+
+        // 第一行 72 字节 + 一个3字节字符 = 75，不超出
+        assertEquals(75, octets(lines.get(0)));
+        // 拆开的代理对会被编码成 '?'，还原结果就对不上
+        assertFoldedCorrectly(lines, prefix + IcsWriter.escape(value));
+    }
+
+    @Test
+    void writesUtcDateTime() throws IOException {
+        assertEquals("DTSTART:20250101T080000Z\r\n",
+                write(writer -> writer.dateTime("DTSTART", Instant.parse("2025-01-01T08:00:00Z"))));
+    }
+
+    /**
+     * 每个物理行不超过75字节，续行以一个空格开头，去掉折行后还原出原内容行
+     */
+    private static void assertFoldedCorrectly(List<String> lines, String expectedLine) {
+        StringBuilder unfolded = new StringBuilder(lines.get(0));
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            assertTrue(octets(line) <= 75, "第" + i + "行超过75字节: " + octets(line));
+            if (i > 0) {
+                assertTrue(line.startsWith(" ") && line.length() > 1, "续行必须以空格开头: " + line);
+                unfolded.append(line, 1, line.length());
+            }
+        }
+        assertTrue(lines.size() > 1);
+        assertEquals(expectedLine, unfolded.toString());
+    }
+
+    private static List<String> physicalLines(String ics) {
+        assertTrue(ics.endsWith("\r\n"));
+        return List.of(ics.substring(0, ics.length() - 2).split("\r\n", -1));
+    }
+
+    private static int octets(String line) {
+        return line.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static String write(IcsBody body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (IcsWriter writer = new IcsWriter(bytes)) {
+            body.write(writer);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface IcsBody {
+        void write(IcsWriter writer) throws IOException;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.taskplanning.util;
+
+import com.example.taskplanning.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * KeysetCursor 单元测试：编码/解码往返一致，被篡改或格式错误的游标一律拒绝
+ */
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsKeyAndId() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 3, 1, 8, 30, 15, 123_456_000), 42L);
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void roundTripsNullKey() {
+        KeysetCursor cursor = new KeysetCursor(null, 7L);
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new KeysetCursor(LocalDateTime.of(2025, 12, 31, 23, 59), Long.MAX_VALUE).encode();
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(""));
+        assertNull(KeysetCursor.decode("  "));
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        List<String> tampered = List.of(
+                "not base64!",
+                encode("2|2025-03-01T08:30|42"),   // 未知版本
+                encode("1|2025-03-01T08:30"),      // 缺少字段
+                encode("1|2025-03-01T08:30|42|9"), // 多出字段
+                encode("1|2025-13-01T08:30|42"),   // 非法日期
+                encode("1|2025-03-01T08:30|abc"),  // 非数字ID
+                encode("1||42"),                   // 空的排序键
+                encode("1|-|"));                   // 空的ID
+        for (String cursor : tampered) {
+            BusinessException e = assertThrows(BusinessException.class, () -> KeysetCursor.decode(cursor), cursor);
+            assertEquals("INVALID_CURSOR", e.getErrorCode());
+        }
+    }
+
+    @Test
+    void rejectsTruncatedCursor() {
+        String encoded = new KeysetCursor(LocalDateTime.of(2025, 3, 1, 8, 30), 42L).encode();
+        assertThrows(BusinessException.class, () -> KeysetCursor.decode(encoded.substring(0, encoded.length() / 2)));
+    }
+
+    @Test
+    void clampsPageSize() {
+        assertEquals(1, KeysetCursor.clampSize(0));
+        assertEquals(1, KeysetCursor.clampSize(-5));
+        assertEquals(20, KeysetCursor.clampSize(20));
+        assertEquals(KeysetCursor.MAX_PAGE_SIZE, KeysetCursor.clampSize(10_000));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.taskplanning.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TokenBucketRateLimiter 单元测试：突发容量、按时间补充、分段哈希和分段内的LRU淘汰（注入可控时钟，不依赖真实时间）
+ */
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void allowsBurstUpToCapacity() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 5, 1000, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("ip:1"), "第" + (i + 1) + "次请求应放行");
+        }
+        assertFalse(limiter.tryAcquire("ip:1"));
+        // 其他key有自己的桶
+        assertTrue(limiter.tryAcquire("ip:2"));
+        assertEquals(6L, limiter.snapshot().get("allowed"));
+        assertEquals(1L, limiter.snapshot().get("rejected"));
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        // 每分钟6个，即每10秒1个
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 6, 1000, clock::get);
+        assertTrue(limiter.tryAcquire("k"));
+        assertTrue(limiter.tryAcquire("k"));
+        assertFalse(limiter.tryAcquire("k"));
+
+        advance(9, TimeUnit.SECONDS);
+        assertFalse(limiter.tryAcquire("k"));
+
+        advance(1, TimeUnit.SECONDS);
+        assertTrue(limiter.tryAcquire("k"));
+        assertFalse(limiter.tryAcquire("k"));
+    }
+
+    @Test
+    void refillIsCappedAtCapacity() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 60, 1000, clock::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("k");
+        }
+
+        // 空闲一小时，最多攒回容量个令牌
+        advance(1, TimeUnit.HOURS);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("k"));
+        }
+        assertFalse(limiter.tryAcquire("k"));
+    }
+
+    @Test
+    void stripeIndexIsInRangeForNegativeHashCodes() {
+        // "polygenelubricants".hashCode() == Integer.MIN_VALUE
+        for (String key : List.of("polygenelubricants", "login:10.0.0.1", "", "resend:a@example.com")) {
+            int stripe = TokenBucketRateLimiter.stripeOf(key);
+            assertTrue(stripe >= 0 && stripe < TokenBucketRateLimiter.STRIPES, key + " -> " + stripe);
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedKeyWithinStripe() {
+        // maxKeys 较小时每个分段至少保留16个桶
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 1, clock::get);
+        List<String> sameStripe = keysInStripe(TokenBucketRateLimiter.stripeOf("k0"), 17);
+
+        for (String key : sameStripe) {
+            assertTrue(limiter.tryAcquire(key));
+        }
+        assertEquals(16, limiter.trackedKeys());
+
+        // 第一个key已被淘汰，重新获得一个满桶；仍在表中的key还是空桶
+        assertTrue(limiter.tryAcquire(sameStripe.get(0)));
+        assertFalse(limiter.tryAcquire(sameStripe.get(16)));
+    }
+
+    private void advance(long amount, TimeUnit unit) {
+        clock.addAndGet(unit.toNanos(amount));
+    }
+
+    private static List<String> keysInStripe(int stripe, int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String key = "k" + i;
+            if (TokenBucketRateLimiter.stripeOf(key) == stripe) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}